@@ -187,6 +187,16 @@ public class Bits {
 
     public static class Ray {
 
+        private static final long[][] LINES = initLines();
+
+        /**
+         * Returns the full line (from edge to edge of the board) passing through two squares, or an empty bitboard if
+         * the squares do not share a rank, file or diagonal.
+         */
+        public static long line(int from, int to) {
+            return LINES[from][to];
+        }
+
         /**
          * Calculates the ray (bitboard) between two squares on the chessboard.
          */
@@ -205,6 +215,28 @@ public class Bits {
             return ray;
         }
 
+        private static long[][] initLines() {
+            final long[][] lines = new long[Square.COUNT][Square.COUNT];
+            for (int from = 0; from < Square.COUNT; from++) {
+                for (int to = 0; to < Square.COUNT; to++) {
+                    final int offset = from != to ? direction(from, to) : 0;
+                    if (offset == 0) continue;
+                    long line = Bits.of(from);
+                    for (int step : new int[] { offset, -offset }) {
+                        int sq = from;
+                        int next = sq + step;
+                        while (Square.isValid(next) && Math.abs(File.of(next) - File.of(sq)) <= 1) {
+                            line |= Bits.of(next);
+                            sq = next;
+                            next = sq + step;
+                        }
+                    }
+                    lines[from][to] = line;
+                }
+            }
+            return lines;
+        }
+
         /**
          * Determines the direction offset between two squares on the chessboard.
          */
@@ -1,7 +1,9 @@
 package com.kelseyde.calvin.board;
 
 import com.kelseyde.calvin.board.Bits.File;
+import com.kelseyde.calvin.board.Bits.Ray;
 import com.kelseyde.calvin.board.Bits.Square;
+import com.kelseyde.calvin.movegen.Attacks;
 import com.kelseyde.calvin.search.Search;
 import com.kelseyde.calvin.uci.UCI;
 import com.kelseyde.calvin.utils.notation.FEN;
@@ -12,28 +14,29 @@ import java.util.Arrays;
  * Represents the current state of the chess board, including the positions of the pieces, the side to move, en passant
  * rights, fifty-move counter, and the move counter. Includes functions to 'make' and 'unmake' moves on the board, which
  * are fundamental to both the search and evaluation algorithms. Uses bitboards to represent the pieces and 'toggling'
- * functions to set and unset pieces.
+ * functions to set and unset pieces, plus a byte mailbox of primitive piece indices for fast square lookups.
  *
  * @see <a href="https://www.chessprogramming.org/Board_Representation">Chess Programming Wiki</a>
  */
 public class Board {
 
     private long[] bitboards;
-    private Piece[] pieces;
+    private byte[] pieces;
     private BoardState state;
     private BoardState[] states;
-    private Move[] moves;
+    private int[] moves;
     private boolean white;
     private int ply;
 
     public Board() {
         this.bitboards   = new long[Piece.COUNT + 2];
-        this.pieces      = new Piece[Square.COUNT];
-        this.moves       = new Move[Search.MAX_DEPTH];
+        this.pieces      = new byte[Square.COUNT];
+        this.moves       = new int[Search.MAX_DEPTH];
         this.states      = new BoardState[Search.MAX_DEPTH];
         this.state       = new BoardState();
         this.white       = true;
         this.ply         = 0;
+        Arrays.fill(pieces, (byte) Piece.NONE);
     }
 
     /**
@@ -41,19 +44,27 @@ public class Board {
      * piece + remove the captured piece, plus special rules for pawn double-moves, castling, promotion and en passant.
      */
     public boolean makeMove(Move move) {
+        return makeMove(move.value());
+    }
 
-        final int from = move.from();
-        final int to = move.to();
-        final Piece piece = pieces[from];
-        if (piece == null) return false;
-        final Piece captured = move.isEnPassant() ? Piece.PAWN : pieces[to];
+    /**
+     * Updates the internal board representation with the encoded move just made.
+     * @see #makeMove(Move)
+     */
+    public boolean makeMove(int move) {
+
+        final int from = Move.from(move);
+        final int to = Move.to(move);
+        final int piece = pieces[from];
+        if (piece == Piece.NONE) return false;
+        final int captured = Move.isEnPassant(move) ? Piece.PAWN_INDEX : pieces[to];
         states[ply] = state.copy();
 
-        if (move.isPawnDoubleMove())  makePawnDoubleMove(from, to);
-        else if (move.isCastling())   makeCastleMove(from, to);
-        else if (move.isPromotion())  makePromotionMove(from, to, move.promoPiece(), captured);
-        else if (move.isEnPassant())  makeEnPassantMove(from, to);
-        else                          makeStandardMove(from, to, piece, captured);
+        if (Move.isPawnDoubleMove(move))  makePawnDoubleMove(from, to);
+        else if (Move.isCastling(move))   makeCastleMove(from, to);
+        else if (Move.isPromotion(move))  makePromotionMove(from, to, Move.promoPieceIndex(move), captured);
+        else if (Move.isEnPassant(move))  makeEnPassantMove(from, to);
+        else                              makeStandardMove(from, to, piece, captured);
 
         updateState(from, to, piece, captured, move);
         moves[ply++] = move;
@@ -71,16 +82,16 @@ public class Board {
     public void unmakeMove() {
 
         white = !white;
-        final Move move = moves[--ply];
+        final int move = moves[--ply];
 
-        final int from = move.from();
-        final int to = move.to();
-        final Piece piece = pieceAt(to);
+        final int from = Move.from(move);
+        final int to = Move.to(move);
+        final int piece = pieces[to];
 
-        if (move.isCastling())        unmakeCastlingMove(from, to);
-        else if (move.isPromotion())  unmakePromotionMove(from, to, move.promoPiece());
-        else if (move.isEnPassant())  unmakeEnPassantMove(from, to);
-        else                          unmakeStandardMove(from, to, piece);
+        if (Move.isCastling(move))        unmakeCastlingMove(from, to);
+        else if (Move.isPromotion(move))  unmakePromotionMove(from, to, Move.promoPieceIndex(move));
+        else if (Move.isEnPassant(move))  unmakeEnPassantMove(from, to);
+        else                              unmakeStandardMove(from, to, piece);
 
         state = states[ply];
 
@@ -88,9 +99,9 @@ public class Board {
 
     private void makePawnDoubleMove(int from, int to) {
         // Handle moving pawn
-        updateBitboards(from, to, Piece.PAWN, white);
-        updateMailbox(from, to, Piece.PAWN);
-        updateKeys(from, to, Piece.PAWN, white);
+        updateBitboards(from, to, Piece.PAWN_INDEX, white);
+        updateMailbox(from, to, Piece.PAWN_INDEX);
+        hashStandardMove(from, to, Piece.PAWN_INDEX, Piece.NONE);
     }
 
     private void makeCastleMove(int from, int to) {
@@ -105,99 +116,153 @@ public class Board {
         final boolean kingside = Castling.isKingside(from, to);
 
         // Handle moving king
-        updateBitboards(from, to, Piece.KING, white);
-        updateMailbox(from, to, Piece.KING);
+        updateBitboards(from, to, Piece.KING_INDEX, white);
+        updateMailbox(from, to, Piece.KING_INDEX);
 
         // Handle moving rook
         final int rookFrom = Castling.rookFrom(kingside, white);
         final int rookTo = Castling.rookTo(kingside, white);
-        updateBitboards(rookFrom, rookTo, Piece.ROOK, white);
-        updateMailbox(rookFrom, rookTo, Piece.ROOK);
+        updateBitboards(rookFrom, rookTo, Piece.ROOK_INDEX, white);
+        updateMailbox(rookFrom, rookTo, Piece.ROOK_INDEX);
 
-        updateKeys(from, to, Piece.KING, white);
-        updateKeys(rookFrom, rookTo, Piece.ROOK, white);
+        hashCastleMove(from, to, rookFrom, rookTo);
     }
 
     private void makeChess960CastleMove(int from, int to) {
         final boolean kingside = Castling.isKingside(from, to);
 
         // Unset king
-        updateBitboard(from, Piece.KING, white);
-        updateMailbox(from, null);
+        updateBitboard(from, Piece.KING_INDEX, white);
+        updateMailbox(from, Piece.NONE);
 
         // Unset rook
         // (in Chess960 the 'to' square of a castling move is the rook square)
         final int rookTo = Castling.rookTo(kingside, white);
-        updateBitboard(to, Piece.ROOK, white);
-        updateMailbox(to, null);
+        updateBitboard(to, Piece.ROOK_INDEX, white);
+        updateMailbox(to, Piece.NONE);
 
         final int kingTo = Castling.kingTo(kingside, white);
 
         // Set king
-        updateBitboard(kingTo, Piece.KING, white);
-        updateMailbox(kingTo, Piece.KING);
+        updateBitboard(kingTo, Piece.KING_INDEX, white);
+        updateMailbox(kingTo, Piece.KING_INDEX);
 
         // Set rook
-        updateBitboard(rookTo, Piece.ROOK, white);
-        updateMailbox(rookTo, Piece.ROOK);
+        updateBitboard(rookTo, Piece.ROOK_INDEX, white);
+        updateMailbox(rookTo, Piece.ROOK_INDEX);
 
-        updateKeys(from, kingTo, Piece.KING, white);
-        updateKeys(to, rookTo, Piece.ROOK, white);
+        hashCastleMove(from, kingTo, to, rookTo);
     }
 
     private void makeEnPassantMove(int from, int to) {
         // Handle capturing pawn
-        updateBitboards(from, to, Piece.PAWN, white);
-        updateMailbox(from, to, Piece.PAWN);
-        updateKeys(from, to, Piece.PAWN, white);
+        updateBitboards(from, to, Piece.PAWN_INDEX, white);
+        updateMailbox(from, to, Piece.PAWN_INDEX);
         // Handle captured pawn
         final int pawnSquare = white ? to - 8 : to + 8;
-        updateBitboard(pawnSquare, Piece.PAWN, !white);
-        updateMailbox(pawnSquare, null);
-        updateKeys(pawnSquare, Piece.PAWN, !white);
+        updateBitboard(pawnSquare, Piece.PAWN_INDEX, !white);
+        updateMailbox(pawnSquare, Piece.NONE);
+        hashEnPassantMove(from, to, pawnSquare);
     }
 
-    private void makePromotionMove(int from, int to, Piece promoted, Piece captured) {
+    private void makePromotionMove(int from, int to, int promoted, int captured) {
         // Remove promoting pawn
-        updateBitboard(from, Piece.PAWN, white);
-        updateKeys(from, Piece.PAWN, white);
+        updateBitboard(from, Piece.PAWN_INDEX, white);
         // Add promoted piece
         updateBitboard(to, promoted, white);
         updateMailbox(from, to, promoted);
-        updateKeys(to, promoted, white);
-        if (captured != null) {
+        if (captured != Piece.NONE) {
             // Handle captured piece
             updateBitboard(to, captured, !white);
-            updateKeys(to, captured, !white);
         }
+        hashPromotionMove(from, to, promoted, captured);
     }
 
-    private void makeStandardMove(int from, int to, Piece piece, Piece captured) {
+    private void makeStandardMove(int from, int to, int piece, int captured) {
         // Handle moving piece
         updateBitboards(from, to, piece, white);
-        updateKeys(from, to, piece, white);
         updateMailbox(from, to, piece);
-        if (captured != null) {
+        if (captured != Piece.NONE) {
             // Remove captured piece
             updateBitboard(to, captured, !white);
-            updateKeys(to, captured, !white);
         }
+        hashStandardMove(from, to, piece, captured);
     }
 
-    private void updateState(int from, int to, Piece piece, Piece captured, Move move) {
+    private void updateState(int from, int to, int piece, int captured, int move) {
         state.captured = captured;
-        final boolean resetClock = captured != null || Piece.PAWN.equals(piece);
+        final boolean resetClock = captured != Piece.NONE || piece == Piece.PAWN_INDEX;
         state.halfMoveClock = resetClock ? 0 : ++state.halfMoveClock;
 
         final int castleRights = updateCastleRights(from, to, piece);
-        state.key ^= Key.rights(state.rights, castleRights);
+        final int enPassantFile = Move.isPawnDoubleMove(move) ? File.of(to) : -1;
+        state.key ^= Key.rights(state.rights, castleRights)
+                ^ Key.enPassant(state.enPassantFile, enPassantFile)
+                ^ Key.sideToMove();
         state.rights = castleRights;
-
-        final int enPassantFile = move.isPawnDoubleMove() ? File.of(to) : -1;
-        state.key ^= Key.enPassant(state.enPassantFile, enPassantFile);
         state.enPassantFile = enPassantFile;
+        state.clearAttacks();
+    }
 
-        state.key ^= Key.sideToMove();
+    /**
+     * Incrementally updates every key family - the full key, the pawn and non-pawn keys, and the material key - for a
+     * standard move (including pawn double moves), in a single pass. Must be called after the bitboards are updated.
+     */
+    private void hashStandardMove(int from, int to, int piece, int captured) {
+        final int us = Colour.index(white);
+        final long moveHash = Key.piece(from, to, piece, white);
+        long key = state.key ^ moveHash;
+        if (piece == Piece.PAWN_INDEX) {
+            state.pawnKey ^= moveHash;
+        } else {
+            state.nonPawnKeys[us] ^= moveHash;
+        }
+        if (captured != Piece.NONE) {
+            final long captureHash = Key.piece(to, captured, !white);
+            key ^= captureHash;
+            if (captured == Piece.PAWN_INDEX) {
+                state.pawnKey ^= captureHash;
+            } else {
+                state.nonPawnKeys[1 - us] ^= captureHash;
+            }
+            state.materialKey ^= Key.material(captured, !white, Bits.count(getPieces(captured, 1 - us)));
+        }
+        state.key = key;
+    }
+
+    private void hashCastleMove(int kingFrom, int kingTo, int rookFrom, int rookTo) {
+        final long castleHash = Key.piece(kingFrom, kingTo, Piece.KING_INDEX, white)
+                ^ Key.piece(rookFrom, rookTo, Piece.ROOK_INDEX, white);
+        state.key ^= castleHash;
+        state.nonPawnKeys[Colour.index(white)] ^= castleHash;
+    }
+
+    private void hashEnPassantMove(int from, int to, int pawnSquare) {
+        final long enPassantHash = Key.piece(from, to, Piece.PAWN_INDEX, white)
+                ^ Key.piece(pawnSquare, Piece.PAWN_INDEX, !white);
+        state.key ^= enPassantHash;
+        state.pawnKey ^= enPassantHash;
+        state.materialKey ^= Key.material(Piece.PAWN_INDEX, !white, Bits.count(getPawns(!white)));
+    }
+
+    private void hashPromotionMove(int from, int to, int promoted, int captured) {
+        final int us = Colour.index(white);
+        final long pawnHash = Key.piece(from, Piece.PAWN_INDEX, white);
+        final long promotedHash = Key.piece(to, promoted, white);
+        long key = state.key ^ pawnHash ^ promotedHash;
+        state.pawnKey ^= pawnHash;
+        state.nonPawnKeys[us] ^= promotedHash;
+        long materialKey = state.materialKey
+                ^ Key.material(Piece.PAWN_INDEX, white, Bits.count(getPawns(white)))
+                ^ Key.material(promoted, white, Bits.count(getPieces(promoted, us)) - 1);
+        if (captured != Piece.NONE) {
+            final long captureHash = Key.piece(to, captured, !white);
+            key ^= captureHash;
+            state.nonPawnKeys[1 - us] ^= captureHash;
+            materialKey ^= Key.material(captured, !white, Bits.count(getPieces(captured, 1 - us)));
+        }
+        state.key = key;
+        state.materialKey = materialKey;
     }
 
     private void unmakeCastlingMove(int from, int to) {
@@ -210,42 +275,42 @@ public class Board {
 
     private void unmakeStandardCastleMove(int from, int to) {
         // Put back king
-        updateBitboards(to, from, Piece.KING, white);
-        updateMailbox(to, from, Piece.KING);
+        updateBitboards(to, from, Piece.KING_INDEX, white);
+        updateMailbox(to, from, Piece.KING_INDEX);
         // Put back rook
         final boolean kingside = Castling.isKingside(from, to);
         final int rookFrom = Castling.rookFrom(kingside, white);
         final int rookTo = Castling.rookTo(kingside, white);
-        updateBitboards(rookTo, rookFrom, Piece.ROOK, white);
-        updateMailbox(rookTo, rookFrom, Piece.ROOK);
+        updateBitboards(rookTo, rookFrom, Piece.ROOK_INDEX, white);
+        updateMailbox(rookTo, rookFrom, Piece.ROOK_INDEX);
     }
 
     private void unmakeChess960CastleMove(int from, int to) {
         final boolean kingside = Castling.isKingside(from, to);
         final int kingTo = Castling.kingTo(kingside, white);
         // Unset king
-        updateBitboard(kingTo, Piece.KING, white);
-        updateMailbox(kingTo, null);
+        updateBitboard(kingTo, Piece.KING_INDEX, white);
+        updateMailbox(kingTo, Piece.NONE);
         // Unset rook
         final int rookTo = Castling.rookTo(kingside, white);
-        updateBitboard(rookTo, Piece.ROOK, white);
-        updateMailbox(rookTo, null);
+        updateBitboard(rookTo, Piece.ROOK_INDEX, white);
+        updateMailbox(rookTo, Piece.NONE);
         // Set king
-        updateBitboard(from, Piece.KING, white);
-        updateMailbox(from, Piece.KING);
+        updateBitboard(from, Piece.KING_INDEX, white);
+        updateMailbox(from, Piece.KING_INDEX);
         // Set rook
-        updateBitboard(to, Piece.ROOK, white);
-        updateMailbox(to, Piece.ROOK);
+        updateBitboard(to, Piece.ROOK_INDEX, white);
+        updateMailbox(to, Piece.ROOK_INDEX);
     }
 
-    private void unmakePromotionMove(int from, int to, Piece promotionPiece) {
+    private void unmakePromotionMove(int from, int to, int promotionPiece) {
         // Remove promoted piece
         updateBitboard(to, promotionPiece, white);
         // Put back promoting pawn
-        updateMailbox(from, Piece.PAWN);
-        updateBitboard(from, Piece.PAWN, white);
+        updateMailbox(from, Piece.PAWN_INDEX);
+        updateBitboard(from, Piece.PAWN_INDEX, white);
         // Put back captured piece
-        if (state.getCaptured() != null) {
+        if (state.getCaptured() != Piece.NONE) {
             updateBitboard(to, state.getCaptured(), !white);
         }
         // If no piece was captured, this correctly nullifies the promo square
@@ -254,19 +319,19 @@ public class Board {
 
     private void unmakeEnPassantMove(int from, int to) {
         // Put back capturing pawn
-        updateBitboards(to, from, Piece.PAWN, white);
-        updateMailbox(to, from, Piece.PAWN);
+        updateBitboards(to, from, Piece.PAWN_INDEX, white);
+        updateMailbox(to, from, Piece.PAWN_INDEX);
         // Add back captured pawn
         final int captureSquare = white ? to - 8 : to + 8;
-        updateBitboard(captureSquare, Piece.PAWN, !white);
-        updateMailbox(captureSquare, Piece.PAWN);
+        updateBitboard(captureSquare, Piece.PAWN_INDEX, !white);
+        updateMailbox(captureSquare, Piece.PAWN_INDEX);
     }
 
-    private void unmakeStandardMove(int from, int to, Piece piece) {
+    private void unmakeStandardMove(int from, int to, int piece) {
         // Put back moving piece
         updateBitboards(to, from, piece, white);
         updateMailbox(to, from, piece);
-        if (state.getCaptured() != null) {
+        if (state.getCaptured() != Piece.NONE) {
             // Add back captured piece
             updateBitboard(to, state.getCaptured(), !white);
             updateMailbox(to, state.getCaptured());
@@ -281,7 +346,7 @@ public class Board {
         white = !white;
         final long key = state.key ^ Key.nullMove(state.enPassantFile);
         final long[] nonPawnKeys = new long[] {state.nonPawnKeys[0], state.nonPawnKeys[1]};
-        final BoardState newState = new BoardState(key, state.pawnKey, nonPawnKeys, null, -1, state.getRights(), 0);
+        final BoardState newState = new BoardState(key, state.pawnKey, nonPawnKeys, state.materialKey, Piece.NONE, -1, state.getRights(), 0);
         states[ply++] = state;
         state = newState;
     }
@@ -294,78 +359,39 @@ public class Board {
         state = states[--ply];
     }
 
-    public void updateBitboards(int from, int to, Piece piece, boolean white) {
+    public void updateBitboards(int from, int to, int piece, boolean white) {
         final long toggleMask = Bits.of(from) | Bits.of(to);
         toggle(toggleMask, piece, white);
     }
 
-    public void updateBitboard(int square, Piece piece, boolean white) {
+    public void updateBitboard(int square, int piece, boolean white) {
         final long toggleMask = Bits.of(square);
         toggle(toggleMask, piece, white);
     }
 
-    private void toggle(long mask, Piece type, boolean white) {
-        final int pieceIndex = type.index();
-        bitboards[pieceIndex] ^= mask;
+    private void toggle(long mask, int piece, boolean white) {
+        bitboards[piece] ^= mask;
         final int colourIndex = white ? Piece.WHITE_PIECES : Piece.BLACK_PIECES;
         bitboards[colourIndex] ^= mask;
     }
 
-    private void updateKeys(int from, int to, Piece piece, boolean white) {
-        final long hash = Key.piece(from, to, piece, white);
-        state.key ^= hash;
-        if (piece == Piece.PAWN) {
-            state.pawnKey ^= hash;
-        } else {
-            final int colourIndex = Colour.index(white);
-            state.nonPawnKeys[colourIndex] ^= hash;
-        }
-    }
-
-    private void updateKeys(int square, Piece piece, boolean white) {
-        final long hash = Key.piece(square, piece, white);
-        state.key ^= hash;
-        if (piece == Piece.PAWN) {
-            state.pawnKey ^= hash;
-        } else {
-            final int colourIndex = Colour.index(white);
-            state.nonPawnKeys[colourIndex] ^= hash;
-        }
+    private void updateMailbox(int from, int to, int piece) {
+        pieces[from] = (byte) Piece.NONE;
+        pieces[to] = (byte) piece;
     }
 
-    private void updateMailbox(int from, int to, Piece piece) {
-        pieces[from] = null;
-        pieces[to] = piece;
+    private void updateMailbox(int square, int piece) {
+        pieces[square] = (byte) piece;
     }
 
-    private void updateMailbox(int square, Piece piece) {
-        pieces[square] = piece;
-    }
-
-    public void removeKing(boolean white) {
-        final int pieceIndex = Piece.KING.index;
-        final int colourIndex = white ? Piece.WHITE_PIECES : Piece.BLACK_PIECES;
-        final long toggleMask = bitboards[pieceIndex] & bitboards[colourIndex];
-        bitboards[pieceIndex] ^= toggleMask;
-        bitboards[colourIndex] ^= toggleMask;
-    }
-
-    public void addKing(int kingSquare, boolean white) {
-        final long toggleMask = Bits.of(kingSquare);
-        final int pieceIndex = Piece.KING.index;
-        final int colourIndex = white ? Piece.WHITE_PIECES : Piece.BLACK_PIECES;
-        bitboards[pieceIndex] |= toggleMask;
-        bitboards[colourIndex] |= toggleMask;
-    }
-
-    private int updateCastleRights(int from, int to, Piece pieceType) {
+    private int updateCastleRights(int from, int to, int pieceType) {
         int newRights = state.getRights();
         if (newRights == Castling.empty()) {
             // Both sides already lost castling rights, so nothing to calculate.
             return newRights;
         }
         // Any move by the king removes castling rights.
-        if (Piece.KING.equals(pieceType)) {
+        if (pieceType == Piece.KING_INDEX) {
             newRights = Castling.clearSide(newRights, white);
         }
         // Any move starting from/ending at a rook square removes castling rights for that corner.
@@ -391,45 +417,52 @@ public class Board {
     }
 
     public Piece pieceAt(int square) {
+        return Piece.of(pieces[square]);
+    }
+
+    /**
+     * Returns the primitive index of the piece on the given square, or {@link Piece#NONE} if the square is empty.
+     */
+    public int pieceIndexAt(int square) {
         return pieces[square];
     }
 
-    public boolean isCapture(Move move) {
-        return move.isEnPassant() || pieceAt(move.to()) != null;
+    public boolean isCapture(int move) {
+        return Move.isEnPassant(move) || pieces[Move.to(move)] != Piece.NONE;
     }
 
-    public boolean isQuiet(Move move) {
-        return !move.isPromotion() && !isCapture(move);
+    public boolean isQuiet(int move) {
+        return !Move.isPromotion(move) && !isCapture(move);
     }
 
     public long getPawns(boolean white) {
         final int colourIndex = white ? Piece.WHITE_PIECES : Piece.BLACK_PIECES;
-        return bitboards[Piece.PAWN.index] & bitboards[colourIndex];
+        return bitboards[Piece.PAWN_INDEX] & bitboards[colourIndex];
     }
 
     public long getKnights(boolean white) {
         final int colourIndex = white ? Piece.WHITE_PIECES : Piece.BLACK_PIECES;
-        return bitboards[Piece.KNIGHT.index] & bitboards[colourIndex];
+        return bitboards[Piece.KNIGHT_INDEX] & bitboards[colourIndex];
     }
 
     public long getBishops(boolean white) {
         final int colourIndex = white ? Piece.WHITE_PIECES : Piece.BLACK_PIECES;
-        return bitboards[Piece.BISHOP.index] & bitboards[colourIndex];
+        return bitboards[Piece.BISHOP_INDEX] & bitboards[colourIndex];
     }
 
     public long getRooks(boolean white) {
         final int colourIndex = white ? Piece.WHITE_PIECES : Piece.BLACK_PIECES;
-        return bitboards[Piece.ROOK.index] & bitboards[colourIndex];
+        return bitboards[Piece.ROOK_INDEX] & bitboards[colourIndex];
     }
 
     public long getQueens(boolean white) {
         final int colourIndex = white ? Piece.WHITE_PIECES : Piece.BLACK_PIECES;
-        return bitboards[Piece.QUEEN.index] & bitboards[colourIndex];
+        return bitboards[Piece.QUEEN_INDEX] & bitboards[colourIndex];
     }
 
     public long getKing(boolean white) {
         final int colourIndex = white ? Piece.WHITE_PIECES : Piece.BLACK_PIECES;
-        return bitboards[Piece.KING.index] & bitboards[colourIndex];
+        return bitboards[Piece.KING_INDEX] & bitboards[colourIndex];
     }
 
     public long getPieces(boolean white) {
@@ -441,27 +474,27 @@ public class Board {
     }
 
     public void setPawns(long pawns) {
-        this.bitboards[Piece.PAWN.index] = pawns;
+        this.bitboards[Piece.PAWN_INDEX] = pawns;
     }
 
     public void setKnights(long knights) {
-        this.bitboards[Piece.KNIGHT.index] = knights;
+        this.bitboards[Piece.KNIGHT_INDEX] = knights;
     }
 
     public void setBishops(long bishops) {
-        this.bitboards[Piece.BISHOP.index] = bishops;
+        this.bitboards[Piece.BISHOP_INDEX] = bishops;
     }
 
     public void setRooks(long rooks) {
-        this.bitboards[Piece.ROOK.index] = rooks;
+        this.bitboards[Piece.ROOK_INDEX] = rooks;
     }
 
     public void setQueens(long queens) {
-        this.bitboards[Piece.QUEEN.index] = queens;
+        this.bitboards[Piece.QUEEN_INDEX] = queens;
     }
 
     public void setKings(long kings) {
-        this.bitboards[Piece.KING.index] = kings;
+        this.bitboards[Piece.KING_INDEX] = kings;
     }
 
     public void setWhitePieces(long whitePieces) {
@@ -476,7 +509,7 @@ public class Board {
         this.bitboards = bitboards;
     }
 
-    public void setPieces(Piece[] pieces) {
+    public void setPieces(byte[] pieces) {
         this.pieces = pieces;
     }
 
@@ -492,32 +525,32 @@ public class Board {
         this.states = states;
     }
 
-    public void setMoves(Move[] moves) {
+    public void setMoves(int[] moves) {
         this.moves = moves;
     }
 
     public long getPawns() {
-        return bitboards[Piece.PAWN.index];
+        return bitboards[Piece.PAWN_INDEX];
     }
 
     public long getKnights() {
-        return bitboards[Piece.KNIGHT.index];
+        return bitboards[Piece.KNIGHT_INDEX];
     }
 
     public long getBishops() {
-        return bitboards[Piece.BISHOP.index];
+        return bitboards[Piece.BISHOP_INDEX];
     }
 
     public long getRooks() {
-        return bitboards[Piece.ROOK.index];
+        return bitboards[Piece.ROOK_INDEX];
     }
 
     public long getQueens() {
-        return bitboards[Piece.QUEEN.index];
+        return bitboards[Piece.QUEEN_INDEX];
     }
 
     public long getKings() {
-        return bitboards[Piece.KING.index];
+        return bitboards[Piece.KING_INDEX];
     }
 
     public long getWhitePieces() {
@@ -532,7 +565,7 @@ public class Board {
         return bitboards[Piece.WHITE_PIECES] | bitboards[Piece.BLACK_PIECES];
     }
 
-    public Piece[] getPieces() {
+    public byte[] getPieces() {
         return pieces;
     }
 
@@ -548,7 +581,7 @@ public class Board {
         return states;
     }
 
-    public Move[] getMoves() {
+    public int[] getMoves() {
         return moves;
     }
 
@@ -564,10 +597,121 @@ public class Board {
         return state.getPawnKey();
     }
 
+    public long materialKey() {
+        return state.getMaterialKey();
+    }
+
     public long[] nonPawnKeys() {
         return state.nonPawnKeys;
     }
 
+    /**
+     * Returns the opponent pieces giving check to the side to move. Checkers and pins are calculated together, lazily,
+     * at most once per position, and are restored for free when a move is unmade.
+     */
+    public long checkers() {
+        if (!state.checkersCalculated) calculateCheckersAndPins();
+        return state.checkers;
+    }
+
+    /**
+     * Returns the pieces of the side to move that are pinned to their king.
+     */
+    public long pinned() {
+        if (!state.checkersCalculated) calculateCheckersAndPins();
+        return state.pinned;
+    }
+
+    /**
+     * Returns the opponent sliders that are pinning a piece of the side to move to its king.
+     */
+    public long pinners() {
+        if (!state.checkersCalculated) calculateCheckersAndPins();
+        return state.pinners;
+    }
+
+    public boolean inCheck() {
+        return checkers() != 0;
+    }
+
+    /**
+     * Returns every square attacked by the opponent. The king of the side to move is treated as transparent, so that
+     * squares behind the king on a checking ray are included; any square not in this mask is safe for the king.
+     */
+    public long threats() {
+        if (!state.threatsCalculated) calculateThreats();
+        return state.threats;
+    }
+
+    private void calculateCheckersAndPins() {
+        state.checkersCalculated = true;
+        state.checkers = 0L;
+        state.pinned = 0L;
+        state.pinners = 0L;
+        if (getKing(white) == 0) return;
+
+        final int kingSquare = kingSquare(white);
+        final long friendlies = getPieces(white);
+        final long opponents = getPieces(!white);
+        final long diagonalSliders = getBishops(!white) | getQueens(!white);
+        final long orthogonalSliders = getRooks(!white) | getQueens(!white);
+
+        long checkers = Attacks.pawnAttacks(Bits.of(kingSquare), white) & getPawns(!white)
+                | Attacks.knightAttacks(kingSquare) & getKnights(!white);
+        long pinned = 0L;
+        long pinners = 0L;
+
+        // Sliders that see the king through friendly pieces either give check or pin exactly one friendly piece.
+        long sliders = Attacks.bishopAttacks(kingSquare, opponents) & diagonalSliders
+                | Attacks.rookAttacks(kingSquare, opponents) & orthogonalSliders;
+        while (sliders != 0) {
+            final int slider = Bits.next(sliders);
+            final long blockers = Ray.between(kingSquare, slider) & friendlies;
+            if (blockers == 0) {
+                checkers |= Bits.of(slider);
+            } else if (Bits.count(blockers) == 1) {
+                pinned |= blockers;
+                pinners |= Bits.of(slider);
+            }
+            sliders = Bits.pop(sliders);
+        }
+
+        state.checkers = checkers;
+        state.pinned = pinned;
+        state.pinners = pinners;
+    }
+
+    private void calculateThreats() {
+        final boolean opponent = !white;
+        final long occupied = getOccupied() ^ getKing(white);
+
+        long threats = Attacks.pawnAttacks(getPawns(opponent), opponent);
+        if (getKing(opponent) != 0) {
+            threats |= Attacks.kingAttacks(kingSquare(opponent));
+        }
+
+        long knights = getKnights(opponent);
+        while (knights != 0) {
+            threats |= Attacks.knightAttacks(Bits.next(knights));
+            knights = Bits.pop(knights);
+        }
+
+        long diagonalSliders = getBishops(opponent) | getQueens(opponent);
+        while (diagonalSliders != 0) {
+            threats |= Attacks.bishopAttacks(Bits.next(diagonalSliders), occupied);
+            diagonalSliders = Bits.pop(diagonalSliders);
+        }
+
+        long orthogonalSliders = getRooks(opponent) | getQueens(opponent);
+        while (orthogonalSliders != 0) {
+            threats |= Attacks.rookAttacks(Bits.next(orthogonalSliders), occupied);
+            orthogonalSliders = Bits.pop(orthogonalSliders);
+        }
+
+        state.threats = threats;
+        state.threatsCalculated = true;
+    }
+
     public int kingSquare(boolean white) {
         final long kings = getKing(white);
         final long pieces = getPieces(white);
@@ -605,7 +749,7 @@ public class Board {
             BoardState[] newStates = new BoardState[states.length + 64];
             System.arraycopy(states, 0, newStates, 0, states.length);
 
-            Move[] newMoves = new Move[moves.length + 64];
+            int[] newMoves = new int[moves.length + 64];
             System.arraycopy(moves, 0, newMoves, 0, moves.length);
 
             states = newStates;
@@ -633,14 +777,7 @@ public class Board {
             newStates[i] = this.getStates()[i].copy();
         }
         newBoard.setStates(newStates);
-        Move[] newMoves = new Move[this.getMoves().length];
-        for (int i = 0; i < this.getMoves().length; i++) {
-            if (this.getMoves()[i] == null) {
-                break;
-            }
-            newMoves[i] = new Move(this.getMoves()[i].value());
-        }
-        newBoard.setMoves(newMoves);
+        newBoard.setMoves(Arrays.copyOf(this.getMoves(), this.getMoves().length));
         newBoard.setPieces(Arrays.copyOf(this.getPieces(), this.getPieces().length));
         return newBoard;
     }
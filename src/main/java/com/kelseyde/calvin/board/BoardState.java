@@ -11,25 +11,36 @@ public class BoardState {
     public long key;
     public long pawnKey;
     public long[] nonPawnKeys;
+    public long materialKey;
     public int enPassantFile;
     public int rights;
     public int halfMoveClock;
-    public Piece captured;
+    public int captured;
+
+    // Attack information for the side to move, calculated lazily by the Board at most once per position.
+    public boolean checkersCalculated;
+    public long checkers;
+    public long pinned;
+    public long pinners;
+    public boolean threatsCalculated;
+    public long threats;
 
     public BoardState() {
         this.key = 0L;
         this.pawnKey = 0L;
         this.nonPawnKeys = new long[2];
-        this.captured = null;
+        this.materialKey = 0L;
+        this.captured = Piece.NONE;
         this.enPassantFile = -1;
         this.rights = Castling.startpos();
         this.halfMoveClock = 0;
     }
 
-    public BoardState(long key, long pawnKey, long[] nonPawnKeys, Piece captured, int enPassantFile, int rights, int halfMoveClock) {
+    public BoardState(long key, long pawnKey, long[] nonPawnKeys, long materialKey, int captured, int enPassantFile, int rights, int halfMoveClock) {
         this.key = key;
         this.pawnKey = pawnKey;
         this.nonPawnKeys = nonPawnKeys;
+        this.materialKey = materialKey;
         this.captured = captured;
         this.enPassantFile = enPassantFile;
         this.rights = rights;
@@ -44,7 +55,11 @@ public class BoardState {
         return pawnKey;
     }
 
-    public Piece getCaptured() {
+    public long getMaterialKey() {
+        return materialKey;
+    }
+
+    public int getCaptured() {
         return captured;
     }
 
@@ -72,6 +87,10 @@ public class BoardState {
         this.nonPawnKeys = nonPawnKeys;
     }
 
+    public void setMaterialKey(long materialKey) {
+        this.materialKey = materialKey;
+    }
+
     public void setEnPassantFile(int enPassantFile) {
         this.enPassantFile = enPassantFile;
     }
@@ -84,9 +103,24 @@ public class BoardState {
         this.halfMoveClock = halfMoveClock;
     }
 
+    /**
+     * Discards the cached attack information, which must be called whenever the position changes.
+     */
+    public void clearAttacks() {
+        checkersCalculated = false;
+        threatsCalculated = false;
+    }
+
     public BoardState copy() {
         long[] nonPawnKeysCopy = new long[]{nonPawnKeys[0], nonPawnKeys[1]};
-        return new BoardState(key, pawnKey, nonPawnKeysCopy, captured, enPassantFile, rights, halfMoveClock);
+        BoardState copy = new BoardState(key, pawnKey, nonPawnKeysCopy, materialKey, captured, enPassantFile, rights, halfMoveClock);
+        copy.checkersCalculated = checkersCalculated;
+        copy.checkers = checkers;
+        copy.pinned = pinned;
+        copy.pinners = pinners;
+        copy.threatsCalculated = threatsCalculated;
+        copy.threats = threats;
+        return copy;
     }
 
     @Override
@@ -96,6 +130,7 @@ public class BoardState {
         BoardState boardState = (BoardState) o;
         return key == boardState.key
                 && pawnKey == boardState.pawnKey
+                && materialKey == boardState.materialKey
                 && enPassantFile == boardState.enPassantFile
                 && rights == boardState.rights
                 && halfMoveClock == boardState.halfMoveClock
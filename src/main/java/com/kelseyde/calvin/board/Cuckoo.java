@@ -0,0 +1,91 @@
+package com.kelseyde.calvin.board;
+
+import com.kelseyde.calvin.board.Bits.Square;
+import com.kelseyde.calvin.movegen.Attacks;
+
+/**
+ * Cuckoo hash tables of every reversible move (a non-pawn piece moving between two squares on an empty board), indexed
+ * by the Zobrist key difference that the move produces. Used to detect whether the side to move has a move available
+ * that returns to a position already seen in the game, so that drawing lines can be cut before the repetition is
+ * actually played.
+ *
+ * @see <a href="https://web.archive.org/web/20201107002606/https://marcelk.net/2013-04-06/paper/upcoming-rep-v2.pdf">
+ *     Marcel van Kervinck - The Cuckoo Hashing Algorithm for Detecting Upcoming Repetitions</a>
+ */
+public class Cuckoo {
+
+    private static final int TABLE_SIZE = 8192;
+    private static final int TABLE_MASK = TABLE_SIZE - 1;
+
+    // The number of reversible moves on an empty board, which must all fit in the tables.
+    public static final int MOVE_COUNT = 3668;
+
+    private static final long[] KEYS = new long[TABLE_SIZE];
+    private static final int[] MOVES = new int[TABLE_SIZE];
+
+    static {
+
+        int count = 0;
+        for (int piece = Piece.KNIGHT_INDEX; piece <= Piece.KING_INDEX; piece++) {
+            for (int colour = Colour.WHITE; colour <= Colour.BLACK; colour++) {
+                final boolean white = colour == Colour.WHITE;
+                for (int from = 0; from < Square.COUNT; from++) {
+                    final long attacks = attacks(piece, from);
+                    for (int to = from + 1; to < Square.COUNT; to++) {
+                        if (!Bits.contains(attacks, to)) continue;
+
+                        int move = Move.encode(from, to);
+                        long key = Key.piece(from, to, piece, white) ^ Key.sideToMove();
+                        int index = h1(key);
+
+                        // Insert the move, displacing any existing entry into its alternate slot until one is empty.
+                        while (true) {
+                            final long displacedKey = KEYS[index];
+                            final int displacedMove = MOVES[index];
+                            KEYS[index] = key;
+                            MOVES[index] = move;
+                            if (displacedMove == Move.NONE) break;
+                            key = displacedKey;
+                            move = displacedMove;
+                            index = index == h1(key) ? h2(key) : h1(key);
+                        }
+                        count++;
+                    }
+                }
+            }
+        }
+
+        if (count != MOVE_COUNT) {
+            throw new IllegalStateException("Failed to initialise cuckoo tables: " + count + " moves");
+        }
+
+    }
+
+    public static int h1(long key) {
+        return (int) key & TABLE_MASK;
+    }
+
+    public static int h2(long key) {
+        return (int) (key >>> 16) & TABLE_MASK;
+    }
+
+    public static long key(int index) {
+        return KEYS[index];
+    }
+
+    public static int move(int index) {
+        return MOVES[index];
+    }
+
+    private static long attacks(int piece, int square) {
+        return switch (piece) {
+            case Piece.KNIGHT_INDEX -> Attacks.knightAttacks(square);
+            case Piece.BISHOP_INDEX -> Attacks.bishopAttacks(square, 0L);
+            case Piece.ROOK_INDEX -> Attacks.rookAttacks(square, 0L);
+            case Piece.QUEEN_INDEX -> Attacks.bishopAttacks(square, 0L) | Attacks.rookAttacks(square, 0L);
+            case Piece.KING_INDEX -> Attacks.kingAttacks(square);
+            default -> 0L;
+        };
+    }
+
+}
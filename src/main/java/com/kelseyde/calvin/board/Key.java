@@ -2,7 +2,6 @@ package com.kelseyde.calvin.board;
 
 import com.kelseyde.calvin.board.Bits.Square;
 
-import java.util.Arrays;
 import java.util.Random;
 
 /**
@@ -12,7 +11,6 @@ import java.util.Random;
  *
  * @see <a href="https://www.chessprogramming.org/Zobrist_Hashing">Chess Programming Wiki</a>
  */
-// TODO: try only generating key once for each update
 public class Key {
 
     private static final int CASTLING_RIGHTS_COUNT = 16;
@@ -21,6 +19,7 @@ public class Key {
     private static final long[][][] PIECE_SQUARE_HASH = new long[Square.COUNT][2][Piece.COUNT];
     private static final long[] CASTLING_RIGHTS = new long[CASTLING_RIGHTS_COUNT];
     private static final long[] EN_PASSANT_FILE = new long[EN_PASSANT_FILES_COUNT];
+    private static final long[][][] MATERIAL_HASH = new long[2][Piece.COUNT][Square.COUNT];
     private static final long SIDE_TO_MOVE;
     private static final int WHITE = 0;
     private static final int BLACK = 1;
@@ -31,7 +30,7 @@ public class Key {
 
         // Generate random Zobrist keys for each piece on each square
         for (int square = 0; square < Square.COUNT; square++) {
-            for (int pieceIndex : Arrays.stream(Piece.values()).map(Piece::index).toList()) {
+            for (int pieceIndex = 0; pieceIndex < Piece.COUNT; pieceIndex++) {
                 PIECE_SQUARE_HASH[square][WHITE][pieceIndex] = random.nextLong();
                 PIECE_SQUARE_HASH[square][BLACK][pieceIndex] = random.nextLong();
             }
@@ -47,6 +46,15 @@ public class Key {
 
         // Generate random key for side to move
         SIDE_TO_MOVE = random.nextLong();
+
+        // Generate random keys for the nth piece of each type and colour, used for the material key
+        for (int colour = WHITE; colour <= BLACK; colour++) {
+            for (int pieceIndex = 0; pieceIndex < Piece.COUNT; pieceIndex++) {
+                for (int count = 0; count < Square.COUNT; count++) {
+                    MATERIAL_HASH[colour][pieceIndex][count] = random.nextLong();
+                }
+            }
+        }
     }
 
     public static long generateKey(Board board) {
@@ -128,6 +136,24 @@ public class Key {
         return keys;
     }
 
+    /**
+     * The material key identifies the material balance of the position, regardless of where the pieces stand. The nth
+     * piece of each type and colour contributes its own random key, so that the key can be updated incrementally
+     * whenever a piece is captured or promoted.
+     */
+    public static long generateMaterialKey(Board board) {
+        long key = 0L;
+        for (int colour = WHITE; colour <= BLACK; colour++) {
+            for (int pieceIndex = 0; pieceIndex < Piece.COUNT; pieceIndex++) {
+                final int count = Bits.count(board.getPieces(pieceIndex, colour));
+                for (int i = 0; i < count; i++) {
+                    key ^= MATERIAL_HASH[colour][pieceIndex][i];
+                }
+            }
+        }
+        return key;
+    }
+
     private static long updateKeyForPiece(long key, long whiteBitboard, long blackBitboard, int square, int pieceIndex) {
         if (((whiteBitboard >>> square) & 1) == 1) {
             key ^= PIECE_SQUARE_HASH[square][WHITE][pieceIndex];
@@ -138,12 +164,27 @@ public class Key {
     }
 
     public static long piece(int from, int to, Piece pieceType, boolean white) {
-        return PIECE_SQUARE_HASH[from][Colour.index(white)][pieceType.index()]
-                ^ PIECE_SQUARE_HASH[to][Colour.index(white)][pieceType.index()];
+        return piece(from, to, pieceType.index(), white);
     }
 
     public static long piece(int square, Piece pieceType, boolean white) {
-        return PIECE_SQUARE_HASH[square][Colour.index(white)][pieceType.index()];
+        return piece(square, pieceType.index(), white);
+    }
+
+    public static long piece(int from, int to, int piece, boolean white) {
+        return PIECE_SQUARE_HASH[from][Colour.index(white)][piece]
+                ^ PIECE_SQUARE_HASH[to][Colour.index(white)][piece];
+    }
+
+    public static long piece(int square, int piece, boolean white) {
+        return PIECE_SQUARE_HASH[square][Colour.index(white)][piece];
+    }
+
+    /**
+     * Returns the material key component of the piece at the given (zero-based) index within its type and colour.
+     */
+    public static long material(int piece, boolean white, int index) {
+        return MATERIAL_HASH[Colour.index(white)][piece][index];
     }
 
     public static long rights(int oldCastlingRights, int newCastlingRights) {
@@ -6,6 +6,10 @@ import java.util.Optional;
 /**
  * Represents a single chess move. The move is encoded as a 16-bit integer. Bits 0 - 5 represent the start square,
  * bits 6 - 11 represent the end square, and bits 12 - 15 represent special move flags.
+ * <p>
+ * Internally (move generation, move ordering, search, the hash table) moves are passed around as raw encoded ints, and
+ * the static helpers in this class are used to decode them. A {@link Move} object is only created at the boundary of
+ * the engine, e.g. when parsing or writing a move in UCI notation. The encoded value {@link #NONE} represents 'no move'.
  *
  * @see <a href="https://www.chessprogramming.org/Encoding_Moves">Chess Programming Wiki</a>.
  */
@@ -24,6 +28,9 @@ public record Move(short value) {
     public static final int FROM_MASK = 0b0000000000111111;
     public static final int TO_MASK = 0b0000111111000000;
 
+    // Encoded value representing the absence of a move (a1a1 can never be a legal move).
+    public static final int NONE = 0;
+
     public Move(int from, int to) {
         this((short) (from | to << 6));
     }
@@ -70,6 +77,89 @@ public record Move(short value) {
         return flag() == PAWN_DOUBLE_MOVE_FLAG;
     }
 
+    public static int encode(int from, int to) {
+        return from | (to << 6);
+    }
+
+    public static int encode(int from, int to, int flag) {
+        return from | (to << 6) | (flag << 12);
+    }
+
+    public static int from(int move) {
+        return move & FROM_MASK;
+    }
+
+    public static int to(int move) {
+        return (move & TO_MASK) >>> 6;
+    }
+
+    public static int flag(int move) {
+        return move >>> 12;
+    }
+
+    public static Piece promoPiece(int move) {
+        return switch (flag(move)) {
+            case PROMOTE_TO_QUEEN_FLAG -> Piece.QUEEN;
+            case PROMOTE_TO_ROOK_FLAG -> Piece.ROOK;
+            case PROMOTE_TO_BISHOP_FLAG -> Piece.BISHOP;
+            case PROMOTE_TO_KNIGHT_FLAG -> Piece.KNIGHT;
+            default -> null;
+        };
+    }
+
+    /**
+     * Returns the primitive index of the promotion piece, or {@link Piece#NONE} if the move is not a promotion.
+     */
+    public static int promoPieceIndex(int move) {
+        return switch (flag(move)) {
+            case PROMOTE_TO_QUEEN_FLAG -> Piece.QUEEN_INDEX;
+            case PROMOTE_TO_ROOK_FLAG -> Piece.ROOK_INDEX;
+            case PROMOTE_TO_BISHOP_FLAG -> Piece.BISHOP_INDEX;
+            case PROMOTE_TO_KNIGHT_FLAG -> Piece.KNIGHT_INDEX;
+            default -> Piece.NONE;
+        };
+    }
+
+    public static boolean isPromotion(int move) {
+        return flag(move) >= PROMOTE_TO_QUEEN_FLAG;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return flag(move) == EN_PASSANT_FLAG;
+    }
+
+    public static boolean isCastling(int move) {
+        return flag(move) == CASTLE_FLAG;
+    }
+
+    public static boolean isPawnDoubleMove(int move) {
+        return flag(move) == PAWN_DOUBLE_MOVE_FLAG;
+    }
+
+    /**
+     * Checks if two encoded moves match, ignoring the special move flag except for the promotion piece.
+     */
+    public static boolean matches(int move1, int move2) {
+        if (move1 == NONE || move2 == NONE) return false;
+        return from(move1) == from(move2)
+                && to(move1) == to(move2)
+                && (!isPromotion(move1) || promoPiece(move1) == promoPiece(move2));
+    }
+
+    /**
+     * Wraps an encoded move in a {@link Move} object, or returns null if the encoded value is {@link #NONE}.
+     */
+    public static Move of(int move) {
+        return move != NONE ? new Move((short) move) : null;
+    }
+
+    /**
+     * Unwraps a {@link Move} object into its encoded value, or {@link #NONE} if the move is null.
+     */
+    public static int value(Move move) {
+        return move != null ? move.value : NONE;
+    }
+
     /**
      * Checks if this move matches another move, excluding the special move flag.
      */
@@ -115,10 +205,14 @@ public record Move(short value) {
     }
 
     public static String toUCI(Move move) {
-        if (move == null) return "-";
-        String notation = Bits.Square.toNotation(move.from()) + Bits.Square.toNotation(move.to());
-        if (move.promoPiece() != null) {
-            notation += move.promoPiece().code();
+        return toUCI(value(move));
+    }
+
+    public static String toUCI(int move) {
+        if (move == NONE) return "-";
+        String notation = Bits.Square.toNotation(from(move)) + Bits.Square.toNotation(to(move));
+        if (promoPiece(move) != null) {
+            notation += promoPiece(move).code();
         }
         return notation;
     }
@@ -4,6 +4,10 @@ import static com.kelseyde.calvin.board.Move.*;
 
 /**
  * Stores basic information for each chess piece type.
+ * <p>
+ * Internally the board, search and evaluation identify pieces by their primitive index (see {@link #PAWN_INDEX} etc.),
+ * with {@link #NONE} marking an empty square. The enum itself is used only at the boundary of the engine, e.g. for
+ * notation and in tests.
  */
 public enum Piece {
 
@@ -18,6 +22,16 @@ public enum Piece {
     public static final int WHITE_PIECES = 6;
     public static final int BLACK_PIECES = 7;
 
+    public static final int NONE = -1;
+    public static final int PAWN_INDEX = 0;
+    public static final int KNIGHT_INDEX = 1;
+    public static final int BISHOP_INDEX = 2;
+    public static final int ROOK_INDEX = 3;
+    public static final int QUEEN_INDEX = 4;
+    public static final int KING_INDEX = 5;
+
+    private static final Piece[] VALUES = values();
+
     final int index;
 
     final String code;
@@ -39,6 +53,18 @@ public enum Piece {
         return this == BISHOP || this == ROOK || this == QUEEN;
     }
 
+    public static boolean isSlider(int piece) {
+        return piece == BISHOP_INDEX || piece == ROOK_INDEX || piece == QUEEN_INDEX;
+    }
+
+    public static Piece of(int piece) {
+        return piece != NONE ? VALUES[piece] : null;
+    }
+
+    public static int index(Piece piece) {
+        return piece != null ? piece.index : NONE;
+    }
+
     public static short promoFlag(Piece piece) {
         if (piece == null) {
             return NO_FLAG;
@@ -8,6 +8,7 @@ import com.kelseyde.calvin.search.Search;
 import com.kelseyde.calvin.search.SearchResult;
 import com.kelseyde.calvin.search.TimeControl;
 import com.kelseyde.calvin.tables.tt.HashEntry;
+import com.kelseyde.calvin.tables.tt.HashFlag;
 import com.kelseyde.calvin.tables.tt.TranspositionTable;
 import com.kelseyde.calvin.uci.UCI;
 import com.kelseyde.calvin.uci.UCICommand.GoCommand;
@@ -17,9 +18,11 @@ import com.kelseyde.calvin.utils.notation.FEN;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.IntStream;
+import java.util.concurrent.CompletionException;
 
 /**
  * The engine is responsible for actually playing a game of chess. It manages the game state, updates the board, and
@@ -42,6 +45,7 @@ public class Engine {
     final MoveGenerator movegen;
     final Perft perft;
     final Search searcher;
+    final PonderStats ponderStats;
 
     CompletableFuture<SearchResult> think;
     Board board;
@@ -51,6 +55,7 @@ public class Engine {
         this.board = Board.from(FEN.STARTPOS);
         this.movegen = new MoveGenerator();
         this.perft = new Perft();
+        this.ponderStats = new PonderStats();
         this.searcher = new ParallelSearcher(config, movegen, new TranspositionTable(config.defaultHashSizeMb));
         this.searcher.setPosition(board);
     }
@@ -68,6 +73,10 @@ public class Engine {
             board.makeMove(legalMove);
         }
         searcher.setPosition(board.copy());
+        if (ponderStats.isActive()) {
+            ponderStats.miss(board.key());
+            UCI.write("info string " + ponderStats.summary());
+        }
     }
 
     public void go(Instant start, GoCommand command) {
@@ -76,10 +85,14 @@ public class Engine {
             int depth = command.perft();
             perft.perft(board, depth);
         } else {
+            // The previous search must be finished before its ponder positions and transposition table are touched.
+            stopThinking();
+            setSearchCancelled(false);
             TimeControl tc = TimeControl.init(config, board, start, command);
             this.config.pondering = command.ponder();
-            setSearchCancelled(false);
-            stopThinking();
+            if (command.ponder()) {
+                startPonder(start);
+            }
             think = CompletableFuture.supplyAsync(() -> think(tc));
             think.thenAccept(UCI::writeMove);
         }
@@ -94,9 +107,18 @@ public class Engine {
         return think != null && !think.isDone();
     }
 
+    /**
+     * Stops the current search, and waits for it to finish. Cancelling the future alone would not stop the search
+     * threads, so the search is signalled to stop and then joined.
+     */
     public void stopThinking() {
         if (isThinking()) {
-            think.cancel(true);
+            setSearchCancelled(true);
+            try {
+                think.join();
+            } catch (CancellationException | CompletionException ignored) {
+                // The search has ended either way.
+            }
         }
     }
 
@@ -113,6 +135,14 @@ public class Engine {
         this.searcher.setThreadCount(threadCount);
     }
 
+    public void setSharedHistory(boolean sharedHistory) {
+        this.searcher.setSharedHistory(sharedHistory);
+    }
+
+    public void setMultiPv(int multiPv) {
+        this.config.multiPv = multiPv;
+    }
+
     public void setPonderEnabled(boolean ponderEnabled) {
         this.config.ponderEnabled = ponderEnabled;
     }
@@ -125,31 +155,83 @@ public class Engine {
         this.config.pondering = pondering;
     }
 
+    public void setPonderCandidates(int ponderCandidates) {
+        this.config.ponderCandidates = ponderCandidates;
+    }
+
+    /**
+     * The opponent played the predicted move, so the ponder search becomes the real search.
+     */
+    public void ponderHit() {
+        setPondering(false);
+        searcher.ponderHit();
+        if (ponderStats.isActive()) {
+            ponderStats.hit();
+            UCI.write("info string " + ponderStats.summary());
+        }
+    }
+
     public Move extractPonderMove(Move bestMove) {
         TranspositionTable tt = searcher.getTranspositionTable();
         board.makeMove(bestMove);
         long key = board.key();
         HashEntry entry = tt.get(key, 0);
         board.unmakeMove();
-        return entry != null ? entry.move() : null;
+        return entry != null ? Move.of(entry.move()) : null;
     }
 
-    public List<Move> extractPrincipalVariation() {
-        List<Move> pv = new ArrayList<>();
-        TranspositionTable tt = searcher.getTranspositionTable();
-        int moves = 0;
-        while (moves < 24) {
-            long key = board.key();
-            HashEntry entry = tt.get(key, 0);
-            if (entry == null || entry.move() == null) {
-                break;
+    /**
+     * Prepares a ponder search of the current position, which follows the opponent's predicted reply. If more than one
+     * ponder candidate is configured, the opponent's other replies are ranked using the scores that the last search left
+     * in the transposition table, and the best of them are handed to the searcher to search speculatively.
+     */
+    private void startPonder(Instant start) {
+        final List<Board> positions = new ArrayList<>();
+        if (config.ponderCandidates > 1 && board.getPly() > 0) {
+            final int predicted = board.getMoves()[board.getPly() - 1];
+            board.unmakeMove();
+            for (int reply : rankPonderReplies(board, predicted, config.ponderCandidates - 1)) {
+                board.makeMove(reply);
+                positions.add(board.copy());
+                board.unmakeMove();
+            }
+            board.makeMove(predicted);
+        }
+        // Only record the replies that the searcher actually has threads for.
+        final List<Board> searched = searcher.setPonderPositions(positions);
+        ponderStats.start(start, searched.stream().mapToLong(Board::key).toArray());
+    }
+
+    /**
+     * Ranks the opponent's replies, other than the predicted one, from best to worst for the opponent. The scores in the
+     * transposition table are from our point of view, so the opponent prefers the lowest; replies without a searched
+     * score come last.
+     */
+    private int[] rankPonderReplies(Board parent, int predicted, int count) {
+        final TranspositionTable tt = searcher.getTranspositionTable();
+        final List<Move> moves = movegen.generateMoves(parent);
+        // Each reply is scored once up front, with its score packed above the move, so that sorting leaves the board alone.
+        final long[] scoredReplies = new long[moves.size()];
+        int replyCount = 0;
+        for (Move move : moves) {
+            final int reply = Move.value(move);
+            if (reply != predicted) {
+                scoredReplies[replyCount++] = ((long) replyScore(parent, tt, reply) << 32) | (reply & 0xFFFFL);
             }
-            pv.add(entry.move());
-            board.makeMove(entry.move());
-            moves++;
         }
-        IntStream.range(0, moves).forEach(i -> board.unmakeMove());
-        return pv;
+        Arrays.sort(scoredReplies, 0, replyCount);
+        final int[] ranked = new int[Math.min(count, replyCount)];
+        for (int i = 0; i < ranked.length; i++) {
+            ranked[i] = (short) scoredReplies[i];
+        }
+        return ranked;
+    }
+
+    private int replyScore(Board parent, TranspositionTable tt, int reply) {
+        parent.makeMove(reply);
+        final HashEntry entry = tt.get(parent.key(), 0);
+        parent.unmakeMove();
+        return entry != null && entry.flag() != HashFlag.NONE ? entry.score() : Integer.MAX_VALUE;
     }
 
     public int hashfull() {
@@ -14,16 +14,27 @@ public class EngineConfig {
     }
 
     public final int minThreads = 1;
-    public final int maxThreads = 12;
+    public final int maxThreads = 128;
     public final int defaultThreads = 1;
 
     public final int minHashSizeMb = 8;
     public final int maxHashSizeMb = 1024;
     public final int defaultHashSizeMb = 256;
 
+    public final int minMultiPv = 1;
+    public final int maxMultiPv = 64;
+    public final int defaultMultiPv = 1;
+
+    public final int minPonderCandidates = 1;
+    public final int maxPonderCandidates = 8;
+    public final int defaultPonderCandidates = 1;
+
+    public int multiPv = defaultMultiPv;
+    public int ponderCandidates = defaultPonderCandidates;
+    public boolean sharedHistory = false;
     public boolean ponderEnabled = false;
     public boolean pondering = false;
-    public boolean searchCancelled = false;
+    public volatile boolean searchCancelled = false;
 
     public final Tunable aspMinDepth            = new Tunable("AspMinDepth", 4, 0, 8, 1);
     public final Tunable aspMargin              = new Tunable("AspMargin", 12, 0, 250, 25);
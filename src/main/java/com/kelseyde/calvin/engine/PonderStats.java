@@ -0,0 +1,69 @@
+package com.kelseyde.calvin.engine;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Keeps track of how often pondering pays off. A ponder 'hit' is when the opponent plays the predicted reply, in which
+ * case the time already spent pondering is time saved. A 'speculative' hit is when the opponent plays one of the
+ * alternative replies searched by spare threads while pondering, in which case the real search at least starts from a
+ * warm transposition table.
+ */
+public class PonderStats {
+
+    private int ponders;
+    private int hits;
+    private int speculativeHits;
+    private long timeSavedMs;
+
+    private boolean active;
+    private Instant start;
+    private long[] replyKeys;
+
+    /**
+     * Records the start of a ponder search.
+     *
+     * @param replyKeys the keys of the positions after each alternative reply searched speculatively.
+     */
+    public void start(Instant start, long[] replyKeys) {
+        this.ponders++;
+        this.active = true;
+        this.start = start;
+        this.replyKeys = replyKeys;
+    }
+
+    /**
+     * Records that the opponent played the predicted reply.
+     */
+    public void hit() {
+        if (!active) return;
+        active = false;
+        hits++;
+        timeSavedMs += Duration.between(start, Instant.now()).toMillis();
+    }
+
+    /**
+     * Records that the ponder search was abandoned, and the opponent's reply led to the position with the given key.
+     */
+    public void miss(long key) {
+        if (!active) return;
+        active = false;
+        for (long replyKey : replyKeys) {
+            if (replyKey == key) {
+                speculativeHits++;
+                break;
+            }
+        }
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public String summary() {
+        final int hitRate = ponders > 0 ? hits * 100 / ponders : 0;
+        return String.format("ponder hits %d/%d (%d%%) speculative hits %d time saved %dms",
+                hits, ponders, hitRate, speculativeHits, timeSavedMs);
+    }
+
+}
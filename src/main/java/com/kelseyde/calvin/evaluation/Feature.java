@@ -9,12 +9,11 @@ import com.kelseyde.calvin.board.Piece;
  * activated - meaning the piece is not present on that square. The presence or absence of a feature is represented by
  * a 1 or 0 respectively in the input layer.
  */
-public record Feature(Piece piece, int square, boolean white) {
+public record Feature(int piece, int square, boolean white) {
 
     public int index(boolean whitePerspective, boolean mirror) {
         final int squareIndex = squareIndex(whitePerspective, mirror);
-        final int pieceIndex = piece.index();
-        final int pieceOffset = pieceIndex * Square.COUNT;
+        final int pieceOffset = piece * Square.COUNT;
         final boolean ourPiece = white == whitePerspective;
         final int colourOffset = ourPiece ? 0 : (Square.COUNT * Piece.COUNT);
         return colourOffset + pieceOffset + squareIndex;
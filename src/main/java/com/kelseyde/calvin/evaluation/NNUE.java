@@ -121,15 +121,14 @@ public class NNUE {
             final boolean white = colourIndex == 0;
             for (int pieceIndex = 0; pieceIndex < Piece.COUNT; pieceIndex++) {
 
-                final Piece piece = Piece.values()[pieceIndex];
-                final long pieces = board.getPieces(piece, white);
+                final long pieces = board.getPieces(pieceIndex, colourIndex);
                 final long cachedPieces = cacheEntry.bitboards[pieceIndex] & cacheEntry.bitboards[Piece.COUNT + colourIndex];
 
                 // Calculate which pieces need to be added and removed from the accumulator.
                 long added = pieces & ~cachedPieces;
                 while (added != 0) {
                     final int square = Bits.next(added);
-                    Feature feature = new Feature(piece, square, white);
+                    Feature feature = new Feature(pieceIndex, square, white);
                     acc.add(weights, feature, whitePerspective);
                     added = Bits.pop(added);
                 }
@@ -137,7 +136,7 @@ public class NNUE {
                 long removed = cachedPieces & ~pieces;
                 while (removed != 0) {
                     final int square = Bits.next(removed);
-                    Feature feature = new Feature(piece, square, white);
+                    Feature feature = new Feature(pieceIndex, square, white);
                     acc.sub(weights, feature, whitePerspective);
                     removed = Bits.pop(removed);
                 }
@@ -152,13 +151,13 @@ public class NNUE {
     }
 
 
-    public void makeMove(Board board, Move move) {
+    public void makeMove(Board board, int move) {
 
         // Efficiently update only the relevant features of the network after a move has been made.
         final Accumulator acc = accumulatorStack[++current] = accumulatorStack[current - 1].copy();
         final boolean white = board.isWhite();
 
-        final Piece piece = board.pieceAt(move.from());
+        final int piece = board.pieceIndexAt(Move.from(move));
         final int whiteKingSquare = board.kingSquare(true);
         final int blackKingSquare = board.kingSquare(false);
 
@@ -198,54 +197,54 @@ public class NNUE {
 
     }
 
-    private AccumulatorUpdate handleStandardMove(Board board, Move move, boolean white) {
+    private AccumulatorUpdate handleStandardMove(Board board, int move, boolean white) {
 
         // For standard moves we simply need to remove the piece from the 'from' square and add it to the 'to' square.
-        final Piece piece = board.pieceAt(move.from());
-        final Piece newPiece = move.isPromotion() ? move.promoPiece() : piece;
+        final int piece = board.pieceIndexAt(Move.from(move));
+        final int newPiece = Move.isPromotion(move) ? Move.promoPieceIndex(move) : piece;
 
         AccumulatorUpdate update = new AccumulatorUpdate();
-        update.pushAdd(new Feature(newPiece, move.to(), white));
-        update.pushSub(new Feature(piece, move.from(), white));
+        update.pushAdd(new Feature(newPiece, Move.to(move), white));
+        update.pushSub(new Feature(piece, Move.from(move), white));
         return update;
 
     }
 
-    private AccumulatorUpdate handleCastleMove(Move move, boolean white) {
+    private AccumulatorUpdate handleCastleMove(int move, boolean white) {
 
         // For castling moves we need to move both the king and the rook, with some special handling for Chess960.
         AccumulatorUpdate update = new AccumulatorUpdate();
-        final boolean kingside = Castling.isKingside(move.from(), move.to());
+        final boolean kingside = Castling.isKingside(Move.from(move), Move.to(move));
 
         // In Chess960, castling is encoded as 'king captures rook'.
-        final int kingFrom = move.from();
-        final int kingTo = UCI.Options.chess960 ? Castling.kingTo(kingside, white) : move.to();
-        final int rookFrom = UCI.Options.chess960 ? move.to() : Castling.rookFrom(kingside, white);
+        final int kingFrom = Move.from(move);
+        final int kingTo = UCI.Options.chess960 ? Castling.kingTo(kingside, white) : Move.to(move);
+        final int rookFrom = UCI.Options.chess960 ? Move.to(move) : Castling.rookFrom(kingside, white);
         final int rookTo = Castling.rookTo(kingside, white);
 
-        update.pushSub(new Feature(Piece.KING, kingFrom, white));
-        update.pushSub(new Feature(Piece.ROOK, rookFrom, white));
-        update.pushAdd(new Feature(Piece.KING, kingTo, white));
-        update.pushAdd(new Feature(Piece.ROOK, rookTo, white));
+        update.pushSub(new Feature(Piece.KING_INDEX, kingFrom, white));
+        update.pushSub(new Feature(Piece.ROOK_INDEX, rookFrom, white));
+        update.pushAdd(new Feature(Piece.KING_INDEX, kingTo, white));
+        update.pushAdd(new Feature(Piece.ROOK_INDEX, rookTo, white));
 
         return update;
 
     }
 
-    private AccumulatorUpdate handleCapture(Board board, Move move, boolean white) {
+    private AccumulatorUpdate handleCapture(Board board, int move, boolean white) {
 
         // For captures, we need to remove the captured piece as well as updating the capturing piece.
-        final Piece piece = board.pieceAt(move.from());
-        final Piece newPiece = move.isPromotion() ? move.promoPiece() : piece;
-        final Piece captured = move.isEnPassant() ? Piece.PAWN : board.pieceAt(move.to());
+        final int piece = board.pieceIndexAt(Move.from(move));
+        final int newPiece = Move.isPromotion(move) ? Move.promoPieceIndex(move) : piece;
+        final int captured = Move.isEnPassant(move) ? Piece.PAWN_INDEX : board.pieceIndexAt(Move.to(move));
 
         AccumulatorUpdate update = new AccumulatorUpdate();
-        int captureSquare = move.to();
-        if (move.isEnPassant()) {
-            captureSquare = white ? move.to() - 8 : move.to() + 8;
+        int captureSquare = Move.to(move);
+        if (Move.isEnPassant(move)) {
+            captureSquare = white ? Move.to(move) - 8 : Move.to(move) + 8;
         }
-        update.pushSub(new Feature(piece, move.from(), white));
-        update.pushAdd(new Feature(newPiece, move.to(), white));
+        update.pushSub(new Feature(piece, Move.from(move), white));
+        update.pushAdd(new Feature(newPiece, Move.to(move), white));
         update.pushSub(new Feature(captured, captureSquare, !white));
         return update;
 
@@ -284,27 +283,27 @@ public class NNUE {
         return 3 * knights + 3 * bishops + 5 * rooks + 10 * queens;
     }
 
-    private boolean mirrorChanged(Board board, Move move, Piece piece) {
-        if (!NETWORK.horizontalMirror() || piece != Piece.KING) {
+    private boolean mirrorChanged(Board board, int move, int piece) {
+        if (!NETWORK.horizontalMirror() || piece != Piece.KING_INDEX) {
             return false;
         }
-        int prevKingSquare = move.from();
-        int currKingSquare = move.to();
-        if (move.isCastling() && UCI.Options.chess960) {
-            final boolean kingside = Castling.isKingside(move.from(), move.to());
+        int prevKingSquare = Move.from(move);
+        int currKingSquare = Move.to(move);
+        if (Move.isCastling(move) && UCI.Options.chess960) {
+            final boolean kingside = Castling.isKingside(Move.from(move), Move.to(move));
             currKingSquare = Castling.kingTo(kingside, board.isWhite());
         }
         return shouldMirror(prevKingSquare) != shouldMirror(currKingSquare);
     }
 
-    private boolean bucketChanged(Board board, Move move, Piece piece, boolean white) {
-        if (piece != Piece.KING) {
+    private boolean bucketChanged(Board board, int move, int piece, boolean white) {
+        if (piece != Piece.KING_INDEX) {
             return false;
         }
-        int prevKingSquare = move.from();
-        int currKingSquare = move.to();
-        if (move.isCastling() && UCI.Options.chess960) {
-            final boolean kingside = Castling.isKingside(move.from(), move.to());
+        int prevKingSquare = Move.from(move);
+        int currKingSquare = Move.to(move);
+        if (Move.isCastling(move) && UCI.Options.chess960) {
+            final boolean kingside = Castling.isKingside(Move.from(move), Move.to(move));
             currKingSquare = Castling.kingTo(kingside, board.isWhite());
         }
         return kingBucket(prevKingSquare, white) != kingBucket(currKingSquare, white);
@@ -314,13 +313,13 @@ public class NNUE {
         return NETWORK.horizontalMirror() && File.of(kingSquare) > 3;
     }
 
-    private int calculateNewKingBucket(int kingSquare, Move move, Piece piece, boolean white) {
-        if (move == null) return kingBucket(kingSquare, white);
-        if (piece != Piece.KING) return kingBucket(kingSquare, white);
-        int to = move.to();
-        if (move.isCastling()) {
-            final boolean kingside = Castling.isKingside(move.from(), move.to());
-            to = UCI.Options.chess960 ? Castling.kingTo(kingside, board.isWhite()) : move.to();
+    private int calculateNewKingBucket(int kingSquare, int move, int piece, boolean white) {
+        if (move == Move.NONE) return kingBucket(kingSquare, white);
+        if (piece != Piece.KING_INDEX) return kingBucket(kingSquare, white);
+        int to = Move.to(move);
+        if (Move.isCastling(move)) {
+            final boolean kingside = Castling.isKingside(Move.from(move), Move.to(move));
+            to = UCI.Options.chess960 ? Castling.kingTo(kingside, board.isWhite()) : Move.to(move);
         }
         return kingBucket(to, white);
     }
@@ -332,10 +331,10 @@ public class NNUE {
         return NETWORK.inputBuckets()[kingSquare];
     }
 
-    private MoveType moveType(Board board, Move move) {
-        if (move.isCastling()) {
+    private MoveType moveType(Board board, int move) {
+        if (Move.isCastling(move)) {
             return MoveType.CASTLE;
-        } else if (move.isEnPassant() || board.pieceAt(move.to()) != null) {
+        } else if (Move.isEnPassant(move) || board.pieceIndexAt(Move.to(move)) != Piece.NONE) {
             return MoveType.CAPTURE;
         } else {
             return MoveType.STANDARD;
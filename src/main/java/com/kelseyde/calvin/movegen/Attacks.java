@@ -4,22 +4,13 @@ import com.kelseyde.calvin.board.Bits;
 import com.kelseyde.calvin.board.Bits.File;
 import com.kelseyde.calvin.board.Bits.Square;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
-
 public class Attacks {
 
     // All the possible move 'vectors' for a sliding piece, i.e., the offsets for the directions in which a sliding
     // piece is permitted to move. Bishops will use only the diagonal vectors, rooks only the orthogonal vectors, while
     // queens will use both.
-    public static final Set<Integer> DIAGONAL_MOVE_VECTORS = Set.of(-9, -7, 7, 9);
-    public static final Set<Integer> ORTHOGONAL_MOVE_VECTORS = Set.of(-8, -1, 1, 8);
-
-    // The following sets are exceptions to the initial rule, in scenarios where the sliding piece is placed on the a or h-files.
-    // These exceptions prevent the piece from 'wrapping' around to the other side of the board.
-    public static final Set<Integer> A_FILE_OFFSET_EXCEPTIONS = Set.of(-9, -1, 7);
-    public static final Set<Integer> H_FILE_OFFSET_EXCEPTIONS = Set.of(-7, 1, 9);
+    private static final int[] DIAGONAL_MOVE_VECTORS = { -9, -7, 7, 9 };
+    private static final int[] ORTHOGONAL_MOVE_VECTORS = { -8, -1, 1, 8 };
 
     public static final long[] KNIGHT_ATTACKS = new long[] {
             0x0000000000020400L, 0x0000000000050800L, 0x00000000000a1100L, 0x0000000000142200L,
@@ -118,19 +109,31 @@ public class Attacks {
             58, 59, 59, 59, 59, 59, 59, 58
     };
 
-    public static final long[] ROOK_MASKS = initMagicMask(true);
-    public static final long[] BISHOP_MASKS = initMagicMask(false);
+    // The magic entries for each square are packed side by side - mask, magic, shift and offset into the attack table -
+    // so that a slider lookup touches a single cache line before indexing into the attack table.
+    private static final int ENTRY_SIZE = 4;
+    private static final int MASK = 0;
+    private static final int MAGIC = 1;
+    private static final int SHIFT = 2;
+    private static final int OFFSET = 3;
 
-    public static final long[][] ROOK_ATTACKS = initMagicAttacks(true, ROOK_MAGICS, ROOK_SHIFTS);
-    public static final long[][] BISHOP_ATTACKS = initMagicAttacks(false, BISHOP_MAGICS, BISHOP_SHIFTS);
+    private static final long[] ROOK_ENTRIES = new long[Square.COUNT * ENTRY_SIZE];
+    private static final long[] BISHOP_ENTRIES = new long[Square.COUNT * ENTRY_SIZE];
 
-    public static final MagicLookup[] ROOK_MAGIC_LOOKUP = initMagicLookups(ROOK_ATTACKS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS);
-    public static final MagicLookup[] BISHOP_MAGIC_LOOKUP = initMagicLookups(BISHOP_ATTACKS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS);
+    // The 'fancy' magic attack table: the attack sets for every square and every relevant blocker configuration, for
+    // both rooks and bishops, stored contiguously in a single array.
+    private static final long[] SLIDER_ATTACKS = initSliderAttacks();
 
     public static long pawnAttacks(long pawns, boolean white) {
-        return white ?
-                (Bits.northWest(pawns) &~ File.H) | (Bits.northEast(pawns) &~ File.A) :
-                (Bits.southWest(pawns) &~ File.H) | (Bits.southEast(pawns) &~ File.A);
+        return white ? whitePawnAttacks(pawns) : blackPawnAttacks(pawns);
+    }
+
+    public static long whitePawnAttacks(long pawns) {
+        return (Bits.northWest(pawns) &~ File.H) | (Bits.northEast(pawns) &~ File.A);
+    }
+
+    public static long blackPawnAttacks(long pawns) {
+        return (Bits.southWest(pawns) &~ File.H) | (Bits.southEast(pawns) &~ File.A);
     }
 
     public static long kingAttacks(int square) {
@@ -142,221 +145,196 @@ public class Attacks {
     }
 
     public static long rookAttacks(int square, long blockers) {
-        return sliderAttacks(square, blockers, ROOK_MAGIC_LOOKUP);
+        return sliderAttacks(square, blockers, ROOK_ENTRIES);
     }
 
     public static long bishopAttacks(int square, long blockers) {
-        return sliderAttacks(square, blockers, BISHOP_MAGIC_LOOKUP);
+        return sliderAttacks(square, blockers, BISHOP_ENTRIES);
     }
 
+    // The pawn move routines are specialised by colour, so that the move generator can pick the right set once per
+    // position rather than branching on the side to move for every bitboard it calculates.
+
     /**
-     * Calculate single pawn moves.
+     * Calculate single pawn moves, excluding promotions.
      */
-    public static long pawnSingleMoves(long pawns, long occupied, boolean white) {
-        return white ?
-                Bits.north(pawns) & ~occupied & ~Bits.Rank.EIGHTH :
-                Bits.south(pawns) & ~occupied & ~Bits.Rank.FIRST;
+    public static long whitePawnSingleMoves(long pawns, long occupied) {
+        return Bits.north(pawns) & ~occupied & ~Bits.Rank.EIGHTH;
+    }
+
+    public static long blackPawnSingleMoves(long pawns, long occupied) {
+        return Bits.south(pawns) & ~occupied & ~Bits.Rank.FIRST;
     }
 
     /**
      * Calculate double pawn moves.
      */
-    public static long pawnDoubleMoves(long pawns, long occupied, boolean white) {
-        return white ?
-                Bits.north(pawnSingleMoves(pawns, occupied, true)) & ~occupied & Bits.Rank.FOURTH :
-                Bits.south(pawnSingleMoves(pawns, occupied, false)) & ~occupied & Bits.Rank.FIFTH;
+    public static long whitePawnDoubleMoves(long pawns, long occupied) {
+        return Bits.north(whitePawnSingleMoves(pawns, occupied)) & ~occupied & Bits.Rank.FOURTH;
+    }
+
+    public static long blackPawnDoubleMoves(long pawns, long occupied) {
+        return Bits.south(blackPawnSingleMoves(pawns, occupied)) & ~occupied & Bits.Rank.FIFTH;
     }
 
     /**
      * Calculate pawn push promotions.
      */
-    public static long pawnPushPromotions(long pawns, long occupied, boolean white) {
-        return white ?
-                Bits.north(pawns) & ~occupied & Bits.Rank.EIGHTH :
-                Bits.south(pawns) & ~occupied & Bits.Rank.FIRST;
+    public static long whitePawnPushPromotions(long pawns, long occupied) {
+        return Bits.north(pawns) & ~occupied & Bits.Rank.EIGHTH;
+    }
+
+    public static long blackPawnPushPromotions(long pawns, long occupied) {
+        return Bits.south(pawns) & ~occupied & Bits.Rank.FIRST;
     }
 
     /**
-     * Calculate left captures by pawns.
+     * Calculate left captures by pawns, excluding promotions.
      */
-    public static long pawnLeftCaptures(long pawns, long opponents, boolean white) {
-        return white ?
-                Bits.northWest(pawns) & opponents & ~File.H & ~Bits.Rank.EIGHTH :
-                Bits.southWest(pawns) & opponents & ~File.H & ~Bits.Rank.FIRST;
+    public static long whitePawnLeftCaptures(long pawns, long opponents) {
+        return Bits.northWest(pawns) & opponents & ~File.H & ~Bits.Rank.EIGHTH;
+    }
+
+    public static long blackPawnLeftCaptures(long pawns, long opponents) {
+        return Bits.southWest(pawns) & opponents & ~File.H & ~Bits.Rank.FIRST;
     }
 
     /**
-     * Calculate right captures by pawns.
+     * Calculate right captures by pawns, excluding promotions.
      */
-    public static long pawnRightCaptures(long pawns, long opponents, boolean white) {
-        return white ?
-                Bits.northEast(pawns) & opponents & ~File.A & ~Bits.Rank.EIGHTH :
-                Bits.southEast(pawns) & opponents & ~File.A & ~Bits.Rank.FIRST;
+    public static long whitePawnRightCaptures(long pawns, long opponents) {
+        return Bits.northEast(pawns) & opponents & ~File.A & ~Bits.Rank.EIGHTH;
+    }
+
+    public static long blackPawnRightCaptures(long pawns, long opponents) {
+        return Bits.southEast(pawns) & opponents & ~File.A & ~Bits.Rank.FIRST;
     }
 
     /**
      * Calculate left en passant captures by pawns.
      */
-    public static long pawnLeftEnPassants(long pawns, long enPassantFile, boolean white) {
-        return white ?
-                Bits.northWest(pawns) & enPassantFile & Bits.Rank.SIXTH & ~File.H :
-                Bits.southWest(pawns) & enPassantFile & Bits.Rank.THIRD & ~File.H;
+    public static long whitePawnLeftEnPassants(long pawns, long enPassantFile) {
+        return Bits.northWest(pawns) & enPassantFile & Bits.Rank.SIXTH & ~File.H;
+    }
+
+    public static long blackPawnLeftEnPassants(long pawns, long enPassantFile) {
+        return Bits.southWest(pawns) & enPassantFile & Bits.Rank.THIRD & ~File.H;
     }
 
     /**
      * Calculate right en passant captures by pawns.
      */
-    public static long pawnRightEnPassants(long pawns, long enPassantFile, boolean white) {
-        return white ?
-                Bits.northEast(pawns) & enPassantFile & Bits.Rank.SIXTH & ~File.A :
-                Bits.southEast(pawns) & enPassantFile & Bits.Rank.THIRD & ~File.A;
+    public static long whitePawnRightEnPassants(long pawns, long enPassantFile) {
+        return Bits.northEast(pawns) & enPassantFile & Bits.Rank.SIXTH & ~File.A;
+    }
+
+    public static long blackPawnRightEnPassants(long pawns, long enPassantFile) {
+        return Bits.southEast(pawns) & enPassantFile & Bits.Rank.THIRD & ~File.A;
     }
 
     /**
      * Calculate left capture promotions by pawns.
      */
-    public static long pawnLeftCapturePromotions(long pawns, long opponents, boolean white) {
-        return white ?
-                Bits.northWest(pawns) & opponents & ~File.H & Bits.Rank.EIGHTH :
-                Bits.southWest(pawns) & opponents & ~File.H & Bits.Rank.FIRST;
+    public static long whitePawnLeftCapturePromotions(long pawns, long opponents) {
+        return Bits.northWest(pawns) & opponents & ~File.H & Bits.Rank.EIGHTH;
+    }
+
+    public static long blackPawnLeftCapturePromotions(long pawns, long opponents) {
+        return Bits.southWest(pawns) & opponents & ~File.H & Bits.Rank.FIRST;
     }
 
     /**
      * Calculate right capture promotions by pawns.
      */
-    public static long pawnRightCapturePromotions(long pawns, long opponents, boolean white) {
-        return white ?
-                Bits.northEast(pawns) & opponents & ~File.A & Bits.Rank.EIGHTH :
-                Bits.southEast(pawns) & opponents & ~File.A & Bits.Rank.FIRST;
+    public static long whitePawnRightCapturePromotions(long pawns, long opponents) {
+        return Bits.northEast(pawns) & opponents & ~File.A & Bits.Rank.EIGHTH;
     }
 
-    public static long sliderAttacks(int sq, long occ, MagicLookup[] lookups) {
-        MagicLookup lookup = lookups[sq];
-        occ      &= lookup.mask;
-        occ      *= lookup.magic;
-        occ    >>>= lookup.shift;
-        return lookup.attacks[(int) occ];
+    public static long blackPawnRightCapturePromotions(long pawns, long opponents) {
+        return Bits.southEast(pawns) & opponents & ~File.A & Bits.Rank.FIRST;
     }
 
-    public static long[] initMagicMask(boolean isOrthogonal) {
-        long[] magicMasks = new long[Square.COUNT];
-        for (int square = 0; square < Square.COUNT; square++) {
-            magicMasks[square] = initMovementMask(square, isOrthogonal);
-        }
-        return magicMasks;
+    private static long sliderAttacks(int square, long occ, long[] entries) {
+        final int entry = square * ENTRY_SIZE;
+        occ      &= entries[entry + MASK];
+        occ      *= entries[entry + MAGIC];
+        occ    >>>= entries[entry + SHIFT];
+        return SLIDER_ATTACKS[(int) entries[entry + OFFSET] + (int) occ];
     }
 
-    public static long[][] initMagicAttacks(boolean isOrthogonal, long[] magics, int[] shifts) {
-        long[][] magicAttacks = new long[Square.COUNT][];
-
+    private static long[] initSliderAttacks() {
+        int size = 0;
         for (int square = 0; square < Square.COUNT; square++) {
-            magicAttacks[square] = initMagicTable(square, isOrthogonal, magics[square], shifts[square]);
+            size += 1 << (Square.COUNT - ROOK_SHIFTS[square]);
+            size += 1 << (Square.COUNT - BISHOP_SHIFTS[square]);
         }
-
-        return magicAttacks;
+        final long[] attacks = new long[size];
+        int offset = initMagicEntries(attacks, 0, true, ROOK_MAGICS, ROOK_SHIFTS, ROOK_ENTRIES);
+        initMagicEntries(attacks, offset, false, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_ENTRIES);
+        return attacks;
     }
 
-    public static long[] initMagicTable(int square, boolean isOrthogonal, long magic, int shift) {
-        int numBits = Square.COUNT - shift;
-        int tableSize = 1 << numBits;
-        long[] table = new long[tableSize];
-
-        long movementMask = initMovementMask(square, isOrthogonal);
-        long[] blockerMasks = initBlockerMasks(movementMask);
-
-        for (long blockerMask : blockerMasks) {
-            long index = (blockerMask * magic) >>> shift;
-            long attacks = initAttackMask(square, blockerMask, isOrthogonal);
-            table[(int) index] = attacks;
-        }
-        return table;
-    }
-
-    public static long[] initBlockerMasks(long movementMask) {
-        List<Integer> moveSquares = new ArrayList<>();
-        for (int i = 0; i < Square.COUNT; i++) {
-            if ((movementMask & Bits.of(i)) != 0) {
-                moveSquares.add(i);
-            }
-        }
-
-        int patternsCount = 1 << moveSquares.size();
-        long[] blockerBitboards = new long[patternsCount];
-
-        for (int patternIndex = 0; patternIndex < patternsCount; patternIndex++) {
-            for (int bitIndex = 0; bitIndex < moveSquares.size(); bitIndex++) {
-                int bit = (patternIndex >>> bitIndex) & 1;
-                blockerBitboards[patternIndex] |= (long) bit << moveSquares.get(bitIndex);
-            }
+    private static int initMagicEntries(long[] attacks, int offset, boolean isOrthogonal, long[] magics, int[] shifts,
+                                        long[] entries) {
+        for (int square = 0; square < Square.COUNT; square++) {
+            final long mask = initMovementMask(square, isOrthogonal);
+            final long magic = magics[square];
+            final int shift = shifts[square];
+
+            final int entry = square * ENTRY_SIZE;
+            entries[entry + MASK] = mask;
+            entries[entry + MAGIC] = magic;
+            entries[entry + SHIFT] = shift;
+            entries[entry + OFFSET] = offset;
+
+            // Enumerate every subset of the movement mask using the 'carry-rippler' trick
+            long blockers = 0L;
+            do {
+                final int index = (int) ((blockers * magic) >>> shift);
+                attacks[offset + index] = initAttackMask(square, blockers, isOrthogonal);
+                blockers = (blockers - mask) & mask;
+            } while (blockers != 0);
+
+            offset += 1 << (Square.COUNT - shift);
         }
-        return blockerBitboards;
+        return offset;
     }
 
     public static long initMovementMask(int from, boolean isOrthogonal) {
+        // The relevant blockers are every square the slider can reach on an empty board, excluding the edge squares.
         long movementMask = 0L;
-        Set<Integer> vectors = isOrthogonal ? ORTHOGONAL_MOVE_VECTORS : DIAGONAL_MOVE_VECTORS;
-
-        for (int vector : vectors) {
+        for (int vector : isOrthogonal ? ORTHOGONAL_MOVE_VECTORS : DIAGONAL_MOVE_VECTORS) {
             int currentSquare = from;
-            if (!isValidVectorOffset(currentSquare, vector)) {
-                continue;
-            }
-            for (int distance = 1; distance < 8; distance++) {
-                currentSquare = currentSquare + vector;
-                if (Square.isValid(currentSquare + vector) && isValidVectorOffset(currentSquare, vector)) {
-                    movementMask |= 1L << currentSquare;
-                } else {
-                    break;
-                }
+            while (isValidVectorOffset(currentSquare, vector)
+                    && isValidVectorOffset(currentSquare + vector, vector)) {
+                currentSquare += vector;
+                movementMask |= Bits.of(currentSquare);
             }
         }
         return movementMask;
     }
 
     public static long initAttackMask(int from, long blockers, boolean isOrthogonal) {
-
         long attackMask = 0L;
-        Set<Integer> vectors = isOrthogonal ? ORTHOGONAL_MOVE_VECTORS : DIAGONAL_MOVE_VECTORS;
-
-        for (int vector : vectors) {
+        for (int vector : isOrthogonal ? ORTHOGONAL_MOVE_VECTORS : DIAGONAL_MOVE_VECTORS) {
             int currentSquare = from;
-            for (int distance = 1; distance < 8; distance++) {
-                if (Square.isValid(currentSquare + vector) && isValidVectorOffset(currentSquare, vector)) {
-                    currentSquare = currentSquare + vector;
-                    attackMask |= 1L << currentSquare;
-                    if ((blockers & 1L << currentSquare) != 0) {
-                        break;
-                    }
-                } else {
+            while (isValidVectorOffset(currentSquare, vector)) {
+                currentSquare += vector;
+                attackMask |= Bits.of(currentSquare);
+                if ((blockers & Bits.of(currentSquare)) != 0) {
                     break;
                 }
             }
         }
         return attackMask;
-
-    }
-
-    public record MagicLookup(long[] attacks, long mask, long magic, int shift) {}
-
-    public static MagicLookup[] initMagicLookups(long[][] allAttacks, long[] masks, long[] magics, int[] shifts) {
-        MagicLookup[] magicLookups = new MagicLookup[Square.COUNT];
-        for (int i = 0; i < Square.COUNT; i++) {
-            long[] attacks = allAttacks[i];
-            long mask = masks[i];
-            long magic = magics[i];
-            int shift = shifts[i];
-            magicLookups[i] = new MagicLookup(attacks, mask, magic, shift);
-        }
-        return magicLookups;
     }
 
+    /**
+     * Checks that stepping from the square by the vector stays on the board, without wrapping around to the other side.
+     */
     private static boolean isValidVectorOffset(int square, int vectorOffset) {
-        boolean isAFile = (File.A & Bits.of(square)) != 0;
-        boolean isHFile = (File.H & Bits.of(square)) != 0;
-        boolean isVectorAFileException = A_FILE_OFFSET_EXCEPTIONS.contains(vectorOffset);
-        boolean isVectorHFileException = H_FILE_OFFSET_EXCEPTIONS.contains(vectorOffset);
-        return (!isAFile || !isVectorAFileException) && (!isHFile || !isVectorHFileException);
+        final int target = square + vectorOffset;
+        return Square.isValid(target) && Math.abs(File.of(target) - File.of(square)) <= 1;
     }
 
-
 }
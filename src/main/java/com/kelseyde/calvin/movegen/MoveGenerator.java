@@ -15,87 +15,98 @@ import java.util.List;
  * Using a hybrid of pseudo-legal and legal move generation: first we calculate the bitboards for checking pieces and
  * pinned pieces. If there is a check, we filter out all moves that do not resolve the check. Finally, we filter out all
  * moves that leave the king in (a new) check.
+ * <p>
+ * Moves are written as encoded ints into a buffer supplied by the caller (see {@link Move} for the encoding). The
+ * {@link List} variants of {@link #generateMoves} wrap the encoded moves in {@link Move} objects, and are intended only
+ * for use outside the search (UCI, notation, tests).
+ * <p>
+ * The generator holds no state of its own: checkers, pins and threats are cached by the {@link Board}, and everything
+ * else is passed between the generation methods, so a single instance can safely be shared between search threads.
  */
 public class MoveGenerator {
 
-    private int checkersCount;
-    private long checkersMask;
-    private long pinMask;
-    private final long[] pinRayMasks = new long[64];
-    private long captureMask;
-    private long pushMask;
-    private MoveFilter filter;
-    private boolean white;
-
-    private long pawns;
-    private long knights;
-    private long bishops;
-    private long rooks;
-    private long queens;
-    private long king;
-
-    private List<Move> legalMoves;
+    // The maximum number of legal moves in any chess position is 218.
+    public static final int MAX_MOVES = 256;
 
     public List<Move> generateMoves(Board board) {
         return generateMoves(board, MoveFilter.ALL);
     }
 
     public List<Move> generateMoves(Board board, MoveFilter filter) {
+        final int[] moves = new int[MAX_MOVES];
+        final int count = generateMoves(board, filter, moves);
+        final List<Move> legalMoves = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            legalMoves.add(Move.of(moves[i]));
+        }
+        return legalMoves;
+    }
 
-        white = board.isWhite();
-
-        // Initialise piece fields
-        initPieces(board, white);
+    /**
+     * Generates the legal moves in the position matching the given filter, writing the encoded moves into the supplied
+     * buffer, which must have space for at least {@link #MAX_MOVES} moves.
+     *
+     * @return the number of moves written to the buffer.
+     */
+    public int generateMoves(Board board, MoveFilter filter, int[] moves) {
+        return generateMoves(board, filter, moves, true);
+    }
 
-        final int kingSquare = Bits.next(king);
-        this.filter = filter;
+    /**
+     * Generates the pseudo-legal moves in the position matching the given filter. Check evasions, king moves and
+     * castling are still fully legal, but pins and en passant discovered checks are ignored, so each move must be
+     * verified with {@link #leavesKingInCheck(Board, int)} before it is played. This defers the legality check to the
+     * moves that are actually tried, which is cheaper in the search where most moves are never played.
+     *
+     * @return the number of moves written to the buffer.
+     */
+    public int generatePseudoLegalMoves(Board board, MoveFilter filter, int[] moves) {
+        return generateMoves(board, filter, moves, false);
+    }
 
-        // Initialize capture and push masks
-        captureMask = Square.ALL;
-        pushMask = Square.ALL;
+    private int generateMoves(Board board, MoveFilter filter, int[] moves, boolean legal) {
 
-        // Calculate pins and checks
-        calculatePins(board, white);
-        checkersMask = calculateCheckers(board, kingSquare);
-        checkersCount = Bits.count(checkersMask);
+        final boolean white = board.isWhite();
+        final int kingSquare = board.kingSquare(white);
 
-        final int estimatedLegalMoves = estimateLegalMoves();
-        legalMoves = new ArrayList<>(estimatedLegalMoves);
+        // Pins and checks are calculated once per position and cached by the board
+        final long checkers = board.checkers();
+        final int checkersCount = Bits.count(checkers);
+        final long pinned = legal ? board.pinned() : 0L;
 
         if (checkersCount > 0 && filter == MoveFilter.QUIET) {
-            return legalMoves;
+            return 0;
         }
 
         // Generate king moves first
-        generateKingMoves(board);
+        int count = generateKingMoves(board, white, filter, checkersCount > 0, moves, 0);
 
         if (checkersCount == 2) {
             // If we are in double-check, the only legal moves are king moves
-            return legalMoves;
+            return count;
         }
 
+        long evasionMask = Square.ALL;
         if (checkersCount == 1) {
             // If only one checker, we can evade check by capturing it
-            captureMask = checkersMask;
+            evasionMask = checkers;
 
-            final int checkerSquare = Bits.next(checkersMask);
-            if (board.pieceAt(checkerSquare).isSlider()) {
+            final int checkerSquare = Bits.next(checkers);
+            if (Piece.isSlider(board.pieceIndexAt(checkerSquare))) {
                 // If the piece giving check is a slider, we can evade check by blocking it
-                pushMask = Ray.between(checkerSquare, kingSquare);
-            } else {
-                // If the piece is not a slider, we can only evade check by capturing it
-                // Therefore all non-capture 'push' moves are illegal.
-                pushMask = Square.NONE;
+                evasionMask |= Ray.between(checkerSquare, kingSquare);
             }
         }
 
-        // Generate all the other legal moves using the capture and push masks
-        generatePawnMoves(board);
-        generateKnightMoves(board);
-        generateAllSlidingMoves(board);
-        generateCastlingMoves(board);
+        // Generate all the other legal moves using the evasion mask
+        count = generatePawnMoves(board, white, filter, evasionMask, pinned, kingSquare, legal, moves, count);
+        count = generateKnightMoves(board, white, filter, evasionMask, pinned, moves, count);
+        count = generateAllSlidingMoves(board, white, filter, evasionMask, pinned, kingSquare, moves, count);
+        if (checkersCount == 0) {
+            count = generateCastlingMoves(board, white, filter, pinned, moves, count);
+        }
 
-        return legalMoves;
+        return count;
 
     }
 
@@ -107,16 +118,21 @@ public class MoveGenerator {
      * @return True if the specified side is in check, otherwise false.
      */
     public boolean isCheck(Board board, boolean white) {
+        if (white == board.isWhite()) {
+            return board.inCheck();
+        }
         final long king = board.getKing(white);
         return isAttacked(board, white, king);
     }
 
     public boolean isCheck(Board board) {
-        return isCheck(board, board.isWhite());
+        return board.inCheck();
     }
 
-    private void generatePawnMoves(Board board) {
-        if (pawns == 0) return;
+    private int generatePawnMoves(Board board, boolean white, MoveFilter filter, long evasionMask, long pinned,
+                                  int kingSquare, boolean legal, int[] moves, int count) {
+        final long pawns = board.getPawns(white);
+        if (pawns == 0) return count;
 
         final long opponents = board.getPieces(!white);
         final long occupied = board.getOccupied();
@@ -124,232 +140,244 @@ public class MoveGenerator {
 
         // Precompute attack and filter masks
         final long opponentAttackMask = Attacks.pawnAttacks(Bits.of(opponentKing), !white);
-        final long filterMask = getFilterMask(opponents, opponentAttackMask);
+        final long filterMask = getFilterMask(filter, evasionMask, opponents, opponentAttackMask);
+
+        if (filterMask == Square.NONE) return count;
 
-        if (filterMask == Square.NONE) return;
+        // Choose the colour-specialised routine once, so that neither routine branches on the side to move.
+        return white ?
+                generateWhitePawnMoves(board, filter, pawns, occupied, opponents, filterMask, evasionMask, pinned, kingSquare, legal, moves, count) :
+                generateBlackPawnMoves(board, filter, pawns, occupied, opponents, filterMask, evasionMask, pinned, kingSquare, legal, moves, count);
+    }
 
+    private int generateWhitePawnMoves(Board board, MoveFilter filter, long pawns, long occupied, long opponents,
+                                       long filterMask, long evasionMask, long pinned, int kingSquare, boolean legal,
+                                       int[] moves, int count) {
         // Single and double pawn pushes
         if (filter != MoveFilter.CAPTURES_ONLY) {
-            generatePawnPushes(occupied, filterMask);
+            final long singleMoves = Attacks.whitePawnSingleMoves(pawns, occupied) & filterMask;
+            final long doubleMoves = Attacks.whitePawnDoubleMoves(pawns, occupied) & filterMask;
+            count = addPawnMoves(singleMoves, -8, Move.NO_FLAG, pinned, kingSquare, moves, count);
+            count = addPawnMoves(doubleMoves, -16, Move.PAWN_DOUBLE_MOVE_FLAG, pinned, kingSquare, moves, count);
         }
 
         // Pawn captures, en passant, and promotions
         if (filter != MoveFilter.QUIET) {
-            generatePawnCaptures(opponents, filterMask);
-            generatePromotions(opponents, occupied);
-            generateEnPassant(board);
-        }
-    }
-
-    private void generatePawnPushes(long occupied, long filterMask) {
-        // Single and double pawn pushes combined
-        long singleMoves = Attacks.pawnSingleMoves(pawns, occupied, white) & pushMask & filterMask;
-        long doubleMoves = Attacks.pawnDoubleMoves(pawns, occupied, white) & pushMask & filterMask;
-
-        while (singleMoves != 0) {
-            final int to = Bits.next(singleMoves);
-            final int from = white ? to - 8 : to + 8;
-            if (!isPinned(from) || isMovingAlongPinRay(from, to)) {
-                legalMoves.add(new Move(from, to));
+            final long leftCaptures = Attacks.whitePawnLeftCaptures(pawns, opponents) & filterMask;
+            final long rightCaptures = Attacks.whitePawnRightCaptures(pawns, opponents) & filterMask;
+            count = addPawnMoves(leftCaptures, -7, Move.NO_FLAG, pinned, kingSquare, moves, count);
+            count = addPawnMoves(rightCaptures, -9, Move.NO_FLAG, pinned, kingSquare, moves, count);
+
+            final long pushPromotions = Attacks.whitePawnPushPromotions(pawns, occupied) & evasionMask;
+            final long leftCapturePromotions = Attacks.whitePawnLeftCapturePromotions(pawns, opponents) & evasionMask;
+            final long rightCapturePromotions = Attacks.whitePawnRightCapturePromotions(pawns, opponents) & evasionMask;
+            count = addPromotions(pushPromotions, -8, pinned, kingSquare, moves, count);
+            count = addPromotions(leftCapturePromotions, -7, pinned, kingSquare, moves, count);
+            count = addPromotions(rightCapturePromotions, -9, pinned, kingSquare, moves, count);
+
+            final int enPassantFile = board.getState().getEnPassantFile();
+            if (enPassantFile >= 0) {
+                final long enPassantMask = File.toBitboard(enPassantFile);
+                final long leftEnPassants = Attacks.whitePawnLeftEnPassants(pawns, enPassantMask);
+                final long rightEnPassants = Attacks.whitePawnRightEnPassants(pawns, enPassantMask);
+                count = addEnPassants(board, leftEnPassants, -7, true, legal, moves, count);
+                count = addEnPassants(board, rightEnPassants, -9, true, legal, moves, count);
             }
-            singleMoves = Bits.pop(singleMoves);
         }
 
-        while (doubleMoves != 0) {
-            final int to = Bits.next(doubleMoves);
-            final int from = white ? to - 16 : to + 16;
-            if (!isPinned(from) || isMovingAlongPinRay(from, to)) {
-                legalMoves.add(new Move(from, to, Move.PAWN_DOUBLE_MOVE_FLAG));
-            }
-            doubleMoves = Bits.pop(doubleMoves);
-        }
+        return count;
     }
 
-    private void generatePawnCaptures(long opponents, long filterMask) {
-        long leftCaptures = Attacks.pawnLeftCaptures(pawns, opponents, white) & captureMask & filterMask;
-        long rightCaptures = Attacks.pawnRightCaptures(pawns, opponents, white) & captureMask & filterMask;
-
-        while (leftCaptures != 0) {
-            final int to = Bits.next(leftCaptures);
-            final int from = white ? to - 7 : to + 9;
-            if (!isPinned(from) || isMovingAlongPinRay(from, to)) {
-                legalMoves.add(new Move(from, to));
-            }
-            leftCaptures = Bits.pop(leftCaptures);
+    private int generateBlackPawnMoves(Board board, MoveFilter filter, long pawns, long occupied, long opponents,
+                                       long filterMask, long evasionMask, long pinned, int kingSquare, boolean legal,
+                                       int[] moves, int count) {
+        // Single and double pawn pushes
+        if (filter != MoveFilter.CAPTURES_ONLY) {
+            final long singleMoves = Attacks.blackPawnSingleMoves(pawns, occupied) & filterMask;
+            final long doubleMoves = Attacks.blackPawnDoubleMoves(pawns, occupied) & filterMask;
+            count = addPawnMoves(singleMoves, 8, Move.NO_FLAG, pinned, kingSquare, moves, count);
+            count = addPawnMoves(doubleMoves, 16, Move.PAWN_DOUBLE_MOVE_FLAG, pinned, kingSquare, moves, count);
         }
 
-        while (rightCaptures != 0) {
-            final int to = Bits.next(rightCaptures);
-            final int from = white ? to - 9 : to + 7;
-            if (!isPinned(from) || isMovingAlongPinRay(from, to)) {
-                legalMoves.add(new Move(from, to));
+        // Pawn captures, en passant, and promotions
+        if (filter != MoveFilter.QUIET) {
+            final long leftCaptures = Attacks.blackPawnLeftCaptures(pawns, opponents) & filterMask;
+            final long rightCaptures = Attacks.blackPawnRightCaptures(pawns, opponents) & filterMask;
+            count = addPawnMoves(leftCaptures, 9, Move.NO_FLAG, pinned, kingSquare, moves, count);
+            count = addPawnMoves(rightCaptures, 7, Move.NO_FLAG, pinned, kingSquare, moves, count);
+
+            final long pushPromotions = Attacks.blackPawnPushPromotions(pawns, occupied) & evasionMask;
+            final long leftCapturePromotions = Attacks.blackPawnLeftCapturePromotions(pawns, opponents) & evasionMask;
+            final long rightCapturePromotions = Attacks.blackPawnRightCapturePromotions(pawns, opponents) & evasionMask;
+            count = addPromotions(pushPromotions, 8, pinned, kingSquare, moves, count);
+            count = addPromotions(leftCapturePromotions, 9, pinned, kingSquare, moves, count);
+            count = addPromotions(rightCapturePromotions, 7, pinned, kingSquare, moves, count);
+
+            final int enPassantFile = board.getState().getEnPassantFile();
+            if (enPassantFile >= 0) {
+                final long enPassantMask = File.toBitboard(enPassantFile);
+                final long leftEnPassants = Attacks.blackPawnLeftEnPassants(pawns, enPassantMask);
+                final long rightEnPassants = Attacks.blackPawnRightEnPassants(pawns, enPassantMask);
+                count = addEnPassants(board, leftEnPassants, 9, false, legal, moves, count);
+                count = addEnPassants(board, rightEnPassants, 7, false, legal, moves, count);
             }
-            rightCaptures = Bits.pop(rightCaptures);
         }
-    }
 
-    private void generatePromotions(long opponents, long occupied) {
-        final long pushPromotions = Attacks.pawnPushPromotions(pawns, occupied, white) & pushMask;
-        final long leftCapturePromotions = Attacks.pawnLeftCapturePromotions(pawns, opponents, white) & (captureMask | pushMask);
-        final long rightCapturePromotions = Attacks.pawnRightCapturePromotions(pawns, opponents, white) & (captureMask | pushMask);
-
-        generatePromotionMoves(pushPromotions, 8, 8);
-        generatePromotionMoves(leftCapturePromotions, 7, 9);
-        generatePromotionMoves(rightCapturePromotions, 9, 7);
+        return count;
     }
 
-    private void generatePromotionMoves(long promotionMask, int offsetWhite, int offsetBlack) {
-        while (promotionMask != 0) {
-            final int to = Bits.next(promotionMask);
-            final int from = white ? to - offsetWhite : to + offsetBlack;
-            if (!isPinned(from) || isMovingAlongPinRay(from, to)) {
-                legalMoves.addAll(getPromotionMoves(from, to));
+    /**
+     * Adds a pawn move for each target square, where the origin square is found by adding the given offset.
+     */
+    private int addPawnMoves(long targets, int offset, int flag, long pinned, int kingSquare, int[] moves, int count) {
+        while (targets != 0) {
+            final int to = Bits.next(targets);
+            final int from = to + offset;
+            if (isMovingAlongPinRay(pinned, kingSquare, from, to)) {
+                moves[count++] = Move.encode(from, to, flag);
             }
-            promotionMask = Bits.pop(promotionMask);
+            targets = Bits.pop(targets);
         }
+        return count;
     }
 
-    private void generateEnPassant(Board board) {
-        if (board.getState().getEnPassantFile() < 0) return;
-
-        final long enPassantFile = File.toBitboard(board.getState().getEnPassantFile());
-        final long leftEnPassants = Attacks.pawnLeftEnPassants(pawns, enPassantFile, white);
-        final long rightEnPassants = Attacks.pawnRightEnPassants(pawns, enPassantFile, white);
-
-        generateEnPassantMoves(board, leftEnPassants, 7, 9);
-        generateEnPassantMoves(board, rightEnPassants, 9, 7);
+    private int addPromotions(long targets, int offset, long pinned, int kingSquare, int[] moves, int count) {
+        while (targets != 0) {
+            final int to = Bits.next(targets);
+            final int from = to + offset;
+            if (isMovingAlongPinRay(pinned, kingSquare, from, to)) {
+                moves[count++] = Move.encode(from, to, Move.PROMOTE_TO_QUEEN_FLAG);
+                moves[count++] = Move.encode(from, to, Move.PROMOTE_TO_ROOK_FLAG);
+                moves[count++] = Move.encode(from, to, Move.PROMOTE_TO_BISHOP_FLAG);
+                moves[count++] = Move.encode(from, to, Move.PROMOTE_TO_KNIGHT_FLAG);
+            }
+            targets = Bits.pop(targets);
+        }
+        return count;
     }
 
-    private void generateEnPassantMoves(Board board, long enPassantMask, int offsetWhite, int offsetBlack) {
-        while (enPassantMask != 0) {
-            final int to = Bits.next(enPassantMask);
-            final int from = white ? to - offsetWhite : to + offsetBlack;
-            final Move move = new Move(from, to, Move.EN_PASSANT_FLAG);
-            if (!leavesKingInCheck(board, move, white)) {
-                legalMoves.add(move);
+    private int addEnPassants(Board board, long targets, int offset, boolean white, boolean legal, int[] moves, int count) {
+        // En passant can uncover a check along the rank of the captured pawn, so it is verified by making the move.
+        while (targets != 0) {
+            final int to = Bits.next(targets);
+            final int move = Move.encode(to + offset, to, Move.EN_PASSANT_FLAG);
+            if (!legal || !leavesKingInCheck(board, move, white)) {
+                moves[count++] = move;
             }
-            enPassantMask = Bits.pop(enPassantMask);
+            targets = Bits.pop(targets);
         }
+        return count;
     }
 
-    private long getFilterMask(long opponents, long opponentAttackMask) {
-        return checkersCount > 0 ? captureMask | pushMask : switch (filter) {
+    /**
+     * When in check, the evasion mask is the only restriction on the destination squares, and the filter is ignored.
+     * Otherwise, noisy moves are captures plus moves to squares which give check.
+     */
+    private long getFilterMask(MoveFilter filter, long evasionMask, long opponents, long checkMask) {
+        return evasionMask != Square.ALL ? evasionMask : switch (filter) {
             case ALL -> Square.ALL;
             case CAPTURES_ONLY -> opponents;
-            case NOISY -> opponents | opponentAttackMask;
-            case QUIET -> ~opponents & ~opponentAttackMask;
+            case NOISY -> opponents | checkMask;
+            case QUIET -> ~opponents & ~checkMask;
         };
     }
 
-    private void generateKnightMoves(Board board) {
-        if (knights == 0) return;
+    private int generateKnightMoves(Board board, boolean white, MoveFilter filter, long evasionMask, long pinned,
+                                    int[] moves, int count) {
+        final long knights = board.getKnights(white);
+        if (knights == 0) return count;
         final long opponents = board.getPieces(!white);
         final int opponentKing = Bits.next(board.getKing(!white));
 
-        // Initialize filter mask based on move filter type
-        final long filterMask = checkersCount > 0 ? captureMask | pushMask : switch (filter) {
-            case ALL -> Square.ALL;
-            case CAPTURES_ONLY -> opponents;
-            case NOISY -> opponents | Attacks.knightAttacks(opponentKing);
-            case QUIET -> ~opponents & ~Attacks.knightAttacks(opponentKing);
-        };
+        final long filterMask = getFilterMask(filter, evasionMask, opponents, Attacks.knightAttacks(opponentKing));
         if (filterMask == Square.NONE) {
-            return;
+            return count;
         }
 
         // Exclude pinned knights from generating moves
-        long unpinnedKnights = knights & ~pinMask;
+        long unpinnedKnights = knights & ~pinned;
 
         // Generate legal knight moves
         while (unpinnedKnights != 0) {
             final int from = Bits.next(unpinnedKnights);
-            long possibleMoves = getKnightAttacks(board, from, white) & (pushMask | captureMask) & filterMask;
+            long possibleMoves = getKnightAttacks(board, from, white) & filterMask;
             while (possibleMoves != 0) {
                 final int to = Bits.next(possibleMoves);
-                legalMoves.add(new Move(from, to));
+                moves[count++] = Move.encode(from, to);
                 possibleMoves = Bits.pop(possibleMoves);
             }
             unpinnedKnights = Bits.pop(unpinnedKnights);
         }
+        return count;
     }
 
-    private void generateKingMoves(Board board) {
-        final int from = Bits.next(king);
+    private int generateKingMoves(Board board, boolean white, MoveFilter filter, boolean inCheck, int[] moves, int count) {
+        final int from = board.kingSquare(white);
         final long friendlies = board.getPieces(white);
         final long opponents = board.getPieces(!white);
 
-        final long filterMask = checkersCount > 0 ? captureMask | pushMask : switch (filter) {
+        final long filterMask = inCheck ? Square.ALL : switch (filter) {
             case ALL -> Square.ALL;
             case CAPTURES_ONLY, NOISY -> opponents;
             case QUIET -> ~opponents;
         };
         if (filterMask == Square.NONE) {
-            return;
+            return count;
         }
 
-        long kingMoves = Attacks.kingAttacks(from) & ~friendlies & filterMask;
-
-        // Temporarily remove the king from the board
-        board.removeKing(white);
+        // The board's threat mask sees through the king, so it covers squares behind the king on a checking ray
+        long kingMoves = Attacks.kingAttacks(from) & ~friendlies & ~board.threats() & filterMask;
 
         // Generate legal king moves
         while (kingMoves != 0) {
             final int to = Bits.next(kingMoves);
-            // Check if the end square is not attacked by the opponent
-            if (!isAttacked(board, white, Bits.of(to))) {
-                legalMoves.add(new Move(from, to));
-            }
+            moves[count++] = Move.encode(from, to);
             kingMoves = Bits.pop(kingMoves);
         }
-
-        // Restore the king to its original position on the board
-        board.addKing(from, white);
+        return count;
     }
 
-    private void generateCastlingMoves(Board board) {
-        if ((filter != MoveFilter.ALL && filter != MoveFilter.QUIET)
-                || checkersMask != 0) {
-            return;
+    private int generateCastlingMoves(Board board, boolean white, MoveFilter filter, long pinned, int[] moves, int count) {
+        if (filter != MoveFilter.ALL && filter != MoveFilter.QUIET) {
+            return count;
         }
-        final int from = Bits.next(king);
+        final int from = board.kingSquare(white);
         final long occupied = board.getOccupied();
 
         final boolean isKingsideAllowed = Castling.kingsideAllowed(board.getState().rights, white);
-        if (isKingsideAllowed) {
-            generateCastlingMove(board, white, true, from, occupied);
+        if (isKingsideAllowed && isCastlingAllowed(board, white, true, from, occupied, pinned)) {
+            moves[count++] = Move.encode(from, getCastleEndSquare(board, white, true), Move.CASTLE_FLAG);
         }
 
         final boolean isQueensideAllowed = Castling.queensideAllowed(board.getState().rights, white);
-        if (isQueensideAllowed) {
-            generateCastlingMove(board, white, false, from, occupied);
+        if (isQueensideAllowed && isCastlingAllowed(board, white, false, from, occupied, pinned)) {
+            moves[count++] = Move.encode(from, getCastleEndSquare(board, white, false), Move.CASTLE_FLAG);
         }
 
+        return count;
     }
 
-    private void generateCastlingMove(Board board, boolean white, boolean kingside, int kingSquare, long occupied) {
+    private boolean isCastlingAllowed(Board board, boolean white, boolean kingside, int kingSquare, long occupied, long pinned) {
         if (UCI.Options.chess960) {
-            generateChess960CastlingMove(board, white, kingside, kingSquare, occupied);
+            return isChess960CastlingAllowed(board, white, kingside, kingSquare, occupied, pinned);
         } else {
-            generateStandardCastlingMove(board, white, kingside, kingSquare, occupied);
+            return isStandardCastlingAllowed(board, white, kingside, occupied);
         }
     }
 
-    private void generateStandardCastlingMove(Board board, boolean white, boolean kingside, int kingSquare, long occupied) {
+    private boolean isStandardCastlingAllowed(Board board, boolean white, boolean kingside, long occupied) {
         final long travelSquares = Castling.Standard.travelSquares(white, kingside);
         final long blockedSquares = travelSquares & occupied;
         final long safeSquares = Castling.Standard.safeSquares(white, kingside);
-        if (blockedSquares == 0 && !isAttacked(board, white, safeSquares)) {
-            int to = getCastleEndSquare(board, white, kingside);
-            legalMoves.add(new Move(kingSquare, to, Move.CASTLE_FLAG));
-        }
+        return blockedSquares == 0 && (board.threats() & safeSquares) == 0;
     }
 
-    private void generateChess960CastlingMove(Board board, boolean white, boolean kingside, int kingSquare, long occupied) {
+    private boolean isChess960CastlingAllowed(Board board, boolean white, boolean kingside, int kingSquare, long occupied, long pinned) {
         final int rookSquare = Castling.getRook(board.getState().rights, kingside, white);
         final long rookSquareBit = Bits.of(rookSquare); 
-        if ((pinMask & rookSquareBit) != 0) {
+        if ((pinned & rookSquareBit) != 0) {
             // can't castle if rook is pinned 
-        	return;
+        	return false;
         }
         final int kingDst = Castling.kingTo(kingside, white);
         final int rookDst = Castling.rookTo(kingside, white);
@@ -361,72 +389,72 @@ public class MoveGenerator {
 
         final long blockedSquares = travelSquares & occupied;
         final long safeSquares = Bits.of(kingSquare) | Ray.between(kingSquare, kingDst) | Bits.of(kingDst);
-        if (blockedSquares == 0 && !isAttacked(board, white, safeSquares)) {
-            int to = getCastleEndSquare(board, white, kingside);
-            legalMoves.add(new Move(kingSquare, to, Move.CASTLE_FLAG));
-        }
+        return blockedSquares == 0 && (board.threats() & safeSquares) == 0;
     }
 
-    private void generateAllSlidingMoves(Board board) {
+    private int generateAllSlidingMoves(Board board, boolean white, MoveFilter filter, long evasionMask, long pinned,
+                                        int kingSquare, int[] moves, int count) {
+        final long bishops = board.getBishops(white);
+        final long rooks = board.getRooks(white);
+        final long queens = board.getQueens(white);
         if (filter == MoveFilter.ALL) {
             final long diagonalSliders = bishops | queens;
             final long orthogonalSliders = rooks | queens;
-            generateSlidingMoves(board, diagonalSliders, false, true);
-            generateSlidingMoves(board, orthogonalSliders, true, false);
+            count = generateSlidingMoves(board, white, filter, evasionMask, pinned, kingSquare, diagonalSliders, false, true, moves, count);
+            count = generateSlidingMoves(board, white, filter, evasionMask, pinned, kingSquare, orthogonalSliders, true, false, moves, count);
         } else {
-            generateSlidingMoves(board, bishops, false, true);
-            generateSlidingMoves(board, rooks, true, false);
-            generateSlidingMoves(board, queens, true, true);
+            count = generateSlidingMoves(board, white, filter, evasionMask, pinned, kingSquare, bishops, false, true, moves, count);
+            count = generateSlidingMoves(board, white, filter, evasionMask, pinned, kingSquare, rooks, true, false, moves, count);
+            count = generateSlidingMoves(board, white, filter, evasionMask, pinned, kingSquare, queens, true, true, moves, count);
         }
+        return count;
     }
 
-    private void generateSlidingMoves(Board board, long sliders, boolean isOrthogonal, boolean isDiagonal) {
+    private int generateSlidingMoves(Board board, boolean white, MoveFilter filter, long evasionMask, long pinned,
+                                     int kingSquare, long sliders, boolean isOrthogonal, boolean isDiagonal,
+                                     int[] moves, int count) {
+        if (sliders == 0) return count;
         final long opponents = board.getPieces(!white);
         final long occupied = board.getOccupied();
         final long friendlies = board.getPieces(white);
 
         // Apply move filters
-        final long filterMask = checkersCount > 0 ? captureMask | pushMask : switch (filter) {
-            case ALL -> Square.ALL;
-            case CAPTURES_ONLY -> opponents;
-            case NOISY -> getCaptureAndCheckMask(board, white, opponents, occupied, isDiagonal, isOrthogonal);
-            case QUIET -> ~getCaptureAndCheckMask(board, white, opponents, occupied, isDiagonal, isOrthogonal);
-        };
+        final long checkMask = filter == MoveFilter.NOISY || filter == MoveFilter.QUIET ?
+                getCheckMask(board, white, occupied, isDiagonal, isOrthogonal) : 0L;
+        final long filterMask = getFilterMask(filter, evasionMask, opponents, checkMask);
         if (filterMask == Square.NONE) {
-            return;
+            return count;
         }
 
         while (sliders != 0) {
             final int from = Bits.next(sliders);
-            long attackMask = getSlidingAttacks(from, friendlies, occupied, isDiagonal, isOrthogonal);
-
-            attackMask &= pushMask | captureMask;
-            attackMask &= filterMask;
+            long attackMask = getSlidingAttacks(from, friendlies, occupied, isDiagonal, isOrthogonal) & filterMask;
 
             // Handle pinned pieces
-            if (isPinned(from)) {
-                attackMask &= pinRayMasks[from];
+            if (Bits.contains(pinned, from)) {
+                attackMask &= Ray.line(kingSquare, from);
             }
 
             sliders = Bits.pop(sliders);
             while (attackMask != 0) {
                 final int to = Bits.next(attackMask);
-                legalMoves.add(new Move(from, to));
+                moves[count++] = Move.encode(from, to);
                 attackMask = Bits.pop(attackMask);
             }
         }
+        return count;
     }
 
-    private long getCaptureAndCheckMask(Board board, boolean white, long opponents, long occupied, boolean isDiagonal, boolean isOrthogonal) {
+    private long getCheckMask(Board board, boolean white, long occupied, boolean isDiagonal, boolean isOrthogonal) {
         final int opponentKing = Bits.next(board.getKing(!white));
-        long filterMask = opponents;
+        long checkMask = 0L;
         if (isDiagonal) {
-            filterMask |= Attacks.bishopAttacks(opponentKing, occupied);
+            checkMask |= Attacks.bishopAttacks(opponentKing, occupied);
         }
         if (isOrthogonal) {
-            filterMask |= Attacks.rookAttacks(opponentKing, occupied);
+            checkMask |= Attacks.rookAttacks(opponentKing, occupied);
         }
-        return filterMask;
+        return checkMask;
     }
 
     public long getPawnAttacks(Board board, int square, boolean white) {
@@ -486,41 +514,6 @@ public class MoveGenerator {
         return attackMask &~ friendlies;
     }
 
-    private long calculateCheckers(Board board, int square) {
-        final long occupied = board.getOccupied();
-        final long friendlies = board.getPieces(white);
-        long attackerMask = 0L;
-
-        final long opponentPawns = board.getPawns(!white);
-        if (opponentPawns != 0) {
-            final long pawnAttackMask = getPawnAttacks(board, square, white);
-            attackerMask |= pawnAttackMask & opponentPawns;
-        }
-
-        final long opponentKnights = board.getKnights(!white);
-        if (opponentKnights != 0) {
-            final long knightAttackMask = getKnightAttacks(board, square, white);
-            attackerMask |= knightAttackMask & opponentKnights;
-        }
-
-        final long opponentBishops = board.getBishops(!white);
-        final long opponentQueens = board.getQueens(!white);
-        final long diagonalSliders = opponentBishops | opponentQueens;
-        if (diagonalSliders != 0) {
-            attackerMask |= getSlidingAttacks(square, friendlies, occupied, true, false) & diagonalSliders;
-        }
-
-        final long opponentRooks = board.getRooks(!white);
-        final long orthogonalSliders = opponentRooks | opponentQueens;
-        if (orthogonalSliders != 0) {
-            attackerMask |= getSlidingAttacks(square, friendlies, occupied, false, true) & orthogonalSliders;
-        }
-
-        // King can never give check
-
-        return attackerMask;
-    }
-
     private boolean isAttacked(Board board, boolean white, long squareMask) {
 
         final long opponentPawns = board.getPawns(!white);
@@ -570,8 +563,12 @@ public class MoveGenerator {
         return false;
     }
 
-    public void calculatePins(Board board, boolean white) {
-        this.pinMask = 0L;
+    /**
+     * Calculates the pieces of the given side that are pinned to their king. Move generation uses the pins cached by the
+     * board for the side to move; this is for calculating the pins of either side on demand.
+     */
+    public long calculatePins(Board board, boolean white) {
+        long pinMask = 0L;
 
         final int kingSquare = Bits.next(board.getKing(white));
         final long friendlies = board.getPieces(white);
@@ -604,14 +601,13 @@ public class MoveGenerator {
             final long friendliesBetween = ray & friendlies;
             // If there is exactly one friendly piece between the king and the pinner, it's pinned
             if (Bits.count(friendliesBetween) == 1) {
-                int friendlySquare = Bits.next(friendliesBetween);
-                this.pinMask |= friendliesBetween;
-                this.pinRayMasks[friendlySquare] = ray | (Bits.of(possiblePinner));
+                pinMask |= friendliesBetween;
             }
 
             possiblePinners = Bits.pop(possiblePinners);
         }
 
+        return pinMask;
     }
 
     public long calculateThreats(Board board, boolean white) {
@@ -651,30 +647,30 @@ public class MoveGenerator {
 
     }
 
-    public boolean isPseudoLegal(Board board, Move move) {
+    public boolean isPseudoLegal(Board board, int move) {
 
-        if (move == null)
+        if (move == Move.NONE)
             return false;
 
         final boolean white = board.isWhite();
-        final int from = move.from();
-        final int to = move.to();
-        final Piece piece = board.pieceAt(from);
+        final int from = Move.from(move);
+        final int to = Move.to(move);
+        final int piece = board.pieceIndexAt(from);
         final long occupied = board.getOccupied();
 
         // Can't move without a piece
-        if (piece == null)
+        if (piece == Piece.NONE)
             return false;
 
         // Can't move from an empty square
         if (!Bits.contains(board.getPieces(white), from))
             return false;
 
-        Piece captured = board.pieceAt(to);
-        if (captured != null) {
+        final int captured = board.pieceIndexAt(to);
+        if (captured != Piece.NONE) {
 
             // Can't capture our own piece except in chess 960 castling
-            if (Bits.contains(board.getPieces(white), to) && !(move.isCastling() && UCI.Options.chess960))
+            if (Bits.contains(board.getPieces(white), to) && !(Move.isCastling(move) && UCI.Options.chess960))
                 return false;
 
             // Can't capture a king
@@ -683,10 +679,10 @@ public class MoveGenerator {
 
         }
 
-        if (move.isCastling()) {
+        if (Move.isCastling(move)) {
 
             // Can only castle with a king
-            if (piece != Piece.KING)
+            if (piece != Piece.KING_INDEX)
                 return false;
 
             // Must be castling on the home rank
@@ -740,9 +736,9 @@ public class MoveGenerator {
 
         }
 
-        if (piece == Piece.PAWN) {
+        if (piece == Piece.PAWN_INDEX) {
 
-            if (move.isEnPassant()) {
+            if (Move.isEnPassant(move)) {
 
                 // Can't en passant if there's no en passant square
                 if (board.getState().getEnPassantFile() < 0)
@@ -765,7 +761,7 @@ public class MoveGenerator {
 
             // Must promote on the promo rank, and can't promote on any other rank
             long promoRank = white ? Rank.EIGHTH : Rank.FIRST;
-            if (move.isPromotion() != Bits.contains(promoRank, to))
+            if (Move.isPromotion(move) != Bits.contains(promoRank, to))
                 return false;
 
             int fromFile = File.of(from);
@@ -779,14 +775,14 @@ public class MoveGenerator {
                     return false;
 
                 // Must be capturing a piece
-                return captured != null || move.isEnPassant();
+                return captured != Piece.NONE || Move.isEnPassant(move);
 
             } else {
                 // Can't capture a piece with a pawn push
-                if (captured != null)
+                if (captured != Piece.NONE)
                     return false;
 
-                if (move.isPawnDoubleMove()) {
+                if (Move.isPawnDoubleMove(move)) {
 
                     // Can't double push from the wrong rank
                     long startRank = white ? Rank.SECOND : Rank.SEVENTH;
@@ -803,15 +799,15 @@ public class MoveGenerator {
         } else {
 
             // Can't make pawn-specific moves with a non-pawn
-            if (move.isPawnDoubleMove() || move.isEnPassant() || move.isPromotion())
+            if (Move.isPawnDoubleMove(move) || Move.isEnPassant(move) || Move.isPromotion(move))
                 return false;
 
             long attacks = switch (piece) {
-                case KNIGHT ->  getKnightAttacks(board, from, white);
-                case BISHOP ->  getBishopAttacks(board, from, white);
-                case ROOK ->    getRookAttacks(board, from, white);
-                case QUEEN ->   getQueenAttacks(board, from, white);
-                case KING ->    getKingAttacks(board, from, white);
+                case Piece.KNIGHT_INDEX ->  getKnightAttacks(board, from, white);
+                case Piece.BISHOP_INDEX ->  getBishopAttacks(board, from, white);
+                case Piece.ROOK_INDEX ->    getRookAttacks(board, from, white);
+                case Piece.QUEEN_INDEX ->   getQueenAttacks(board, from, white);
+                case Piece.KING_INDEX ->    getKingAttacks(board, from, white);
                 default -> 0L;
             };
 
@@ -824,26 +820,46 @@ public class MoveGenerator {
 
     }
 
-    public boolean isLegal(Board board, Move move) {
-        if (!isPseudoLegal(board, move))
-            return false;
+    public boolean isLegal(Board board, int move) {
+        return isPseudoLegal(board, move) && !leavesKingInCheck(board, move);
+    }
 
-        board.makeMove(move);
-        boolean legal = !isCheck(board, !board.isWhite());
-        board.unmakeMove();
+    /**
+     * Checks whether a pseudo-legal move would leave the king of the side to move in check. Uses the checkers, pins and
+     * threats cached by the board, only falling back to making the move for castling and en passant.
+     */
+    public boolean leavesKingInCheck(Board board, int move) {
+        final boolean white = board.isWhite();
+        if (Move.isCastling(move) || Move.isEnPassant(move)) {
+            return leavesKingInCheck(board, move, white);
+        }
 
-        return legal;
-    }
+        final int from = Move.from(move);
+        final int to = Move.to(move);
+        final int kingSquare = board.kingSquare(white);
 
-    private List<Move> getPromotionMoves(int from, int to) {
-        return List.of(new Move(from, to, Move.PROMOTE_TO_QUEEN_FLAG),
-                        new Move(from, to, Move.PROMOTE_TO_ROOK_FLAG),
-                        new Move(from, to, Move.PROMOTE_TO_BISHOP_FLAG),
-                        new Move(from, to, Move.PROMOTE_TO_KNIGHT_FLAG));
-    }
+        // The king must not step onto an attacked square
+        if (from == kingSquare) {
+            return Bits.contains(board.threats(), to);
+        }
+
+        // Any other move must capture or block a single checker
+        final long checkers = board.checkers();
+        if (checkers != 0) {
+            if (Bits.count(checkers) > 1) {
+                return true;
+            }
+            final int checker = Bits.next(checkers);
+            if (to != checker && !Bits.contains(Ray.between(kingSquare, checker), to)) {
+                return true;
+            }
+        }
 
+        // A pinned piece must stay on the line between the king and the pinner
+        return !isMovingAlongPinRay(board.pinned(), kingSquare, from, to);
+    }
 
-    private boolean leavesKingInCheck(Board board, Move move, boolean white) {
+    private boolean leavesKingInCheck(Board board, int move, boolean white) {
         board.makeMove(move);
         final int kingSquare = white ? Bits.next(board.getKing(true)) : Bits.next(board.getKing(false));
         final boolean isAttacked = isAttacked(board, white, Bits.of(kingSquare));
@@ -851,13 +867,11 @@ public class MoveGenerator {
         return isAttacked;
     }
 
-    private boolean isPinned(int from) {
-        return (Bits.of(from) & pinMask) != 0;
-    }
-
-    private boolean isMovingAlongPinRay(int from, int to) {
-        final long pinRay = pinRayMasks[from];
-        return (Bits.of(to) & pinRay) != 0;
+    /**
+     * Checks that a piece is either not pinned, or is moving along the line between its king and the pinning piece.
+     */
+    private boolean isMovingAlongPinRay(long pinned, int kingSquare, int from, int to) {
+        return !Bits.contains(pinned, from) || Bits.contains(Ray.line(kingSquare, from), to);
     }
 
     private int getCastleEndSquare(Board board, boolean white, boolean kingside) {
@@ -874,34 +888,6 @@ public class MoveGenerator {
         }
     }
 
-    public long getPinMask() {
-        return pinMask;
-    }
-
-    /**
-     * Estimate the number of legal moves in the current position, based on the piece count and
-     * the average number of legal moves per piece. Used to initialise the legal moves ArrayList
-     * with a 'best guess', to reduce the number of times the ArrayList has to grow during move
-     * generation, yielding a small increase in performance.
-     */
-    private int estimateLegalMoves() {
-        return (Bits.count(pawns) * 2) +
-                (Bits.count(knights) * 3) +
-                (Bits.count(bishops) * 3) +
-                (Bits.count(rooks) * 6) +
-                (Bits.count(queens) * 9) +
-                (Bits.count(king) * 3);
-    }
-
-    private void initPieces(Board board, boolean white) {
-        this.pawns = board.getPawns(white);
-        this.knights = board.getKnights(white);
-        this.bishops = board.getBishops(white);
-        this.rooks = board.getRooks(white);
-        this.queens = board.getQueens(white);
-        this.king = board.getKing(white);
-    }
-
     public enum MoveFilter {
         ALL,
         NOISY,
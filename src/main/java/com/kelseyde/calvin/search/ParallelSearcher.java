@@ -6,11 +6,14 @@ import com.kelseyde.calvin.engine.EngineConfig;
 import com.kelseyde.calvin.movegen.MoveGenerator;
 import com.kelseyde.calvin.tables.tt.TranspositionTable;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
-import java.util.stream.IntStream;
 
 /**
  * The ParallelSearcher class is an implementation of the {@link Search} interface that uses a parallel search strategy
@@ -28,11 +31,28 @@ import java.util.stream.IntStream;
  */
 public class ParallelSearcher implements Search {
 
+    // Gives a non-zero vote to the thread with the lowest score, see selectResult.
+    private static final int VOTE_OFFSET = 14;
+
     private final EngineConfig config;
     private final TranspositionTable tt;
     private final MoveGenerator movegen;
 
+    // Raised by the main thread when it finishes, to stop the helper threads.
+    private final AtomicBoolean stopped = new AtomicBoolean(false);
+
+    // Raised on a ponder hit, to stop the helper threads speculatively searching the other replies.
+    private final AtomicBoolean ponderStopped = new AtomicBoolean(false);
+
+    // The positions currently being searched by any thread, to cut down on duplicated work.
+    private final SearchingTable searching = new SearchingTable();
+
+    // Positions after the opponent's alternative replies, searched by spare helper threads during the next ponder
+    // search only.
+    private List<Board> ponderPositions = List.of();
+
     private List<Searcher> searchers;
+    private SearchThreadPool pool;
     private int threadCount;
     private int hashSize;
     private Board board;
@@ -50,12 +70,15 @@ public class ParallelSearcher implements Search {
         this.movegen = movegen;
         this.hashSize = config.defaultHashSizeMb;
         this.threadCount = config.defaultThreads;
-        this.searchers = initSearchers();
+        this.searchers = new ArrayList<>(threadCount);
+        resizeSearchers();
+        this.pool = new SearchThreadPool(threadCount);
     }
 
     /**
-     * Searches for the best move within the given duration. Does so by starting a new thread for each searcher and
-     * waiting for all threads to finish. The best result is then selected from the results of the individual searchers.
+     * Searches for the best move within the given duration. Does so by releasing the pooled search thread of each
+     * searcher and waiting for all threads to finish. The best result is then selected from the results of the
+     * individual searchers.
      *
      * @param timeControl the maximum duration to search
      * @return the best search result found
@@ -64,11 +87,15 @@ public class ParallelSearcher implements Search {
     public SearchResult search(TimeControl timeControl) {
         try {
             setPosition(board);
-            List<CompletableFuture<SearchResult>> threads = searchers.stream()
-                    .map(searcher -> initThread(searcher, timeControl))
-                    .toList();
-
-            SearchResult result = selectResult(threads).get();
+            assignPonderPositions();
+            stopped.set(false);
+            searching.clear();
+            SearchResult[] results = pool.run(searchers, searcher -> runSearch(searcher, timeControl));
+            // Threads that were searching a different position don't get a vote on the best move.
+            for (int i = 0; i < results.length; i++) {
+                if (searchers.get(i).td.speculative) results[i] = null;
+            }
+            SearchResult result = selectResult(results);
             tt.incrementAge();
             return result;
         } catch (Exception e) {
@@ -93,8 +120,8 @@ public class ParallelSearcher implements Search {
     }
 
     /**
-     * Sets the size of the {@link TranspositionTable}. This is done by creating a new transposition table with the
-     * given size and setting it for all searchers.
+     * Sets the size of the {@link TranspositionTable}. The table is shared by reference, so the searchers themselves
+     * are left untouched.
      *
      * @param hashSizeMb the size in megabytes
      */
@@ -102,61 +129,182 @@ public class ParallelSearcher implements Search {
     public void setHashSize(int hashSizeMb) {
         this.hashSize = hashSizeMb;
         this.tt.resize(this.hashSize);
-        this.searchers = initSearchers();
     }
 
     /**
-     * Sets the number of threads to use for searching.
+     * Sets whether the searchers share their history tables. Sharing means every thread benefits from the move ordering
+     * feedback of all the others, and keeps the memory used per thread down at high thread counts.
+     *
+     * @param sharedHistory whether to share the history tables
+     */
+    @Override
+    public void setSharedHistory(boolean sharedHistory) {
+        if (sharedHistory == config.sharedHistory) {
+            return;
+        }
+        this.config.sharedHistory = sharedHistory;
+        // The main searcher always owns its history, so only the helpers need to be rebuilt.
+        searchers.subList(1, searchers.size()).clear();
+        resizeSearchers();
+    }
+
+    /**
+     * Sets the positions after the opponent's alternative replies, to search during the next ponder search. While
+     * pondering on the predicted reply, the helper threads are split in turn between the predicted reply and each
+     * alternative, so that if the opponent plays one of the alternatives instead, the real search starts from a
+     * well-filled transposition table. The main thread always searches the predicted reply.
+     *
+     * @param positions the positions after each alternative reply, best reply first
+     * @return the positions that will be searched, which are the best ones that there are spare helper threads for
+     */
+    @Override
+    public List<Board> setPonderPositions(List<Board> positions) {
+        this.ponderPositions = List.copyOf(positions.subList(0, Math.min(positions.size(), threadCount - 1)));
+        this.ponderStopped.set(false);
+        return ponderPositions;
+    }
+
+    /**
+     * Stops the helper threads that are speculatively searching other replies, since the predicted reply was played.
+     */
+    @Override
+    public void ponderHit() {
+        ponderStopped.set(true);
+    }
+
+    /**
+     * Sets the number of threads to use for searching. Only the searchers that differ are added or removed; the
+     * existing searchers keep their history and board state.
      *
      * @param threadCount the number of threads
      */
     @Override
     public void setThreadCount(int threadCount) {
+        if (threadCount == this.threadCount) {
+            return;
+        }
         this.threadCount = threadCount;
-        this.searchers = initSearchers();
-    }
-
-    private CompletableFuture<SearchResult> initThread(Searcher searcher, TimeControl tc) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                return searcher.search(tc);
-            } catch (Exception e) {
-                System.out.printf("info error %s, %s %s%n", e.getMessage(), e.getCause(), Arrays.toString(e.getStackTrace()));
-                // In case of an error, return a random legal move to avoid crashing the engine
-                Move move = movegen.generateMoves(board).stream().findAny().orElse(null);
-                return SearchResult.of(move);
-            }
-        });
+        resizeSearchers();
+        this.pool.shutdown();
+        this.pool = new SearchThreadPool(threadCount);
+    }
+
+    private SearchResult runSearch(Searcher searcher, TimeControl tc) {
+        try {
+            return searcher.search(tc);
+        } catch (Exception e) {
+            System.out.printf("info error %s, %s %s%n", e.getMessage(), e.getCause(), Arrays.toString(e.getStackTrace()));
+            // In case of an error, return a random legal move to avoid crashing the engine
+            Move move = movegen.generateMoves(board).stream().findAny().orElse(null);
+            return SearchResult.of(move);
+        }
     }
 
     /**
      * Combines the {@link SearchResult} results of the different threads and selects a final result to use.
-     * Simply selects the result from the thread which searched to the greatest depth.
+     * </p>
+     * Each thread votes for its best move, with a weight that grows with both the last depth it completed and how much
+     * better its score is than the worst score of any voting thread. The move with the most votes wins, starting from the
+     * main thread's result, so that a single deep but unlucky helper can't override the consensus. Mates are the
+     * exception: a thread that has found a mate is always preferred, and among several mates the shortest wins.
+     * </p>
+     * Threads that were stopped before completing a single iteration only have a placeholder result, so they get no vote.
      *
      * @return the best search result
      */
-    private CompletableFuture<SearchResult> selectResult(List<CompletableFuture<SearchResult>> threads) {
-        CompletableFuture<SearchResult> collector = CompletableFuture.completedFuture(new SearchResult(0, null, 0, 0, 0, 0, 0));
-        for (CompletableFuture<SearchResult> thread : threads) {
-            collector = collector.thenCombine(thread, (thread1, thread2) -> {
-                SearchResult best = thread1.depth() > thread2.depth() ? thread1 : thread2;
-                int bestEval = best.eval();
-                Move bestMove = best.move();
-                return new SearchResult(bestEval, bestMove, best.depth(), best.seldepth(), best.time(), thread1.nodes() + thread2.nodes(), best.nps());
-            });
+    private SearchResult selectResult(SearchResult[] results) {
+        SearchResult best = Arrays.stream(results).filter(result -> result != null && result.move() != null).findFirst()
+                .or(() -> Arrays.stream(results).filter(Objects::nonNull).findFirst())
+                .orElseThrow(() -> new IllegalStateException("No search thread returned a result"));
+
+        int minScore = Integer.MAX_VALUE;
+        for (int i = 0; i < results.length; i++) {
+            if (hasVote(i, results[i])) {
+                minScore = Math.min(minScore, results[i].eval());
+            }
+        }
+
+        if (results.length > 1 && minScore != Integer.MAX_VALUE) {
+            final Map<Move, Long> votes = new HashMap<>();
+            for (int i = 0; i < results.length; i++) {
+                if (hasVote(i, results[i])) {
+                    final int depth = searchers.get(i).td.completedDepth;
+                    final long vote = (long) (results[i].eval() - minScore + VOTE_OFFSET) * depth;
+                    votes.merge(results[i].move(), vote, Long::sum);
+                }
+            }
+            SearchResult winner = null;
+            for (int i = 0; i < results.length; i++) {
+                if (!hasVote(i, results[i])) {
+                    continue;
+                }
+                final SearchResult result = results[i];
+                if (winner == null) {
+                    winner = result;
+                } else if (isWinningMate(winner.eval())) {
+                    if (result.eval() > winner.eval()) winner = result;
+                } else if (isWinningMate(result.eval()) || votes.get(result.move()) > votes.get(winner.move())) {
+                    winner = result;
+                }
+            }
+            best = winner;
+        }
+
+        // Report the nodes searched by all threads, rather than just the thread whose result was selected.
+        final long nodes = searchers.stream()
+                .filter(searcher -> !searcher.td.speculative)
+                .mapToLong(searcher -> searcher.td.nodes())
+                .sum();
+        return new SearchResult(best.eval(), best.move(), best.pv(), best.depth(), best.seldepth(), best.time(), nodes,
+                SearchResult.nps(nodes, best.time()));
+    }
+
+    /**
+     * Marks each searcher as either searching the position itself, or speculatively searching one of the ponder
+     * positions. The ponder positions are only used for a single search.
+     */
+    private void assignPonderPositions() {
+        final boolean speculate = config.pondering && !ponderStopped.get() && !ponderPositions.isEmpty();
+        final int groups = ponderPositions.size() + 1;
+        for (int i = 0; i < searchers.size(); i++) {
+            final Searcher searcher = searchers.get(i);
+            searcher.td.speculative = speculate && i % groups != 0;
+            if (searcher.td.speculative) {
+                searcher.setPosition(ponderPositions.get(i % groups - 1).copy());
+            }
         }
-        return collector;
+        ponderPositions = List.of();
+    }
+
+    private boolean hasVote(int index, SearchResult result) {
+        return result != null && result.move() != null && searchers.get(index).td.completedDepth > 0;
+    }
+
+    private boolean isWinningMate(int score) {
+        return score > 0 && Score.isMateScore(score);
     }
 
     /**
-     * Initializes the list of searchers.
-     *
-     * @return the list of initialized searchers
+     * Grows or shrinks the list of searchers to match the thread count, creating only the searchers that are missing
+     * and dropping any from the end that are no longer needed.
      */
-    private List<Searcher> initSearchers() {
-        return IntStream.range(0, threadCount)
-                .mapToObj(i -> initSearcher(i == 0))
-                .toList();
+    private void resizeSearchers() {
+        while (searchers.size() > threadCount) {
+            searchers.remove(searchers.size() - 1);
+        }
+        while (searchers.size() < threadCount) {
+            final int i = searchers.size();
+            final SearchHistory history = config.sharedHistory && i > 0
+                    ? new SearchHistory(config, searchers.get(0).history)
+                    : new SearchHistory(config);
+            final Searcher searcher = initSearcher(i == 0, history);
+            if (board != null) {
+                searcher.setPosition(board.copy());
+            }
+            searchers.add(searcher);
+        }
+        final List<ThreadData> threads = searchers.stream().map(searcher -> searcher.td).toList();
+        searchers.forEach(searcher -> searcher.setThreads(threads, stopped, ponderStopped, searching));
     }
 
     /**
@@ -164,9 +312,9 @@ public class ParallelSearcher implements Search {
      *
      * @return the initialized searcher
      */
-    private Searcher initSearcher(boolean mainThread) {
+    private Searcher initSearcher(boolean mainThread, SearchHistory history) {
         ThreadData td = new ThreadData(mainThread);
-        return new Searcher(config, tt, td);
+        return new Searcher(config, tt, td, history);
     }
 
     /**
@@ -185,7 +333,7 @@ public class ParallelSearcher implements Search {
     @Override
     public void clearHistory() {
         tt.clear();
-        searchers.forEach(Searcher::clearHistory);
+        searchers.forEach(Searcher::clearSearchHistory);
     }
 
 }
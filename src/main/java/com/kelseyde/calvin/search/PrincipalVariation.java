@@ -0,0 +1,57 @@
+package com.kelseyde.calvin.search;
+
+import java.util.Arrays;
+
+/**
+ * A triangular table of principal variations, one line per ply. Whenever a move raises alpha at a PV node, the line at
+ * that ply becomes the move followed by the line found at the next ply. The line at ply zero is therefore the full
+ * principal variation of the search, without needing to walk the transposition table after the fact.
+ * </p>
+ * The line at each ply can be at most as long as the remaining plies, hence the triangular shape.
+ *
+ * @see <a href="https://www.chessprogramming.org/Triangular_PV-Table">Chess Programming Wiki</a>
+ */
+public class PrincipalVariation {
+
+    private final int[][] lines = new int[Search.MAX_DEPTH][];
+    private final int[] lengths = new int[Search.MAX_DEPTH];
+
+    public PrincipalVariation() {
+        for (int ply = 0; ply < Search.MAX_DEPTH; ply++) {
+            lines[ply] = new int[Search.MAX_DEPTH - ply];
+        }
+    }
+
+    /**
+     * Clears the line at the given ply, which must be done on entering each node.
+     */
+    public void clear(int ply) {
+        if (ply < Search.MAX_DEPTH) {
+            lengths[ply] = 0;
+        }
+    }
+
+    /**
+     * Sets the line at the given ply to the given move, followed by the line at the next ply.
+     */
+    public void update(int ply, int move) {
+        if (ply >= Search.MAX_DEPTH) {
+            return;
+        }
+        final int[] line = lines[ply];
+        line[0] = move;
+        final int childLength = ply + 1 < Search.MAX_DEPTH ? lengths[ply + 1] : 0;
+        if (childLength > 0) {
+            System.arraycopy(lines[ply + 1], 0, line, 1, childLength);
+        }
+        lengths[ply] = childLength + 1;
+    }
+
+    /**
+     * @return a copy of the principal variation from the root.
+     */
+    public int[] line() {
+        return Arrays.copyOf(lines[0], lengths[0]);
+    }
+
+}
@@ -2,6 +2,7 @@ package com.kelseyde.calvin.search;
 
 import com.kelseyde.calvin.board.Bits;
 import com.kelseyde.calvin.board.Board;
+import com.kelseyde.calvin.board.Colour;
 import com.kelseyde.calvin.board.Move;
 import com.kelseyde.calvin.board.Piece;
 import com.kelseyde.calvin.movegen.Attacks;
@@ -25,30 +26,35 @@ public class SEE {
         return SEE_PIECE_VALUES[piece.index()];
     }
 
-    public static boolean see(Board board, Move move, int threshold) {
+    public static int value(int piece) {
+        return SEE_PIECE_VALUES[piece];
+    }
+
+    public static boolean see(Board board, int move, int threshold) {
 
         boolean white = board.isWhite();
-        final int from = move.from();
-        final int to = move.to();
+        final int from = Move.from(move);
+        final int to = Move.to(move);
+        final int promoPiece = Move.promoPieceIndex(move);
 
         int score = -threshold;
-        Piece captured = move.isEnPassant() ? Piece.PAWN : board.pieceAt(to);
-        score += captured != null ? SEE_PIECE_VALUES[captured.index()] : 0;
+        int captured = Move.isEnPassant(move) ? Piece.PAWN_INDEX : board.pieceIndexAt(to);
+        score += captured != Piece.NONE ? SEE_PIECE_VALUES[captured] : 0;
 
-        if (move.promoPiece() != null) {
-            score += value(move.promoPiece()) - value(Piece.PAWN);
+        if (promoPiece != Piece.NONE) {
+            score += value(promoPiece) - value(Piece.PAWN_INDEX);
         }
 
         if (score < 0) return false;
 
-        Piece nextVictim = move.promoPiece() != null ? move.promoPiece() : board.pieceAt(from);
+        int nextVictim = promoPiece != Piece.NONE ? promoPiece : board.pieceIndexAt(from);
         score -= value(nextVictim);
 
         if (score >= 0) return true;
 
         long occ = board.getOccupied() ^ Bits.of(from) ^ Bits.of(to);
 
-        if (move.isEnPassant()) {
+        if (Move.isEnPassant(move)) {
             int epFile = board.getState().getEnPassantFile();
             int epSquare = toEnPassantSquare(epFile, white);
             occ &= ~(1L << epSquare);
@@ -68,15 +74,15 @@ public class SEE {
             if (friendlyAttackers == 0) break;
 
             nextVictim = getLeastValuableAttacker(board, friendlyAttackers, white);
-            long pieces = board.getPieces(nextVictim, white);
+            long pieces = board.getPieces(nextVictim, Colour.index(white));
             int sq = Bits.next(friendlyAttackers & pieces);
             occ = Bits.pop(occ, sq);
 
-            if (nextVictim == Piece.PAWN || nextVictim == Piece.BISHOP || nextVictim == Piece.QUEEN) {
+            if (nextVictim == Piece.PAWN_INDEX || nextVictim == Piece.BISHOP_INDEX || nextVictim == Piece.QUEEN_INDEX) {
                 attackers |= Attacks.bishopAttacks(to, occ) & diagonalAttackers;
             }
 
-            if (nextVictim == Piece.ROOK || nextVictim == Piece.QUEEN) {
+            if (nextVictim == Piece.ROOK_INDEX || nextVictim == Piece.QUEEN_INDEX) {
                 attackers |= Attacks.rookAttacks(to, occ) & orthogonalAttackers;
             }
 
@@ -85,7 +91,7 @@ public class SEE {
             white = !white;
 
             if (score >= 0) {
-                if (nextVictim == Piece.KING && (attackers & board.getPieces(white)) != 0) {
+                if (nextVictim == Piece.KING_INDEX && (attackers & board.getPieces(white)) != 0) {
                     white = !white;
                 }
                 break;
@@ -96,14 +102,14 @@ public class SEE {
 
     }
 
-    private static Piece getLeastValuableAttacker(Board board, long attackers, boolean white) {
-        Piece nextVictim;
-        if ((attackers & board.getPawns(white)) != 0)         nextVictim = Piece.PAWN;
-        else if ((attackers & board.getKnights(white)) != 0)  nextVictim = Piece.KNIGHT;
-        else if ((attackers & board.getBishops(white)) != 0)  nextVictim = Piece.BISHOP;
-        else if ((attackers & board.getRooks(white)) != 0)    nextVictim = Piece.ROOK;
-        else if ((attackers & board.getQueens(white)) != 0)   nextVictim = Piece.QUEEN;
-        else if ((attackers & board.getKing(white)) != 0)     nextVictim = Piece.KING;
+    private static int getLeastValuableAttacker(Board board, long attackers, boolean white) {
+        int nextVictim;
+        if ((attackers & board.getPawns(white)) != 0)         nextVictim = Piece.PAWN_INDEX;
+        else if ((attackers & board.getKnights(white)) != 0)  nextVictim = Piece.KNIGHT_INDEX;
+        else if ((attackers & board.getBishops(white)) != 0)  nextVictim = Piece.BISHOP_INDEX;
+        else if ((attackers & board.getRooks(white)) != 0)    nextVictim = Piece.ROOK_INDEX;
+        else if ((attackers & board.getQueens(white)) != 0)   nextVictim = Piece.QUEEN_INDEX;
+        else if ((attackers & board.getKing(white)) != 0)     nextVictim = Piece.KING_INDEX;
         else throw new IllegalArgumentException("Invalid piece type");
         return nextVictim;
     }
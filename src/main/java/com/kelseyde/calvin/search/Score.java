@@ -1,8 +1,11 @@
 package com.kelseyde.calvin.search;
 
 import com.kelseyde.calvin.board.Bits;
+import com.kelseyde.calvin.board.Bits.Ray;
 import com.kelseyde.calvin.board.Board;
 import com.kelseyde.calvin.board.BoardState;
+import com.kelseyde.calvin.board.Cuckoo;
+import com.kelseyde.calvin.board.Move;
 
 public class Score {
 
@@ -28,13 +31,18 @@ public class Score {
         return isDoubleRepetition(board) || isFiftyMoveRule(board) || isInsufficientMaterial(board);
     }
 
+    /**
+     * Only positions with the same side to move, and within the reversible window since the last capture or pawn move,
+     * can repeat; so the scan is bounded by the half-move clock and steps back two plies at a time.
+     */
     public static boolean isThreefoldRepetition(Board board) {
 
         int repetitionCount = 0;
-        long zobrist = board.getState().getKey();
-        BoardState[] states = board.getStates();
-        for (int i = board.getPly() - 1; i >= 0; i--) {
-            if (states[i].getKey() == zobrist) {
+        final long key = board.key();
+        final BoardState[] states = board.getStates();
+        final int end = Math.max(board.getPly() - board.getState().getHalfMoveClock(), 0);
+        for (int i = board.getPly() - 2; i >= end; i -= 2) {
+            if (states[i].getKey() == key) {
                 repetitionCount += 1;
             }
             if (repetitionCount >= 2) {
@@ -48,10 +56,11 @@ public class Score {
 
     public static boolean isDoubleRepetition(Board board) {
 
-        long zobrist = board.getState().getKey();
-        BoardState[] states = board.getStates();
-        for (int i = board.getPly() - 1; i >= 0; i--) {
-            if (states[i].getKey() == zobrist) {
+        final long key = board.key();
+        final BoardState[] states = board.getStates();
+        final int end = Math.max(board.getPly() - board.getState().getHalfMoveClock(), 0);
+        for (int i = board.getPly() - 2; i >= end; i -= 2) {
+            if (states[i].getKey() == key) {
                 return true;
             }
         }
@@ -59,6 +68,52 @@ public class Score {
 
     }
 
+    /**
+     * Check whether the side to move has a reversible move available that returns to a position already seen within
+     * the reversible window. If so, the side to move can force at least a draw by repetition, and so the score of the
+     * position is bounded below by {@link #DRAW}.
+     *
+     * @see Cuckoo
+     */
+    public static boolean hasUpcomingRepetition(Board board) {
+
+        final int end = Math.min(board.getState().getHalfMoveClock(), board.getPly());
+        if (end < 3) {
+            return false;
+        }
+
+        final long key = board.key();
+        final long occupied = board.getOccupied();
+        final long friendlies = board.getPieces(board.isWhite());
+        final BoardState[] states = board.getStates();
+        final int ply = board.getPly();
+
+        for (int i = 3; i <= end; i += 2) {
+
+            final long moveKey = key ^ states[ply - i].getKey();
+            int index = Cuckoo.h1(moveKey);
+            if (Cuckoo.key(index) != moveKey) {
+                index = Cuckoo.h2(moveKey);
+                if (Cuckoo.key(index) != moveKey) {
+                    continue;
+                }
+            }
+
+            final int move = Cuckoo.move(index);
+            final int from = Move.from(move);
+            final int to = Move.to(move);
+
+            // The move must not be blocked, and must be made by a piece belonging to the side to move.
+            if ((Ray.between(from, to) & occupied) == 0
+                    && (friendlies & (Bits.of(from) | Bits.of(to))) != 0) {
+                return true;
+            }
+
+        }
+        return false;
+
+    }
+
     public static boolean isInsufficientMaterial(Board board) {
         if (board.getPawns() != 0 || board.getRooks() != 0 || board.getQueens() != 0) {
             return false;
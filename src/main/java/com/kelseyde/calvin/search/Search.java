@@ -3,6 +3,8 @@ package com.kelseyde.calvin.search;
 import com.kelseyde.calvin.board.Board;
 import com.kelseyde.calvin.tables.tt.TranspositionTable;
 
+import java.util.List;
+
 /**
  * Search for the best move/evaluation (encapsulated in a {@link SearchResult}) within a give time limit.
  * See {@link Searcher} for a concrete implementation, using an iterative deepening approach.
@@ -26,6 +28,23 @@ public interface Search {
      */
     void setThreadCount(int threadCount);
 
+    /**
+     * Set whether the search threads share their history tables, or each keep their own.
+     */
+    void setSharedHistory(boolean sharedHistory);
+
+    /**
+     * Set the positions after the opponent's alternative replies, to search speculatively with spare threads during the
+     * next ponder search.
+     * @return the positions that will actually be given a thread, which may be fewer than requested.
+     */
+    List<Board> setPonderPositions(List<Board> positions);
+
+    /**
+     * Signal that the opponent played the predicted reply, so any speculative search of other replies can stop.
+     */
+    void ponderHit();
+
     /**
      * Search the current position for the best move.
      * @param timeControl How long to search for
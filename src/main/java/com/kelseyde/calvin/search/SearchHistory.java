@@ -14,11 +14,36 @@ import com.kelseyde.calvin.tables.history.ContinuationHistoryTable;
 import com.kelseyde.calvin.tables.history.KillerTable;
 import com.kelseyde.calvin.tables.history.QuietHistoryTable;
 
-import java.util.List;
-
 public class SearchHistory {
 
-    public record PlayedMove(Move move, Piece piece, Piece captured) {}
+    /**
+     * A move played during search, together with the moving and captured pieces, packed into an int so that the search
+     * stack can record played moves without allocating. Bits 0-15 hold the move, bits 16-18 the moving piece, and bits
+     * 19-21 the captured piece plus one (zero meaning no capture).
+     */
+    public static final class PlayedMove {
+
+        public static final int NONE = 0;
+
+        private PlayedMove() {}
+
+        public static int of(int move, int piece, int captured) {
+            return move | (piece << 16) | ((captured + 1) << 19);
+        }
+
+        public static int move(int playedMove) {
+            return playedMove & 0xFFFF;
+        }
+
+        public static int piece(int playedMove) {
+            return (playedMove >>> 16) & 0x7;
+        }
+
+        public static int captured(int playedMove) {
+            return ((playedMove >>> 19) & 0x7) - 1;
+        }
+
+    }
 
     private final EngineConfig config;
     private final KillerTable killerTable;
@@ -43,54 +68,77 @@ public class SearchHistory {
         this.countermoveCorrHistTable = new PieceToCorrectionTable();
     }
 
-    public void updateHistory(PlayedMove bestMove, boolean white, int depth, int ply, SearchStack ss) {
+    /**
+     * Creates a search history that shares its history and correction tables with another thread's search history, so
+     * that all threads learn from each other's move ordering feedback. The killer table and the stability counters
+     * describe this thread's own search, and so remain private.
+     * </p>
+     * The shared tables are updated without any synchronisation. Two threads updating the same entry at the same time
+     * can lose one of the updates, but since every entry is a single int, a reader never sees a torn value, and the
+     * occasional lost update is harmless noise in a heuristic.
+     */
+    public SearchHistory(EngineConfig config, SearchHistory shared) {
+        this.config = config;
+        this.killerTable = new KillerTable();
+        this.quietHistoryTable = shared.quietHistoryTable;
+        this.contHistTable = shared.contHistTable;
+        this.captureHistoryTable = shared.captureHistoryTable;
+        this.pawnCorrHistTable = shared.pawnCorrHistTable;
+        this.nonPawnCorrHistTables = shared.nonPawnCorrHistTables;
+        this.countermoveCorrHistTable = shared.countermoveCorrHistTable;
+    }
+
+    public void updateHistory(int bestMove, boolean white, int depth, int ply, SearchStack ss) {
 
         // When the best move causes a beta cut-off, we want to update the various history tables to reward the best move
         // and punish the other moves that were searched. Doing so will hopefully improve move ordering in future searches.
 
-        List<PlayedMove> playedMoves = ss.get(ply).searchedMoves;
+        final SearchStackEntry sse = ss.get(ply);
+        final boolean quietBest = PlayedMove.captured(bestMove) == Piece.NONE;
 
-        if (bestMove.captured() == null) {
-            killerTable.add(ply, bestMove.move());
-        }
+        if (quietBest) {
+            killerTable.add(ply, PlayedMove.move(bestMove));
 
-        for (PlayedMove playedMove : playedMoves) {
-            if (bestMove.captured() == null && playedMove.captured() == null) {
-                // If the best move was quiet, give it a boost in the quiet history table, and penalise all other quiets.
-                updateQuietHistory(playedMove, bestMove, ss, white, depth, ply);
-            }
-            else if (playedMove.captured() != null) {
-                // If the best move was a capture, give it a boost in the capture history table. Regardless of whether the
-                // best move was quiet or a capture, penalise all other captures.
-                updateCaptureHistory(playedMove, bestMove, white, depth);
+            // If the best move was quiet, give it a boost in the quiet history table, and penalise all other quiets.
+            for (int i = 0; i < sse.searchedQuietCount; i++) {
+                updateQuietHistory(sse.searchedQuiets[i], bestMove, ss, white, depth, ply);
             }
         }
 
+        // If the best move was a capture, give it a boost in the capture history table. Regardless of whether the
+        // best move was quiet or a capture, penalise all other captures.
+        for (int i = 0; i < sse.searchedCaptureCount; i++) {
+            updateCaptureHistory(sse.searchedCaptures[i], bestMove, white, depth);
+        }
+
     }
 
-    private void updateQuietHistory(PlayedMove quietMove, PlayedMove bestMove, SearchStack ss, boolean white, int depth, int ply) {
+    private void updateQuietHistory(int quietMove, int bestMove, SearchStack ss, boolean white, int depth, int ply) {
         // For quiet moves we update both the standard quiet and continuation history tables
-        boolean good = quietMove.move().equals(bestMove.move());
-        quietHistoryTable.update(quietMove.move(), quietMove.piece(), depth, white, good);
+        final int move = PlayedMove.move(quietMove);
+        final int piece = PlayedMove.piece(quietMove);
+        final boolean good = move == PlayedMove.move(bestMove);
+        quietHistoryTable.update(move, piece, depth, white, good);
         for (int prevPly : config.contHistPlies) {
             SearchStackEntry prevEntry = ss.get(ply - prevPly);
-            if (prevEntry != null && prevEntry.currentMove != null) {
-                PlayedMove prevMove = prevEntry.currentMove;
-                contHistTable.update(prevMove.move(), prevMove.piece(), quietMove.move(), quietMove.piece(), depth, white, good);
+            if (prevEntry != null && prevEntry.currentMove != PlayedMove.NONE) {
+                final int prevMove = prevEntry.currentMove;
+                contHistTable.update(PlayedMove.move(prevMove), PlayedMove.piece(prevMove), move, piece, depth, white, good);
             }
         }
     }
 
-    private void updateCaptureHistory(PlayedMove captureMove, PlayedMove bestMove, boolean white, int depth) {
-        boolean good = captureMove.move().equals(bestMove.move());
-        captureHistoryTable.update(captureMove.piece(), captureMove.move().to(), captureMove.captured(), depth, white, good);
+    private void updateCaptureHistory(int captureMove, int bestMove, boolean white, int depth) {
+        final int move = PlayedMove.move(captureMove);
+        final boolean good = move == PlayedMove.move(bestMove);
+        captureHistoryTable.update(PlayedMove.piece(captureMove), Move.to(move), PlayedMove.captured(captureMove), depth, white, good);
     }
 
-    public void updateBestMoveStability(Move bestMovePrevious, Move bestMoveCurrent) {
-        if (bestMovePrevious == null || bestMoveCurrent == null) {
+    public void updateBestMoveStability(int bestMovePrevious, int bestMoveCurrent) {
+        if (bestMovePrevious == Move.NONE || bestMoveCurrent == Move.NONE) {
             return;
         }
-        bestMoveStability = bestMovePrevious.equals(bestMoveCurrent) ? bestMoveStability + 1 : 0;
+        bestMoveStability = bestMovePrevious == bestMoveCurrent ? bestMoveStability + 1 : 0;
     }
 
     public void updateBestScoreStability(int scorePrevious, int scoreCurrent) {
@@ -115,18 +163,18 @@ public class SearchHistory {
 
     private int getContCorrHistEntry(SearchStack ss, int ply, boolean white) {
         SearchStackEntry sse = ss.get(ply - 1);
-        if (sse == null || sse.currentMove == null) {
+        if (sse == null || sse.currentMove == PlayedMove.NONE) {
             return 0;
         }
-        return countermoveCorrHistTable.get(white, sse.currentMove.move(), sse.currentMove.piece());
+        return countermoveCorrHistTable.get(white, PlayedMove.move(sse.currentMove), PlayedMove.piece(sse.currentMove));
     }
 
     private void updateContCorrHistEntry(SearchStack ss, int ply, boolean white, int depth, int score, int staticEval) {
         SearchStackEntry sse = ss.get(ply - 1);
-        if (sse == null || sse.currentMove == null) {
+        if (sse == null || sse.currentMove == PlayedMove.NONE) {
             return;
         }
-        countermoveCorrHistTable.update(sse.currentMove.move(), sse.currentMove.piece(), white, staticEval, score, depth);
+        countermoveCorrHistTable.update(PlayedMove.move(sse.currentMove), PlayedMove.piece(sse.currentMove), white, staticEval, score, depth);
     }
 
     public int getBestMoveStability() {
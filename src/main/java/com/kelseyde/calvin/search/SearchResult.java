@@ -2,19 +2,30 @@ package com.kelseyde.calvin.search;
 
 import com.kelseyde.calvin.board.Move;
 
-import java.time.Duration;
-import java.time.Instant;
-
-public record SearchResult(int eval, Move move, int depth, int seldepth, long time, int nodes, long nps) {
+/**
+ * @param pv the principal variation, starting with the best move, with each move encoded as an int.
+ */
+public record SearchResult(int eval, Move move, int[] pv, int depth, int seldepth, long time, long nodes, long nps) {
 
     public static SearchResult of(Move move) {
-        return new SearchResult(0, move, 0, 0, 0, 0, 0);
+        final int[] pv = move != null ? new int[] { Move.value(move) } : new int[0];
+        return new SearchResult(0, move, pv, 0, 0, 0, 0, 0);
+    }
+
+    public static SearchResult of(Move move, int[] pv, int score, ThreadData td, TimeControl tc) {
+        return of(move, pv, score, td, tc, td.nodes());
+    }
+
+    /**
+     * @param nodes the nodes to report, which may be the total across all search threads rather than just this thread.
+     */
+    public static SearchResult of(Move move, int[] pv, int score, ThreadData td, TimeControl tc, long nodes) {
+        long millis = tc.start() != null ? tc.elapsedMillis() : 0;
+        return new SearchResult(score, move, pv, td.depth, td.seldepth, millis, nodes, nps(nodes, millis));
     }
 
-    public static SearchResult of(Move move, int score, ThreadData td, TimeControl tc) {
-        long millis = tc.start() != null ? Duration.between(tc.start(), Instant.now()).toMillis() : 0;
-        long nps = td.nodes > 0 && millis > 0 ? ((td.nodes / millis) * 1000) : 0;
-        return new SearchResult(score, move, td.depth, td.seldepth, millis, td.nodes, nps);
+    public static long nps(long nodes, long millis) {
+        return nodes > 0 && millis > 0 ? nodes * 1000 / millis : 0;
     }
 
 }
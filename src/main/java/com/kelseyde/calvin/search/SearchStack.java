@@ -1,33 +1,98 @@
 package com.kelseyde.calvin.search;
 
-import java.util.List;
+import com.kelseyde.calvin.engine.EngineConfig;
+import com.kelseyde.calvin.movegen.MoveGenerator;
+import com.kelseyde.calvin.search.SearchHistory.PlayedMove;
+import com.kelseyde.calvin.search.picker.MoveBuffers;
+import com.kelseyde.calvin.search.picker.MovePicker;
+import com.kelseyde.calvin.search.picker.QuiescentMovePicker;
 
 public class SearchStack {
 
+    // Searches rarely reach beyond this many plies, so only these entries are allocated up front. Deeper entries are
+    // allocated the first time the search reaches them, and then kept for the lifetime of the stack.
+    private static final int PREALLOCATED_PLIES = 64;
+
     private final SearchStackEntry[] stack = new SearchStackEntry[Search.MAX_DEPTH];
 
+    private final EngineConfig config;
+    private final MoveGenerator movegen;
+    private final SearchHistory history;
+
     public SearchStack() {
-        for (int i = 0; i < Search.MAX_DEPTH; i++) {
-            stack[i] = new SearchStackEntry();
+        this(null, null, null);
+    }
+
+    /**
+     * Creates a search stack with a move picker for each ply, so that picking moves during search never needs to
+     * allocate once a ply has been reached.
+     */
+    public SearchStack(EngineConfig config, MoveGenerator movegen, SearchHistory history) {
+        this.config = config;
+        this.movegen = movegen;
+        this.history = history;
+        for (int i = 0; i < PREALLOCATED_PLIES; i++) {
+            stack[i] = newEntry();
         }
     }
 
     public SearchStackEntry get(int ply) {
-        return ply >= 0 && ply < Search.MAX_DEPTH ? stack[ply] : null;
+        if (ply < 0 || ply >= Search.MAX_DEPTH) {
+            return null;
+        }
+        SearchStackEntry entry = stack[ply];
+        if (entry == null) {
+            entry = stack[ply] = newEntry();
+        }
+        return entry;
     }
 
     public void clear() {
-        for (int i = 0; i < Search.MAX_DEPTH; i++) {
-            stack[i] = new SearchStackEntry();
+        for (SearchStackEntry entry : stack) {
+            if (entry != null) {
+                entry.clear();
+            }
         }
     }
 
+    private SearchStackEntry newEntry() {
+        final SearchStackEntry entry = new SearchStackEntry();
+        if (movegen != null) {
+            // The main search and quiescence search never run at the same ply at once, so the pickers share buffers.
+            final MoveBuffers buffers = new MoveBuffers();
+            entry.movePicker = new MovePicker(config, movegen, this, history, buffers);
+            entry.quiescentMovePicker = new QuiescentMovePicker(config, movegen, this, history, buffers);
+        }
+        return entry;
+    }
+
     public static class SearchStackEntry {
         public int staticEval;
-        public SearchHistory.PlayedMove currentMove;
-        public SearchHistory.PlayedMove bestMove;
+        // Played moves are packed as ints, see SearchHistory.PlayedMove
+        public int currentMove;
+        public int bestMove;
         public boolean nullMoveAllowed = true;
-        public List<SearchHistory.PlayedMove> searchedMoves;
+        public final int[] searchedQuiets = new int[MoveGenerator.MAX_MOVES];
+        public final int[] searchedCaptures = new int[MoveGenerator.MAX_MOVES];
+        public int searchedQuietCount;
+        public int searchedCaptureCount;
+        // Moves deferred because another thread is already searching them, see SearchingTable
+        public final long[] deferredMoves = new long[MoveGenerator.MAX_MOVES];
+        // The move number each deferred move was first picked at, so it is reduced and pruned as it would have been.
+        public final int[] deferredMoveNumbers = new int[MoveGenerator.MAX_MOVES];
+        public int deferredMoveCount;
+        public MovePicker movePicker;
+        public QuiescentMovePicker quiescentMovePicker;
+
+        private void clear() {
+            staticEval = 0;
+            currentMove = PlayedMove.NONE;
+            bestMove = PlayedMove.NONE;
+            nullMoveAllowed = true;
+            searchedQuietCount = 0;
+            searchedCaptureCount = 0;
+            deferredMoveCount = 0;
+        }
     }
 
 }
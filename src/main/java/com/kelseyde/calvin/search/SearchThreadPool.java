@@ -0,0 +1,86 @@
+package com.kelseyde.calvin.search;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.function.Function;
+
+/**
+ * A fixed pool of long-lived search threads, one per {@link Searcher}, which stay parked between searches. Unlike the
+ * common fork-join pool (which is sized to the number of cores minus one, and shared with the rest of the JVM), every
+ * requested thread is guaranteed to exist and to run its searcher, and no thread start-up is paid on each 'go'.
+ * </p>
+ * Each search is bracketed by two barriers: the start barrier releases all the threads at once, and the finish barrier
+ * blocks the caller until every thread has returned its result.
+ */
+public class SearchThreadPool {
+
+    private final Thread[] threads;
+    private final CyclicBarrier start;
+    private final CyclicBarrier finish;
+
+    // Written by the calling thread before the start barrier, and read by the search threads after it, so the barrier
+    // guarantees their visibility. Likewise, results are written before the finish barrier and read after it.
+    private List<Searcher> searchers;
+    private Function<Searcher, SearchResult> task;
+    private SearchResult[] results;
+
+    public SearchThreadPool(int threadCount) {
+        this.start = new CyclicBarrier(threadCount + 1);
+        this.finish = new CyclicBarrier(threadCount + 1);
+        this.threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            final int index = i;
+            final Thread thread = new Thread(() -> work(index), "search-thread-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads[i] = thread;
+        }
+    }
+
+    /**
+     * Runs the task once for each searcher, each on its own search thread, and waits for all of them to finish.
+     *
+     * @return the result of each searcher, in order, or null for any searcher whose task threw.
+     */
+    public SearchResult[] run(List<Searcher> searchers, Function<Searcher, SearchResult> task)
+            throws InterruptedException, BrokenBarrierException {
+        if (searchers.size() != threads.length) {
+            throw new IllegalArgumentException("Expected " + threads.length + " searchers, got " + searchers.size());
+        }
+        this.searchers = searchers;
+        this.task = task;
+        this.results = new SearchResult[threads.length];
+        start.await();
+        finish.await();
+        return Arrays.copyOf(results, results.length);
+    }
+
+    /**
+     * Stops all the search threads. Must only be called while the pool is idle.
+     */
+    public void shutdown() {
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+    }
+
+    private void work(int index) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                start.await();
+                try {
+                    results[index] = task.apply(searchers.get(index));
+                } catch (Throwable e) {
+                    System.out.printf("info error %s, %s %s%n", e.getMessage(), e.getCause(), Arrays.toString(e.getStackTrace()));
+                    results[index] = null;
+                }
+                finish.await();
+            }
+        } catch (InterruptedException | BrokenBarrierException e) {
+            // The pool is shutting down
+        }
+    }
+
+}
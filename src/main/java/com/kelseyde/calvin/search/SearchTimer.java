@@ -0,0 +1,45 @@
+package com.kelseyde.calvin.search;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enforces the hard time limit of a search. Rather than each search thread reading the clock every few thousand nodes,
+ * a single daemon timer thread flips a volatile flag once the hard deadline passes, so that the hot path of the search
+ * only ever reads a field, and the latency of stopping no longer depends on the node rate.
+ */
+public class SearchTimer {
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "search-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean hardLimitReached;
+    private ScheduledFuture<?> deadline;
+
+    /**
+     * Schedules the hard deadline for the given time control, cancelling any deadline left over from a previous search.
+     */
+    public void start(TimeControl tc) {
+        stop();
+        hardLimitReached = false;
+        final long delay = tc.hardDeadlineNanos() - System.nanoTime();
+        deadline = SCHEDULER.schedule(() -> hardLimitReached = true, Math.max(delay, 0), TimeUnit.NANOSECONDS);
+    }
+
+    public void stop() {
+        if (deadline != null) {
+            deadline.cancel(false);
+            deadline = null;
+        }
+    }
+
+    public boolean isHardLimitReached() {
+        return hardLimitReached;
+    }
+
+}
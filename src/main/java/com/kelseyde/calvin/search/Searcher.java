@@ -12,13 +12,15 @@ import com.kelseyde.calvin.search.SearchStack.SearchStackEntry;
 import com.kelseyde.calvin.search.picker.MovePicker;
 import com.kelseyde.calvin.search.picker.QuiescentMovePicker;
 import com.kelseyde.calvin.search.picker.ScoredMove;
+import com.kelseyde.calvin.tables.bitbase.KPKBitbase;
 import com.kelseyde.calvin.tables.tt.HashEntry;
 import com.kelseyde.calvin.tables.tt.HashFlag;
 import com.kelseyde.calvin.tables.tt.TranspositionTable;
 import com.kelseyde.calvin.uci.UCI;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Classical alpha-beta search with iterative deepening. This is the main search algorithm used by the engine.
@@ -37,6 +39,13 @@ import java.util.List;
  */
 public class Searcher implements Search {
 
+    // Depth skipping schedule for helper threads, see skipDepth.
+    private static final int[] SKIP_SIZE = { 1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4 };
+    private static final int[] SKIP_PHASE = { 0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7 };
+
+    // The minimum depth at which late moves being searched by another thread are deferred, see SearchingTable.
+    private static final int ABDADA_MIN_DEPTH = 4;
+
     final EngineConfig config;
     final TranspositionTable tt;
     final MoveGenerator movegen;
@@ -44,21 +53,48 @@ public class Searcher implements Search {
     final SearchStack ss;
     final ThreadData td;
     final NNUE eval;
-
-    Move bestMoveCurrent;
+    final SearchTimer timer;
+    final PrincipalVariation pv;
+
+    // The thread data of every thread taking part in the search, so that the main thread can report the total nodes.
+    List<ThreadData> threads;
+    // The index of this thread among the threads taking part in the search, where the main thread is index zero.
+    int threadIndex;
+    // Raised by the main thread once it finishes, so that the helper threads stop too, shared by all the threads.
+    AtomicBoolean stopped;
+    // Raised on a ponder hit, so that the threads speculatively searching other replies stop, shared by all the threads.
+    AtomicBoolean ponderStopped;
+    // The positions currently being searched by any thread, used to defer duplicate work. Null when searching alone.
+    SearchingTable searching;
+
+    int bestMoveCurrent;
     int bestScoreCurrent;
 
+    // The root moves already chosen as the best move of an earlier line in the current MultiPV iteration.
+    final int[] excludedRootMoves = new int[MoveGenerator.MAX_MOVES];
+    int excludedRootMoveCount;
+
     TimeControl tc;
     Board board;
 
     public Searcher(EngineConfig config, TranspositionTable tt, ThreadData td) {
+        this(config, tt, td, new SearchHistory(config));
+    }
+
+    public Searcher(EngineConfig config, TranspositionTable tt, ThreadData td, SearchHistory history) {
         this.config = config;
         this.tt = tt;
         this.td = td;
-        this.history = new SearchHistory(config);
+        this.history = history;
         this.movegen = new MoveGenerator();
-        this.ss = new SearchStack();
+        this.ss = new SearchStack(config, movegen, history);
         this.eval = new NNUE();
+        this.timer = new SearchTimer();
+        this.pv = new PrincipalVariation();
+        this.threads = List.of(td);
+        this.threadIndex = 0;
+        this.stopped = new AtomicBoolean(false);
+        this.ponderStopped = new AtomicBoolean(false);
     }
 
     /**
@@ -69,51 +105,80 @@ public class Searcher implements Search {
     @Override
     public SearchResult search(TimeControl timeControl) {
 
-        final List<Move> rootMoves = movegen.generateMoves(board);
-        if (rootMoves.size() == 1) {
-            return handleOnlyOneLegalMove(rootMoves);
+        tc = timeControl;
+        final int[] rootMoves = new int[MoveGenerator.MAX_MOVES];
+        final int rootMoveCount = movegen.generateMoves(board, MoveFilter.ALL, rootMoves);
+        if (rootMoveCount == 1) {
+            return handleOnlyOneLegalMove(rootMoves[0]);
         }
 
-        tc = timeControl;
+        timer.start(tc);
         ss.clear();
         td.reset();
         history.reset();
 
-        Move bestMoveRoot = null;
+        int bestMoveRoot = Move.NONE;
         int bestScoreRoot = 0;
+        int[] pvRoot = new int[0];
+
+        // In MultiPV mode, each iteration searches the root once per line, excluding the root moves of the lines already
+        // found in that iteration. Each line keeps its own aspiration window, while the TT and history are shared. Only the
+        // main thread reports lines, so the helper threads search a single line.
+        final int multiPv = td.isMainThread() ? Math.min(config.multiPv, rootMoveCount) : 1;
+        final int[] alphas = new int[multiPv];
+        final int[] betas = new int[multiPv];
+        final int[] windows = new int[multiPv];
+        final int[] reductions = new int[multiPv];
+        final int[][] lines = new int[multiPv][];
+        Arrays.fill(alphas, Score.MIN);
+        Arrays.fill(betas, Score.MAX);
+        Arrays.fill(windows, config.aspMargin.value);
 
-        int alpha = Score.MIN;
-        int beta = Score.MAX;
-
-        int reduction = 0;
         final int maxReduction = config.aspMaxReduction.value;
-        int window = config.aspMargin.value;
+        int pvIndex = 0;
+        excludedRootMoveCount = 0;
+
+        while (td.depth < Search.MAX_DEPTH && (pvIndex > 0 || !shouldStopSoft())) {
+
+            if (pvIndex == 0 && skipDepth(td.depth)) {
+                td.depth++;
+                continue;
+            }
 
-        while (!shouldStopSoft() && td.depth < Search.MAX_DEPTH) {
             // Reset variables for the current depth iteration
-            bestMoveCurrent = null;
+            bestMoveCurrent = Move.NONE;
             bestScoreCurrent = 0;
-            td.seldepth = 0;
+            if (pvIndex == 0) td.seldepth = 0;
+            // Forget this line from the previous iteration, so that only a root move found in this iteration is excluded.
+            lines[pvIndex] = null;
 
-            final int searchDepth = td.depth - reduction;
+            final int searchDepth = td.depth - reductions[pvIndex];
 
             // Perform alpha-beta search for the current depth
-            final int score = search(searchDepth, 0, alpha, beta, false);
+            final int score = search(searchDepth, 0, alphas[pvIndex], betas[pvIndex], false);
 
             // Update the best move and evaluation if a better move is found
-            if (bestMoveCurrent != null) {
-                history.updateBestMoveStability(bestMoveRoot, bestMoveCurrent);
-                history.updateBestScoreStability(bestScoreRoot, bestScoreCurrent);
-                bestMoveRoot = bestMoveCurrent;
-                bestScoreRoot = bestScoreCurrent;
+            if (bestMoveCurrent != Move.NONE) {
+                lines[pvIndex] = pv.line();
+                if (pvIndex == 0) {
+                    history.updateBestMoveStability(bestMoveRoot, bestMoveCurrent);
+                    history.updateBestScoreStability(bestScoreRoot, bestScoreCurrent);
+                    bestMoveRoot = bestMoveCurrent;
+                    bestScoreRoot = bestScoreCurrent;
+                    pvRoot = lines[pvIndex];
+                }
                 if (td.isMainThread()) {
-                    SearchResult result = SearchResult.of(bestMoveRoot, bestScoreRoot, td, tc);
-                    UCI.writeSearchInfo(result);
+                    SearchResult result = SearchResult.of(Move.of(bestMoveCurrent), lines[pvIndex], bestScoreCurrent, td, tc, totalNodes());
+                    UCI.writeSearchInfo(result, pvIndex + 1);
                 }
             }
 
             // Check if search is cancelled or a checkmate is found
-            if (shouldStop() || Score.isMateScore(score)) {
+            if (shouldStop()) {
+                break;
+            }
+            if (multiPv == 1 && Score.isMateScore(score)) {
+                td.completedDepth = td.depth;
                 break;
             }
 
@@ -124,42 +189,61 @@ public class Searcher implements Search {
             if (td.depth > config.aspMinDepth.value) {
 
                 // Adjust the aspiration window in case the score fell outside the current window
-                if (score <= alpha) {
+                if (score <= alphas[pvIndex]) {
                     // If score <= alpha, re-search with an expanded aspiration window
-                    beta = (alpha + beta) / 2;
-                    alpha -= window;
-                    window *= 2;
-                    reduction = 0;
+                    betas[pvIndex] = (alphas[pvIndex] + betas[pvIndex]) / 2;
+                    alphas[pvIndex] -= windows[pvIndex];
+                    windows[pvIndex] *= 2;
+                    reductions[pvIndex] = 0;
                     continue;
                 }
-                if (score >= beta) {
+                if (score >= betas[pvIndex]) {
                     // If score >= beta, re-search with an expanded aspiration window
-                    beta += window;
-                    window *= 2;
-                    reduction = Math.min(maxReduction, reduction + 1);
+                    betas[pvIndex] += windows[pvIndex];
+                    windows[pvIndex] *= 2;
+                    reductions[pvIndex] = Math.min(maxReduction, reductions[pvIndex] + 1);
                     continue;
                 }
 
                 // Center the aspiration window around the score from the current iteration, to be used next time.
-                window = config.aspMargin.value;
-                alpha = score - window;
-                beta = score + window;
+                windows[pvIndex] = config.aspMargin.value;
+                alphas[pvIndex] = score - windows[pvIndex];
+                betas[pvIndex] = score + windows[pvIndex];
+            }
+
+            if (pvIndex == 0) {
+                td.completedDepth = td.depth;
+            }
+
+            // Exclude the root move of this line from the remaining lines of the iteration. If the line found no move this
+            // iteration, the remaining lines are skipped, rather than risk repeating a root move already reported.
+            if (lines[pvIndex] != null && pvIndex + 1 < multiPv) {
+                excludedRootMoves[excludedRootMoveCount++] = lines[pvIndex][0];
+                pvIndex++;
+                continue;
             }
 
             // Increment depth and reset retry counter for next iteration
+            pvIndex = 0;
+            excludedRootMoveCount = 0;
             td.depth++;
 
         }
 
+        excludedRootMoveCount = 0;
+
         // Clear move ordering cache and return the search result
         history.getKillerTable().clear();
 
-        if (bestMoveRoot == null) {
+        if (bestMoveRoot == Move.NONE) {
             // If time expired before a best move was found in search, pick the first legal move.
-            bestMoveRoot = rootMoves.get(0);
+            bestMoveRoot = rootMoves[0];
+            pvRoot = new int[] { bestMoveRoot };
         }
 
-        return SearchResult.of(bestMoveRoot, bestScoreRoot, td, tc);
+        timer.stop();
+        stopHelpers();
+        return SearchResult.of(Move.of(bestMoveRoot), pvRoot, bestScoreRoot, td, tc);
 
     }
 
@@ -174,6 +258,9 @@ public class Searcher implements Search {
      */
     public int search(int depth, int ply, int alpha, int beta, boolean cutNode) {
 
+        // Clear the principal variation, so that a parent node never picks up a stale line from this ply
+        pv.clear(ply);
+
         // If timeout is reached, exit immediately
         if (shouldStop()) return alpha;
 
@@ -193,6 +280,12 @@ public class Searcher implements Search {
         // If the game is drawn by repetition, insufficient material or fifty move rule, return zero
         if (ply > 0 && isDraw()) return Score.DRAW;
 
+        // If we have a move available that repeats a previous position, we can force at least a draw.
+        if (ply > 0 && alpha < Score.DRAW && Score.hasUpcomingRepetition(board)) {
+            alpha = Score.DRAW;
+            if (alpha >= beta) return alpha;
+        }
+
         // Update the selective search depth
         if (ply + 1 > td.seldepth) td.seldepth = ply + 1;
 
@@ -227,8 +320,8 @@ public class Searcher implements Search {
             }
         }
 
-        Move ttMove = null;
-        if (ttHit && ttEntry.move() != null) {
+        int ttMove = Move.NONE;
+        if (ttHit && ttEntry.move() != Move.NONE) {
             // Even if we can't re-use the entire tt entry, we can still use the stored move to improve move ordering.
             ttMove = ttEntry.move();
         }
@@ -238,7 +331,7 @@ public class Searcher implements Search {
         // reduced depth expecting to record a move that we can use later for a full-depth search.
         if (!rootNode
                 && (pvNode || cutNode)
-                && (!ttHit || ttEntry.move() == null)
+                && (!ttHit || ttEntry.move() == Move.NONE)
                 && depth >= config.iirDepth.value) {
             --depth;
         }
@@ -252,10 +345,10 @@ public class Searcher implements Search {
             uncorrectedStaticEval = rawStaticEval;
 
             if (!ttHit) {
-                tt.put(board.key(), HashFlag.NONE, 0, 0, null, rawStaticEval, 0);
+                tt.put(board.key(), HashFlag.NONE, 0, 0, Move.NONE, rawStaticEval, 0);
             }
 
-            staticEval = ttMove != null ?
+            staticEval = ttMove != Move.NONE ?
                     rawStaticEval :
                     history.correctEvaluation(board, ss, ply, rawStaticEval);
             if (ttHit &&
@@ -329,7 +422,7 @@ public class Searcher implements Search {
 
                 ss.get(ply + 1).nullMoveAllowed = false;
                 board.makeNullMove();
-                td.nodes++;
+                td.incrementNodes();
 
                 final int base = config.nmpBase.value;
                 final int divisor = config.nmpDivisor.value;
@@ -352,26 +445,42 @@ public class Searcher implements Search {
 
         }
 
-        Move bestMove = null;
+        int bestMove = Move.NONE;
         int bestScore = Score.MIN;
         int flag = HashFlag.UPPER;
 
-        sse.searchedMoves = new ArrayList<>();
-        final MovePicker movePicker = new MovePicker(config, movegen, ss, history, board, ply, ttMove, inCheck);
+        sse.searchedQuietCount = 0;
+        sse.searchedCaptureCount = 0;
+        sse.deferredMoveCount = 0;
+        final MovePicker movePicker = sse.movePicker;
+        movePicker.reset(board, ply, ttMove, inCheck);
         int movesSearched = 0;
+        int deferredIndex = 0;
+
+        // Only late moves in deep enough nodes are worth deferring, and only while there are other threads to defer to.
+        final boolean deferLateMoves = searching != null && !rootNode && depth >= ABDADA_MIN_DEPTH;
 
         while (true) {
 
-            final ScoredMove scoredMove = movePicker.next();
-            if (scoredMove == null) {
-                break;
+            long scoredMove = movePicker.next();
+            final boolean deferredPass = scoredMove == ScoredMove.NONE;
+            if (deferredPass) {
+                // Once the move picker is exhausted, come back to any moves deferred while another thread searched them.
+                if (deferredIndex == sse.deferredMoveCount) {
+                    break;
+                }
+                scoredMove = sse.deferredMoves[deferredIndex];
             }
-            Move move = scoredMove.move();
-            movesSearched++;
+            final int move = ScoredMove.move(scoredMove);
+            if (rootNode && isExcludedRootMove(move)) {
+                continue;
+            }
+            // A deferred move was already counted when first picked, so it keeps its original place in the move order.
+            final int moveNumber = deferredPass ? sse.deferredMoveNumbers[deferredIndex++] : ++movesSearched;
 
-            final Piece piece = scoredMove.piece();
-            final Piece captured = scoredMove.captured();
-            final boolean isCapture = captured != null;
+            final int piece = ScoredMove.piece(scoredMove);
+            final int captured = ScoredMove.captured(scoredMove);
+            final boolean isCapture = captured != Piece.NONE;
 
             int extension = 0;
             int reduction = 0;
@@ -380,16 +489,16 @@ public class Searcher implements Search {
                 extension = 1;
             }
 
-            final int historyScore = scoredMove.historyScore();
+            final int historyScore = ScoredMove.historyScore(scoredMove);
 
             // Late Move Reductions - https://www.chessprogramming.org/Late_Move_Reductions
             // If the move is ordered late in the list, and isn't a 'noisy' move like a check, capture or promotion,
             // let's save time by assuming it's less likely to be good, and reduce the search depth.
             if (depth >= config.lmrDepth.value
-                    && movesSearched >= (pvNode ? config.lmrMinPvMoves.value : config.lmrMinMoves.value) + (rootNode ? 1 : 0)) {
+                    && moveNumber >= (pvNode ? config.lmrMinPvMoves.value : config.lmrMinMoves.value) + (rootNode ? 1 : 0)) {
 
                 // Reductions are based on the depth and the number of moves searched so far.
-                reduction = config.lmrReductions[isCapture ? 1 : 0][depth][movesSearched];
+                reduction = config.lmrReductions[isCapture ? 1 : 0][depth][moveNumber];
 
                 // Reduce less in PV nodes.
                 reduction -= pvNode ? 1 : 0;
@@ -407,7 +516,7 @@ public class Searcher implements Search {
                     && !rootNode
                     && !inCheck
                     && depth - reduction <= config.fpDepth.value
-                    && scoredMove.isQuiet()) {
+                    && ScoredMove.isQuiet(scoredMove)) {
 
                 // Two margins - a strict margin where we fully prune the move, and a softer margin where we reduce depth.
                 int pruneMargin = config.fpMargin.value
@@ -416,7 +525,7 @@ public class Searcher implements Search {
                 int reduceMargin = pruneMargin + depth * config.fpBlend.value;
 
                 if (staticEval + pruneMargin <= alpha) {
-                    sse.currentMove = null;
+                    sse.currentMove = PlayedMove.NONE;
                     movePicker.setSkipQuiets(true);
                     continue;
                 }
@@ -433,10 +542,10 @@ public class Searcher implements Search {
             // that assumes that moves which have historically been bad are likely to be bad in the current position.
             if (!pvNode
                     && !rootNode
-                    && scoredMove.isQuiet()
+                    && ScoredMove.isQuiet(scoredMove)
                     && depth - reduction <= config.hpMaxDepth.value
                     && historyScore < config.hpMargin.value * depth + config.hpOffset.value) {
-                sse.currentMove = null;
+                sse.currentMove = PlayedMove.NONE;
                 movePicker.setSkipQuiets(true);
                 continue;
             }
@@ -448,10 +557,10 @@ public class Searcher implements Search {
             if (!pvNode
                     && !rootNode
                     && !inCheck
-                    && scoredMove.isQuiet()
+                    && ScoredMove.isQuiet(scoredMove)
                     && depth <= config.lmpDepth.value
-                    && movesSearched >= lmpCutoff) {
-                sse.currentMove = null;
+                    && moveNumber >= lmpCutoff) {
+                sse.currentMove = PlayedMove.NONE;
                 movePicker.setSkipQuiets(true);
                 continue;
             }
@@ -461,11 +570,11 @@ public class Searcher implements Search {
             if (!pvNode
                     && !rootNode
                     && depth <= config.seeMaxDepth.value
-                    && movesSearched > 1
-                    && (scoredMove.isQuiet() || (scoredMove.isBadNoisy() && isCapture))
+                    && moveNumber > 1
+                    && (ScoredMove.isQuiet(scoredMove) || (ScoredMove.isBadNoisy(scoredMove) && isCapture))
                     && !Score.isMateScore(bestScore)) {
 
-                int threshold = scoredMove.isQuiet() ?
+                int threshold = ScoredMove.isQuiet(scoredMove) ?
                         config.seeQuietMargin.value * depth :
                         config.seeNoisyMargin.value * depth * depth;
                 threshold -= historyScore / config.seeHistoryDivisor.value;
@@ -476,23 +585,43 @@ public class Searcher implements Search {
             }
 
 
+            // ABDADA - https://www.chessprogramming.org/ABDADA
+            // If another thread is already searching the position after this late move, search the other moves first.
+            // Only the board move is needed to find the child key, so the evaluation is left untouched until we commit.
+            long childKey = 0L;
+            if (deferLateMoves) {
+                board.makeMove(move);
+                childKey = board.key();
+                board.unmakeMove();
+                if (!deferredPass && moveNumber > 1 && searching.isSearching(childKey, depth)) {
+                    sse.deferredMoves[sse.deferredMoveCount] = scoredMove;
+                    sse.deferredMoveNumbers[sse.deferredMoveCount++] = moveNumber;
+                    continue;
+                }
+            }
+
             eval.makeMove(board, move);
             board.makeMove(move);
+            final boolean claimed = deferLateMoves && searching.enter(childKey, depth);
 
-            final int nodesBefore = td.nodes;
-            td.nodes++;
+            final long nodesBefore = td.nodes();
+            td.incrementNodes();
 
-            if (scoredMove.isQuiet() || scoredMove.isBadNoisy()) {
+            if (ScoredMove.isQuiet(scoredMove) || ScoredMove.isBadNoisy(scoredMove)) {
                 reduction += futilityReduction;
             }
 
-            PlayedMove playedMove = new PlayedMove(move, piece, captured);
+            final int playedMove = PlayedMove.of(move, piece, captured);
             sse.currentMove = playedMove;
-            sse.searchedMoves.add(playedMove);
+            if (isCapture) {
+                sse.searchedCaptures[sse.searchedCaptureCount++] = playedMove;
+            } else {
+                sse.searchedQuiets[sse.searchedQuietCount++] = playedMove;
+            }
 
             int score;
 
-            if (pvNode && movesSearched == 1) {
+            if (pvNode && moveNumber == 1) {
                 // Principal Variation Search - https://www.chessprogramming.org/Principal_Variation_Search
                 // The first move must be searched with the full alpha-beta window. If our move ordering is any good
                 // then we expect this to be the best move, and so we need to retrieve the exact score.
@@ -510,12 +639,16 @@ public class Searcher implements Search {
                 }
             }
 
+            if (claimed) {
+                searching.leave(childKey, depth);
+            }
+
             eval.unmakeMove();
             board.unmakeMove();
-            sse.currentMove = null;
+            sse.currentMove = PlayedMove.NONE;
 
             if (rootNode) {
-                td.addNodes(move, td.nodes - nodesBefore);
+                td.addNodes(move, td.nodes() - nodesBefore);
             }
 
             if (shouldStop()) {
@@ -533,6 +666,9 @@ public class Searcher implements Search {
                 flag = HashFlag.EXACT;
 
                 sse.bestMove = playedMove;
+                if (pvNode) {
+                    pv.update(ply, move);
+                }
                 if (rootNode) {
                     bestMoveCurrent = move;
                     bestScoreCurrent = score;
@@ -553,23 +689,27 @@ public class Searcher implements Search {
         }
 
         if (bestScore >= beta) {
-            final PlayedMove best = sse.bestMove;
+            final int best = sse.bestMove;
             final int historyDepth = depth
                     + (staticEval <= alpha ? 1 : 0)
                     + (bestScore > beta + 50 ? 1 : 0);
             history.updateHistory(best, board.isWhite(), historyDepth, ply, ss);
         }
 
+        // When root moves are excluded, the root score is not the true score of the position, so don't learn from it.
+        final boolean partialRoot = rootNode && excludedRootMoveCount > 0;
+
         if (!inCheck
+            && !partialRoot
             && Score.isDefinedScore(bestScore)
-            && (bestMove == null || board.isQuiet(bestMove))
+            && (bestMove == Move.NONE || board.isQuiet(bestMove))
             && !(flag == HashFlag.LOWER && uncorrectedStaticEval >= bestScore)
             && !(flag == HashFlag.UPPER && uncorrectedStaticEval <= bestScore)) {
             history.updateCorrectionHistory(board, ss, ply, depth, bestScore, uncorrectedStaticEval);
         }
 
         // Store the best move and score in the transposition table for future reference.
-        if (!shouldStop()) {
+        if (!shouldStop() && !partialRoot) {
             tt.put(board.key(), flag, depth, ply, bestMove, rawStaticEval, bestScore);
         }
 
@@ -586,6 +726,8 @@ public class Searcher implements Search {
      */
     int quiescenceSearch(int alpha, int beta, int ply) {
 
+        pv.clear(ply);
+
         if (shouldStop()) {
             return alpha;
         }
@@ -609,8 +751,8 @@ public class Searcher implements Search {
                 && isWithinBounds(ttEntry, alpha, beta)) {
             return ttEntry.score();
         }
-        Move ttMove = null;
-        if (ttHit && ttEntry.move() != null) {
+        int ttMove = Move.NONE;
+        if (ttHit && ttEntry.move() != Move.NONE) {
             ttMove = ttEntry.move();
         }
 
@@ -633,10 +775,10 @@ public class Searcher implements Search {
             rawStaticEval = ttHit ? ttEntry.staticEval() : eval.evaluate();
 
             if (!ttHit) {
-                tt.put(board.key(), HashFlag.NONE, 0, 0, null, rawStaticEval, 0);
+                tt.put(board.key(), HashFlag.NONE, 0, 0, Move.NONE, rawStaticEval, 0);
             }
 
-            staticEval = ttMove != null ?
+            staticEval = ttMove != Move.NONE ?
                     rawStaticEval :
                     history.correctEvaluation(board, ss, ply, rawStaticEval);
             if (ttHit &&
@@ -655,30 +797,31 @@ public class Searcher implements Search {
             filter = MoveFilter.CAPTURES_ONLY;
         }
 
-        final QuiescentMovePicker movePicker = new QuiescentMovePicker(config, movegen, ss, history, board, ply, ttMove, inCheck);
+        final QuiescentMovePicker movePicker = ss.get(ply).quiescentMovePicker;
+        movePicker.reset(board, ply, ttMove, inCheck);
         movePicker.setFilter(filter);
 
         int movesSearched = 0;
 
-        Move bestMove = null;
+        int bestMove = Move.NONE;
         int bestScore = alpha;
         final int futilityScore = bestScore + config.qsFpMargin.value;
         int flag = HashFlag.UPPER;
 
         while (true) {
 
-            final ScoredMove scoredMove = movePicker.next();
-            if (scoredMove == null) break;
-            final Move move = scoredMove.move();
+            final long scoredMove = movePicker.next();
+            if (scoredMove == ScoredMove.NONE) break;
+            final int move = ScoredMove.move(scoredMove);
             movesSearched++;
 
             // Delta Pruning - https://www.chessprogramming.org/Delta_Pruning
             // If the captured piece + a margin still has no potential of raising alpha, let's assume this position
             // is bad for us no matter what we do, and not bother searching any further
-            final Piece captured = scoredMove.captured();
+            final int captured = ScoredMove.captured(scoredMove);
             if (!inCheck
-                    && captured != null
-                    && !move.isPromotion()
+                    && captured != Piece.NONE
+                    && !Move.isPromotion(move)
                     && (staticEval + SEE.value(captured) + config.dpMargin.value < alpha)) {
                 continue;
             }
@@ -686,7 +829,7 @@ public class Searcher implements Search {
             // Futility Pruning
             // The same heuristic as used in the main search, but applied to the quiescence. Skip captures that don't
             // win material when the static eval plus some margin is sufficiently below alpha.
-            if (captured != null
+            if (captured != Piece.NONE
                 && futilityScore <= alpha
                 && !SEE.see(board, move, 1)) {
                 continue;
@@ -701,7 +844,7 @@ public class Searcher implements Search {
 
             eval.makeMove(board, move);
             if (!board.makeMove(move)) continue;
-            td.nodes++;
+            td.incrementNodes();
             final int score = -quiescenceSearch(-beta, -alpha, ply + 1);
             eval.unmakeMove();
             board.unmakeMove();
@@ -713,6 +856,9 @@ public class Searcher implements Search {
                 flag = HashFlag.EXACT;
                 bestMove = move;
                 alpha = score;
+                if (pvNode) {
+                    pv.update(ply, move);
+                }
                 if (score >= beta) {
                     flag = HashFlag.LOWER;
                     break;
@@ -748,10 +894,81 @@ public class Searcher implements Search {
         // do nothing as this implementation is single-threaded
     }
 
+    @Override
+    public void setSharedHistory(boolean sharedHistory) {
+        // do nothing as this implementation is single-threaded
+    }
+
+    @Override
+    public List<Board> setPonderPositions(List<Board> positions) {
+        // do nothing as this implementation is single-threaded
+        return List.of();
+    }
+
+    @Override
+    public void ponderHit() {
+        // do nothing as this implementation is single-threaded
+    }
+
+    /**
+     * Sets the thread data of all the threads searching alongside this one, including this thread itself, along with the
+     * flags used to stop them once the main thread finishes or the ponder move is played, and the table of positions
+     * they are currently searching.
+     */
+    void setThreads(List<ThreadData> threads, AtomicBoolean stopped, AtomicBoolean ponderStopped, SearchingTable searching) {
+        this.threads = threads;
+        this.threadIndex = threads.indexOf(td);
+        this.stopped = stopped;
+        this.ponderStopped = ponderStopped;
+        this.searching = threads.size() > 1 ? searching : null;
+    }
+
+    private void stopHelpers() {
+        if (td.isMainThread() && threads.size() > 1) {
+            // Once the main thread has finished, there is no point in the helper threads searching any further.
+            stopped.set(true);
+        }
+    }
+
+    /**
+     * Lazy SMP depth skipping: each helper thread skips some of the iterations of iterative deepening, following its own
+     * schedule, so that at any time the threads are spread across several depths rather than all duplicating the same
+     * work at the same depth. The main thread never skips.
+     */
+    private boolean skipDepth(int depth) {
+        if (threadIndex == 0) {
+            return false;
+        }
+        final int i = (threadIndex - 1) % SKIP_SIZE.length;
+        return ((depth + SKIP_PHASE[i]) / SKIP_SIZE[i]) % 2 != 0;
+    }
+
+    private long totalNodes() {
+        long nodes = 0;
+        for (ThreadData thread : threads) {
+            if (!thread.speculative) {
+                nodes += thread.nodes();
+            }
+        }
+        return nodes;
+    }
+
     private boolean shouldStop() {
         // Exit if global search is cancelled
-        if (config.searchCancelled) return true;
-        return !config.pondering && tc != null && tc.isHardLimitReached(td.depth, td.nodes);
+        if (config.searchCancelled || stopped.get()) return true;
+        // Threads searching a speculative ponder reply stop as soon as the predicted reply is played
+        if (td.speculative && ponderStopped.get()) return true;
+        // The hard time limit is signalled by the timer thread, so the hot path only reads a volatile flag
+        return !config.pondering && tc != null && (timer.isHardLimitReached() || tc.isHardLimitReached(td.depth, td.nodes()));
+    }
+
+    private boolean isExcludedRootMove(int move) {
+        for (int i = 0; i < excludedRootMoveCount; i++) {
+            if (excludedRootMoves[i] == move) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private boolean shouldStopSoft() {
@@ -759,12 +976,13 @@ public class Searcher implements Search {
             return false;
         final int bestMoveStability = history.getBestMoveStability();
         final int scoreStability = history.getBestScoreStability();
-        final int bestMoveNodes = td.getNodes(bestMoveCurrent);
-        return tc.isSoftLimitReached(td.depth, td.nodes, bestMoveNodes, bestMoveStability, scoreStability);
+        final long bestMoveNodes = td.getNodes(bestMoveCurrent);
+        return tc.isSoftLimitReached(td.depth, td.nodes(), bestMoveNodes, bestMoveStability, scoreStability);
     }
 
     private boolean isDraw() {
-        return Score.isEffectiveDraw(board);
+        // Drawn king and pawn endings are recognised straight from the bitbase, rather than searched out.
+        return Score.isEffectiveDraw(board) || KPKBitbase.isDraw(board);
     }
 
     /**
@@ -785,13 +1003,13 @@ public class Searcher implements Search {
         return lastEval < staticEval;
     }
 
-    private SearchResult handleOnlyOneLegalMove(List<Move> rootMoves) {
+    private SearchResult handleOnlyOneLegalMove(int move) {
         // If there is only one legal move, play it immediately
-        final Move move = rootMoves.get(0);
         final int eval = this.eval.evaluate();
-        SearchResult result = SearchResult.of(move, eval, td, tc);
+        SearchResult result = SearchResult.of(Move.of(move), new int[] { move }, eval, td, tc);
         if (td.isMainThread())
             UCI.writeSearchInfo(result);
+        stopHelpers();
         return result;
     }
 
@@ -814,6 +1032,13 @@ public class Searcher implements Search {
     @Override
     public void clearHistory() {
         tt.clear();
+        clearSearchHistory();
+    }
+
+    /**
+     * Clears the state owned by this searcher, leaving the (possibly shared) transposition table untouched.
+     */
+    void clearSearchHistory() {
         eval.clearHistory();
         history.clear();
     }
@@ -0,0 +1,70 @@
+package com.kelseyde.calvin.search;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * A small table of the positions that the search threads are currently searching, shared by all threads, used to
+ * implement a simplified form of ABDADA. When a thread reaches a late move whose resulting position is already being
+ * searched by another thread at the same depth, it defers that move to the end of its move loop, by which point the
+ * other thread has probably finished and stored the result in the transposition table.
+ * </p>
+ * Each slot holds a single packed (zobrist, depth) pair, and is read and written without locking. Races between threads
+ * can only cause a position to be missed or a slot to be claimed twice, which costs a little duplicated work but never
+ * affects the correctness of the search.
+ *
+ * @see <a href="https://www.chessprogramming.org/ABDADA">Chess Programming Wiki</a>
+ */
+public class SearchingTable {
+
+    private static final VarHandle ENTRIES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final int SIZE = 1 << 15;
+    private static final int MASK = SIZE - 1;
+    private static final long DEPTH_MASK = 0xFF;
+
+    private final long[] entries = new long[SIZE];
+
+    /**
+     * Marks the position as being searched at the given depth, unless the slot is already taken.
+     *
+     * @return true if the slot was claimed, in which case the caller must call {@link #leave} once it has finished.
+     */
+    public boolean enter(long key, int depth) {
+        final int index = index(key);
+        if ((long) ENTRIES.getOpaque(entries, index) != 0) {
+            return false;
+        }
+        ENTRIES.setOpaque(entries, index, entry(key, depth));
+        return true;
+    }
+
+    public void leave(long key, int depth) {
+        final int index = index(key);
+        if ((long) ENTRIES.getOpaque(entries, index) == entry(key, depth)) {
+            ENTRIES.setOpaque(entries, index, 0L);
+        }
+    }
+
+    /**
+     * @return true if some thread is currently searching the position at the given depth.
+     */
+    public boolean isSearching(long key, int depth) {
+        return (long) ENTRIES.getOpaque(entries, index(key)) == entry(key, depth);
+    }
+
+    public void clear() {
+        Arrays.fill(entries, 0L);
+    }
+
+    private int index(long key) {
+        return (int) (key >>> 32) & MASK;
+    }
+
+    private long entry(long key, int depth) {
+        // Zero marks an empty slot, so make sure an occupied slot can never be zero.
+        return ((key & ~DEPTH_MASK) | (depth & DEPTH_MASK)) | 1L << 8;
+    }
+
+}
@@ -3,29 +3,68 @@ package com.kelseyde.calvin.search;
 import com.kelseyde.calvin.board.Bits.Square;
 import com.kelseyde.calvin.board.Move;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
 public class ThreadData {
 
+    private static final VarHandle NODES;
+
+    static {
+        try {
+            NODES = MethodHandles.lookup().findVarHandle(ThreadData.class, "nodes", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     public final boolean mainThread;
-    public int nodes;
-    public int[][] nodesPerMove;
+    public long[][] nodesPerMove;
     public int depth;
     public int seldepth;
+    // The last depth for which this thread completed an iteration, or zero if it has not completed any yet.
+    public int completedDepth;
+    // Whether this thread is speculatively searching a different reply to the position being pondered, in which case
+    // its nodes are not reported as part of the search.
+    public boolean speculative;
+
+    // The node counter is written by its own search thread on every node, and read by the main thread while reporting
+    // search info. It is padded on either side so that it sits on its own cache line, and is written with opaque
+    // (rather than volatile) semantics, so that other threads see a recent value without slowing down the search.
+    @SuppressWarnings("unused")
+    private long p1, p2, p3, p4, p5, p6, p7;
+    private long nodes;
+    @SuppressWarnings("unused")
+    private long q1, q2, q3, q4, q5, q6, q7;
 
     public ThreadData(boolean mainThread) {
         this.mainThread = mainThread;
         this.nodes = 0;
-        this.nodesPerMove = new int[Square.COUNT][Square.COUNT];
+        this.nodesPerMove = new long[Square.COUNT][Square.COUNT];
         this.depth = 1;
         this.seldepth = 0;
+        this.completedDepth = 0;
     }
 
-    public void addNodes(Move move, int nodes) {
-        nodesPerMove[move.from()][move.to()] += nodes;
+    public void incrementNodes() {
+        NODES.setOpaque(this, nodes + 1);
     }
 
-    public int getNodes(Move move) {
-        if (move == null) return 0;
-        return nodesPerMove[move.from()][move.to()];
+    /**
+     * @return the number of nodes searched by this thread. Safe to call from any thread.
+     */
+    public long nodes() {
+        return (long) NODES.getOpaque(this);
+    }
+
+    public void addNodes(int move, long nodes) {
+        nodesPerMove[Move.from(move)][Move.to(move)] += nodes;
+    }
+
+    public long getNodes(int move) {
+        if (move == Move.NONE) return 0;
+        return nodesPerMove[Move.from(move)][Move.to(move)];
     }
 
     public boolean isMainThread() {
@@ -33,9 +72,12 @@ public class ThreadData {
     }
 
     public void reset() {
-        this.nodes = 0;
-        this.nodesPerMove = new int[Square.COUNT][Square.COUNT];
+        NODES.setOpaque(this, 0L);
+        for (long[] from : nodesPerMove) {
+            Arrays.fill(from, 0L);
+        }
         this.depth = 1;
+        this.completedDepth = 0;
     }
 
 }
@@ -6,6 +6,7 @@ import com.kelseyde.calvin.uci.UCICommand.GoCommand;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The amount of time the engine chooses to search is split into to two limits: hard and soft. The hard limit is checked
@@ -15,8 +16,17 @@ import java.time.Instant;
  * The idea is that if the engine is unlikely to finish a new iteration before hitting the hard limit, then there's no
  * point starting the iteration, since the time spent doing so is mostly wasted. That time can therefore be saved for
  * subsequent moves.
+ * </p>
+ * Elapsed time is measured with {@link System#nanoTime()} against a start time captured once, so that checking the
+ * limits never allocates. The hard time limit itself is enforced by a {@link SearchTimer}, which fires at
+ * {@link #hardDeadlineNanos()}, rather than by the search threads reading the clock.
  */
-public record TimeControl(EngineConfig config, Instant start, Duration softTime, Duration hardTime, int softNodes, int hardNodes, int maxDepth) {
+public record TimeControl(EngineConfig config, Instant start, long startNanos, Duration softTime, Duration hardTime,
+                          long softNodes, long hardNodes, int maxDepth) {
+
+    public TimeControl(EngineConfig config, Instant start, Duration softTime, Duration hardTime, long softNodes, long hardNodes, int maxDepth) {
+        this(config, start, toNanoTime(start), softTime, hardTime, softNodes, hardNodes, maxDepth);
+    }
 
     public static TimeControl init(EngineConfig config, Board board, Instant start, GoCommand command) {
 
@@ -55,25 +65,36 @@ public record TimeControl(EngineConfig config, Instant start, Duration softTime,
 
     }
 
-    public boolean isHardLimitReached(int depth, int nodes) {
+    /**
+     * Checks the node and depth limits. The hard time limit is not checked here, see {@link SearchTimer}.
+     */
+    public boolean isHardLimitReached(int depth, long nodes) {
         if (nodes % 4096 != 0) return false;
         if (hardNodes > 0 && nodes >= hardNodes) return true;
-        if (maxDepth > 0 && depth >= maxDepth) return true;
-        final Duration expired = Duration.between(start, Instant.now());
-        final Duration overhead = Duration.ofMillis(config.uciOverhead.value);
-        return expired.compareTo(hardTime.minus(overhead)) > 0;
+        return maxDepth > 0 && depth >= maxDepth;
     }
 
-    public boolean isSoftLimitReached(int depth, int nodes, int bestMoveNodes, int bestMoveStability, int evalStability) {
+    public boolean isSoftLimitReached(int depth, long nodes, long bestMoveNodes, int bestMoveStability, int evalStability) {
         if (maxDepth > 0 && depth >= maxDepth) return true;
         if (softNodes > 0 && nodes >= softNodes) return true;
-        final Duration expired = Duration.between(start, Instant.now());
-        final Duration adjustedSoftLimit = adjustSoftLimit(softTime, nodes, bestMoveNodes, bestMoveStability, evalStability, depth);
-        return expired.compareTo(adjustedSoftLimit) > 0;
+        final long adjustedSoftLimit = adjustSoftLimit(softTime, nodes, bestMoveNodes, bestMoveStability, evalStability, depth);
+        return elapsedMillis() > adjustedSoftLimit;
     }
 
-    private Duration adjustSoftLimit(
-            Duration softLimit, int nodes, int bestMoveNodes, int bestMoveStability, int scoreStability, int depth) {
+    /**
+     * The {@link System#nanoTime()} at which the hard time limit, less the UCI overhead, is reached.
+     */
+    public long hardDeadlineNanos() {
+        final long hardLimitMillis = hardTime.toMillis() - config.uciOverhead.value;
+        return startNanos + TimeUnit.MILLISECONDS.toNanos(hardLimitMillis);
+    }
+
+    public long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private long adjustSoftLimit(
+            Duration softLimit, long nodes, long bestMoveNodes, int bestMoveStability, int scoreStability, int depth) {
 
         int overhead = config.uciOverhead.value;
         long hardLimit = hardTime.toMillis() - overhead;
@@ -88,9 +109,7 @@ public record TimeControl(EngineConfig config, Instant start, Duration softTime,
         scale = clampScale(scale);
 
         // Clamp the scaled limit to the hard limit
-        long limit = (long) Math.min(softLimit.toMillis() * scale, hardLimit);
-
-        return Duration.ofMillis(limit);
+        return (long) Math.min(softLimit.toMillis() * scale, hardLimit);
 
     }
 
@@ -117,7 +136,7 @@ public record TimeControl(EngineConfig config, Instant start, Duration softTime,
     // Scale the soft limit based on the fraction of total nodes spent searching the best move. If a greater portion
     // of the search has been spent on the best move, we can assume that the best move is more likely to be correct,
     // and therefore we can spend less time searching further.
-    private double nodeTmFactor(EngineConfig config, int depth, int bestMoveNodes, int nodes) {
+    private double nodeTmFactor(EngineConfig config, int depth, long bestMoveNodes, long nodes) {
         if (depth < config.nodeTmMinDepth.value) {
             return 1.0;
         }
@@ -127,6 +146,12 @@ public record TimeControl(EngineConfig config, Instant start, Duration softTime,
         return (nodeTmBase - bestMoveNodeFraction) * nodeTmScale;
     }
 
+    // Translates a wall-clock start time (such as the moment the 'go' command was received) onto the monotonic clock.
+    private static long toNanoTime(Instant start) {
+        final long now = System.nanoTime();
+        return start != null ? now - Duration.between(start, Instant.now()).toNanos() : now;
+    }
+
     private double clampScale(double scale) {
         double scaleMin = config.softTimeScaleMin.value / 100.0;
         double scaleMax = config.softTimeScaleMax.value / 100.0;
@@ -0,0 +1,18 @@
+package com.kelseyde.calvin.search.picker;
+
+import com.kelseyde.calvin.movegen.MoveGenerator;
+
+/**
+ * The move buffers used by a {@link MovePicker}. A ply of the search stack runs either the main search or quiescence
+ * search, never both at once, so the two pickers at each ply can share a single set of buffers.
+ */
+public class MoveBuffers {
+
+    final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+    // The scored moves for each stage, packed as longs (see ScoredMove).
+    final long[] goodNoisies = new long[MoveGenerator.MAX_MOVES];
+    final long[] badNoisies = new long[MoveGenerator.MAX_MOVES];
+    final long[] quiets = new long[MoveGenerator.MAX_MOVES];
+
+}
@@ -9,8 +9,6 @@ import com.kelseyde.calvin.movegen.MoveGenerator.MoveFilter;
 import com.kelseyde.calvin.search.SearchHistory;
 import com.kelseyde.calvin.search.SearchStack;
 
-import java.util.List;
-
 /**
  * Selects the next move to try in a given position. Moves are selected in stages. First, the 'best' move from the
  * transposition table is tried before any moves are generated. Then, the noisy moves are generated and separated into
@@ -42,37 +40,80 @@ public class MovePicker {
     final MoveScorer scorer;
     final SearchHistory history;
 
-    final Move ttMove;
-    final Board board;
-    final int ply;
+    int ttMove;
+    Board board;
+    int ply;
 
     Stage stage;
     boolean skipQuiets;
-    final boolean inCheck;
+    boolean inCheck;
 
     int moveIndex;
     int killerIndex;
 
-    ScoredMove[] goodNoisies;
-    ScoredMove[] badNoisies;
-    ScoredMove[] quiets;
+    final int[] moves;
+
+    // The scored moves for each stage, packed as longs (see ScoredMove), with the number of moves in each buffer.
+    final long[] goodNoisies;
+    final long[] badNoisies;
+    final long[] quiets;
+    int goodNoisyCount;
+    int badNoisyCount;
+    int quietCount;
+
+    /**
+     * Creates a move picker which is re-used for every node searched at a given ply, by calling {@link #reset}.
+     */
+    public MovePicker(EngineConfig config, MoveGenerator movegen, SearchStack ss, SearchHistory history) {
+        this(config, movegen, ss, history, new MoveBuffers());
+    }
 
+    /**
+     * Creates a move picker which uses the given move buffers, which may be shared with another picker that is never
+     * in use at the same time.
+     */
     public MovePicker(EngineConfig config, MoveGenerator movegen, SearchStack ss, SearchHistory history,
-                      Board board, int ply, Move ttMove, boolean inCheck) {
+                      MoveBuffers buffers) {
         this.movegen = movegen;
         this.scorer = new MoveScorer(config, history, ss);
         this.history = history;
+        this.moves = buffers.moves;
+        this.goodNoisies = buffers.goodNoisies;
+        this.badNoisies = buffers.badNoisies;
+        this.quiets = buffers.quiets;
+    }
+
+    public MovePicker(EngineConfig config, MoveGenerator movegen, SearchStack ss, SearchHistory history,
+                      Board board, int ply, int ttMove, boolean inCheck) {
+        this(config, movegen, ss, history);
+        reset(board, ply, ttMove, inCheck);
+    }
+
+    /**
+     * Prepares the picker to select moves in a new position, re-using the existing move buffers.
+     */
+    public void reset(Board board, int ply, int ttMove, boolean inCheck) {
         this.board = board;
         this.ply = ply;
         this.ttMove = ttMove;
         this.inCheck = inCheck;
-        this.stage = ttMove != null ? Stage.TT_MOVE : Stage.GEN_NOISY;
+        this.stage = ttMove != Move.NONE ? Stage.TT_MOVE : Stage.GEN_NOISY;
+        this.skipQuiets = false;
+        this.moveIndex = 0;
+        this.killerIndex = 0;
+        this.goodNoisyCount = 0;
+        this.badNoisyCount = 0;
+        this.quietCount = 0;
     }
 
-    public ScoredMove next() {
+    /**
+     * @return the next move to try, packed with its ordering information (see {@link ScoredMove}), or
+     * {@link ScoredMove#NONE} if there are no moves left.
+     */
+    public long next() {
 
-        ScoredMove nextMove = null;
-        while (nextMove == null) {
+        long nextMove = ScoredMove.NONE;
+        while (nextMove == ScoredMove.NONE) {
             nextMove = switch (stage) {
                 case TT_MOVE ->     pickTTMove(Stage.GEN_NOISY);
                 case GEN_NOISY ->   generate(MoveFilter.NOISY, Stage.GOOD_NOISY);
@@ -81,7 +122,7 @@ public class MovePicker {
                 case GEN_QUIET ->   generate(MoveFilter.QUIET, Stage.QUIET);
                 case QUIET ->       pickMove(Stage.BAD_NOISY);
                 case BAD_NOISY ->   pickMove(Stage.END);
-                case END, QSEARCH_GEN_NOISY, QSEARCH_NOISY -> null;
+                case END, QSEARCH_GEN_NOISY, QSEARCH_NOISY -> ScoredMove.NONE;
             };
             if (stage == Stage.END) break;
         }
@@ -93,26 +134,21 @@ public class MovePicker {
      * Select the next move from the move list.
      * @param nextStage the next stage to move on to, if we have tried all moves in the current stage.
      */
-    protected ScoredMove pickMove(Stage nextStage) {
-
-        final ScoredMove[] moves = switch (stage) {
-            case GOOD_NOISY, QSEARCH_NOISY -> goodNoisies;
-            case BAD_NOISY -> badNoisies;
-            case QUIET -> quiets;
-            default -> throw new IllegalArgumentException("Invalid stage: " + stage);
-        };
+    protected long pickMove(Stage nextStage) {
 
         // If we're in check then all evasions have been tried in the noisy stage
         if (stage == Stage.QUIET && (skipQuiets || inCheck)) {
             return nextStage(nextStage);
         }
-        if (moveIndex >= moves.length) {
-            return nextStage(nextStage);
-        }
 
-        ScoredMove move = pick(moves);
+        final long move = switch (stage) {
+            case GOOD_NOISY, QSEARCH_NOISY -> pick(goodNoisies, goodNoisyCount);
+            case BAD_NOISY -> pick(badNoisies, badNoisyCount);
+            case QUIET -> pick(quiets, quietCount);
+            default -> throw new IllegalArgumentException("Invalid stage: " + stage);
+        };
 
-        if (move == null) {
+        if (move == ScoredMove.NONE) {
             return nextStage(nextStage);
         }
 
@@ -121,17 +157,17 @@ public class MovePicker {
 
     }
 
-    protected ScoredMove pickKiller(Stage nextStage) {
+    protected long pickKiller(Stage nextStage) {
 
-        Move[] killers = history.getKillerTable().getKillers(ply);
+        int[] killers = history.getKillerTable().getKillers(ply);
         if (killerIndex >= killers.length) {
             return nextStage(nextStage);
         }
 
-        Move killer = killers[killerIndex++];
+        int killer = killers[killerIndex++];
 
         // Skip the killer if it's also the TT move - it will be tried first
-        if (killer == null || killer.equals(ttMove)) {
+        if (killer == Move.NONE || killer == ttMove) {
             return pickKiller(nextStage);
         }
 
@@ -140,98 +176,109 @@ public class MovePicker {
             return pickKiller(nextStage);
         }
 
-        return scorer.score(board, killer, ply, stage);
+        final long scoredMove = scorer.score(board, killer, ply, stage);
+        if (scorer.isPendingCapture(scoredMove) && !scorer.isGoodCapture(board, scoredMove)) {
+            return ScoredMove.withType(scoredMove, MoveType.BAD_NOISY);
+        }
+        return scoredMove;
     }
 
-    protected ScoredMove pickTTMove(Stage nextStage) {
+    protected long pickTTMove(Stage nextStage) {
         stage = nextStage;
-        final Piece piece = board.pieceAt(ttMove.from());
-        final Piece captured = ttMove.isEnPassant() ? Piece.PAWN : board.pieceAt(ttMove.to());
-        return new ScoredMove(ttMove, piece, captured, 0, 0, MoveType.TT_MOVE);
+        final int piece = board.pieceIndexAt(Move.from(ttMove));
+        final int captured = Move.isEnPassant(ttMove) ? Piece.PAWN_INDEX : board.pieceIndexAt(Move.to(ttMove));
+        return ScoredMove.of(ttMove, piece, captured, 0, 0, MoveType.TT_MOVE);
     }
 
-    protected ScoredMove generate(MoveFilter filter, Stage nextStage) {
-        List<Move> stagedMoves = movegen.generateMoves(board, filter);
+    protected long generate(MoveFilter filter, Stage nextStage) {
+        // Moves are generated pseudo-legally, and only checked for legality once they are picked.
+        final int count = movegen.generatePseudoLegalMoves(board, filter, moves);
 
         if (stage == Stage.GEN_NOISY) {
             // In noisy movegen we separate the moves into 'good' and 'bad' noisies
-            int goodIndex = 0;
-            int badIndex = 0;
-            goodNoisies = new ScoredMove[stagedMoves.size()];
-            badNoisies = new ScoredMove[stagedMoves.size()];
-            for (Move move : stagedMoves) {
-                ScoredMove scoredMove = scorer.score(board, move, ply, stage);
-                if (scoredMove.moveType() == MoveType.GOOD_NOISY) {
-                    goodNoisies[goodIndex++] = scoredMove;
+            goodNoisyCount = 0;
+            badNoisyCount = 0;
+            for (int i = 0; i < count; i++) {
+                final long scoredMove = scorer.score(board, moves[i], ply, stage);
+                if (ScoredMove.isGoodNoisy(scoredMove)) {
+                    goodNoisies[goodNoisyCount++] = scoredMove;
                 } else {
-                    badNoisies[badIndex++] = scoredMove;
+                    badNoisies[badNoisyCount++] = scoredMove;
                 }
             }
         }
         else if (stage == Stage.GEN_QUIET) {
             // In quiet movegen everything is treated as a 'quiet' move
-            int quietIndex = 0;
-            quiets = new ScoredMove[stagedMoves.size()];
-            for (Move move : stagedMoves) {
-                ScoredMove scoredMove = scorer.score(board, move, ply, stage);
-                quiets[quietIndex++] = scoredMove;
+            quietCount = 0;
+            for (int i = 0; i < count; i++) {
+                quiets[quietCount++] = scorer.score(board, moves[i], ply, stage);
             }
         }
         else if (stage == Stage.QSEARCH_GEN_NOISY) {
             // In quiescent movegen all moves are treated as 'good noisies'
-            goodNoisies = new ScoredMove[stagedMoves.size()];
-            int goodIndex = 0;
-            for (Move move : stagedMoves) {
-                ScoredMove scoredMove = scorer.score(board, move, ply, stage);
-                // In q-search, only consider good noisies
+            goodNoisyCount = 0;
+            for (int i = 0; i < count; i++) {
+                final long scoredMove = scorer.score(board, moves[i], ply, stage);
+                // In q-search, only consider good noisies (captures are checked with SEE when picked)
                 // unless we are in check, in which case consider all moves.
-                if (scoredMove.isGoodNoisy() || inCheck) {
-                    goodNoisies[goodIndex++] = scoredMove;
+                if (ScoredMove.isGoodNoisy(scoredMove) || inCheck) {
+                    goodNoisies[goodNoisyCount++] = scoredMove;
                 }
             }
         }
 
         moveIndex = 0;
         stage = nextStage;
-        return null;
+        return ScoredMove.NONE;
     }
 
     /**
      * Select the move with the highest score and move it to the head of the move list.
      */
-    protected ScoredMove pick(ScoredMove[] moves) {
-        if (moveIndex >= moves.length) {
-            return null;
-        }
-        ScoredMove best = moves[moveIndex];
-        if (best == null) {
-            return null;
-        }
-        int bestScore = best.score();
-        int bestIndex = moveIndex;
-        for (int j = moveIndex + 1; j < moves.length; j++) {
-            ScoredMove current = moves[j];
-            if (current == null) {
-                break;
+    protected long pick(long[] moves, int count) {
+        while (moveIndex < count) {
+            int bestScore = ScoredMove.score(moves[moveIndex]);
+            int bestIndex = moveIndex;
+            for (int j = moveIndex + 1; j < count; j++) {
+                final int score = ScoredMove.score(moves[j]);
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestIndex = j;
+                }
             }
-            if (current.score() > bestScore) {
-                bestScore = current.score();
-                bestIndex = j;
+            if (bestIndex != moveIndex) {
+                swap(moves, moveIndex, bestIndex);
             }
+            final long scoredMove = moves[moveIndex];
+            final int move = ScoredMove.move(scoredMove);
+            if (isSpecial(move) || movegen.leavesKingInCheck(board, move)) {
+                moveIndex++;
+                continue;
+            }
+            if (needsSee(scoredMove) && !scorer.isGoodCapture(board, scoredMove)) {
+                // Captures that fail SEE are deferred to the bad noisies, or dropped entirely in quiescence search.
+                if (stage == Stage.GOOD_NOISY) {
+                    badNoisies[badNoisyCount++] = ScoredMove.withType(scoredMove, MoveType.BAD_NOISY);
+                }
+                moveIndex++;
+                continue;
+            }
+            return scoredMove;
         }
-        if (bestIndex != moveIndex) {
-            swap(moves, moveIndex, bestIndex);
-        }
-        ScoredMove scoredMove = moves[moveIndex];
-        if (scoredMove == null || isSpecial(scoredMove.move())) {
-            moveIndex++;
-            return pick(moves);
-        }
-        return scoredMove;
+        return ScoredMove.NONE;
+    }
+
+    /**
+     * Captures are only checked with SEE once they are about to be tried. In quiescence search every evasion is tried
+     * when in check, so no SEE check is needed.
+     */
+    private boolean needsSee(long scoredMove) {
+        return (stage == Stage.GOOD_NOISY || (stage == Stage.QSEARCH_NOISY && !inCheck))
+                && scorer.isPendingCapture(scoredMove);
     }
 
-    protected void swap(ScoredMove[] moves, int i, int j) {
-        ScoredMove temp = moves[i];
+    protected void swap(long[] moves, int i, int j) {
+        long temp = moves[i];
         moves[i] = moves[j];
         moves[j] = temp;
     }
@@ -240,22 +287,22 @@ public class MovePicker {
         this.skipQuiets = skipQuiets;
     }
 
-    private boolean isSpecial(Move move) {
-        if (move.equals(ttMove)) {
+    private boolean isSpecial(int move) {
+        if (move == ttMove) {
             return true;
         }
-        for (Move killer : history.getKillerTable().getKillers(ply)) {
-            if (move.equals(killer)) {
+        for (int killer : history.getKillerTable().getKillers(ply)) {
+            if (move == killer) {
                 return true;
             }
         }
         return false;
     }
 
-    private ScoredMove nextStage(Stage nextStage) {
+    private long nextStage(Stage nextStage) {
         moveIndex = 0;
         stage = nextStage;
-        return null;
+        return ScoredMove.NONE;
     }
 
 }
@@ -6,6 +6,7 @@ import com.kelseyde.calvin.board.Piece;
 import com.kelseyde.calvin.engine.EngineConfig;
 import com.kelseyde.calvin.search.SEE;
 import com.kelseyde.calvin.search.SearchHistory;
+import com.kelseyde.calvin.search.SearchHistory.PlayedMove;
 import com.kelseyde.calvin.search.SearchStack;
 import com.kelseyde.calvin.search.SearchStack.SearchStackEntry;
 import com.kelseyde.calvin.search.picker.MovePicker.Stage;
@@ -27,13 +28,13 @@ public class MoveScorer {
         this.ss = ss;
     }
 
-    public ScoredMove score(Board board, Move move, int ply, Stage stage) {
+    public long score(Board board, int move, int ply, Stage stage) {
 
-        final Piece piece = board.pieceAt(move.from());
-        final Piece captured = move.isEnPassant() ? Piece.PAWN : board.pieceAt(move.to());
+        final int piece = board.pieceIndexAt(Move.from(move));
+        final int captured = Move.isEnPassant(move) ? Piece.PAWN_INDEX : board.pieceIndexAt(Move.to(move));
 
-        final boolean capture = captured != null;
-        final boolean promotion = move.isPromotion();
+        final boolean capture = captured != Piece.NONE;
+        final boolean promotion = Move.isPromotion(move);
         final boolean quietCheck = stage == Stage.GEN_NOISY && !promotion && !capture;
 
         // Noisy moves are captures, promotions, and quiet checks (meaning checks that are not captures or promotions).
@@ -45,18 +46,18 @@ public class MoveScorer {
 
     }
 
-    private ScoredMove scoreNoisy(Board board, Move move, Piece piece, Piece captured, boolean quietCheck, int ply) {
+    private long scoreNoisy(Board board, int move, int piece, int captured, boolean quietCheck, int ply) {
 
         final boolean white = board.isWhite();
 
         int score = 0;
 
-        boolean promotion = move.promoPiece() != null;
-        if (promotion) {
+        final int promoPiece = Move.promoPieceIndex(move);
+        if (promoPiece != Piece.NONE) {
             // Queen promos are treated as 'good noisies', under promotions as 'bad noisies'
-            final MoveType type = move.promoPiece() == Piece.QUEEN ? MoveType.GOOD_NOISY : MoveType.BAD_NOISY;
-            score += SEE.value(move.promoPiece()) - SEE.value(Piece.PAWN);
-            return new ScoredMove(move, piece, captured, score, 0, type);
+            final MoveType type = promoPiece == Piece.QUEEN_INDEX ? MoveType.GOOD_NOISY : MoveType.BAD_NOISY;
+            score += SEE.value(promoPiece) - SEE.value(Piece.PAWN_INDEX);
+            return ScoredMove.of(move, piece, captured, score, 0, type);
         }
 
         if (quietCheck) {
@@ -65,42 +66,57 @@ public class MoveScorer {
             final int historyScore = history.getQuietHistoryTable().get(move, piece, white);
             final int contHistScore = continuationHistoryScore(move, piece, white, ply);
             score = historyScore + contHistScore;
-            return new ScoredMove(move, piece, captured, score, historyScore, type);
+            return ScoredMove.of(move, piece, captured, score, historyScore, type);
         }
 
         score += SEE.value(captured);
 
-        final int historyScore = history.getCaptureHistoryTable().get(piece, move.to(), captured, board.isWhite());
+        final int historyScore = history.getCaptureHistoryTable().get(piece, Move.to(move), captured, board.isWhite());
         score += historyScore / 8;
 
-        final int threshold = -score / 4 + config.seeNoisyOffset.value;
+        // Captures are provisionally treated as 'good noisies'. The SEE check that separates good and bad noisies is
+        // deferred until the capture is about to be picked, since a cutoff often arrives before then (see isGoodCapture).
+        return ScoredMove.of(move, piece, captured, score, historyScore, MoveType.GOOD_NOISY);
+    }
 
-        // Separate good and bad noisies based on the material won or lost once all pieces are swapped off.
-        final MoveType type = SEE.see(board, move, threshold) ? MoveType.GOOD_NOISY : MoveType.BAD_NOISY;
+    /**
+     * Determines whether a capture still needs to be classified as a good or bad noisy by static exchange evaluation.
+     */
+    public boolean isPendingCapture(long scoredMove) {
+        return ScoredMove.isGoodNoisy(scoredMove)
+                && ScoredMove.captured(scoredMove) != Piece.NONE
+                && !Move.isPromotion(ScoredMove.move(scoredMove));
+    }
 
-        return new ScoredMove(move, piece, captured, score, historyScore, type);
+    /**
+     * Separate good and bad captures based on the material won or lost once all pieces are swapped off, with a margin
+     * that depends on the ordering score of the capture.
+     */
+    public boolean isGoodCapture(Board board, long scoredMove) {
+        final int threshold = -ScoredMove.score(scoredMove) / 4 + config.seeNoisyOffset.value;
+        return SEE.see(board, ScoredMove.move(scoredMove), threshold);
     }
 
-    private ScoredMove scoreQuiet(Board board, Move move, Piece piece, int ply) {
+    private long scoreQuiet(Board board, int move, int piece, int ply) {
 
         // Quiet moves are scored using the quiet history and continuation history heuristics.
         final int historyScore = history.getQuietHistoryTable().get(move, piece, board.isWhite());
         final int contHistScore = continuationHistoryScore(move, piece, board.isWhite(), ply);
         final int score = historyScore + contHistScore;
 
-        return new ScoredMove(move, piece, null, score, historyScore, MoveType.QUIET);
+        return ScoredMove.of(move, piece, Piece.NONE, score, historyScore, MoveType.QUIET);
 
     }
 
-    private int continuationHistoryScore(Move move, Piece piece, boolean white, int ply) {
+    private int continuationHistoryScore(int move, int piece, boolean white, int ply) {
 
         // Continuation history is based on the history score indexed by the current move and the move played x plies ago.
         int contHistScore = 0;
         for (int contHistPly : config.contHistPlies) {
             SearchStackEntry entry = ss.get(ply - contHistPly);
-            if (entry != null && entry.currentMove != null) {
-                SearchHistory.PlayedMove prevMove = entry.currentMove;
-                contHistScore += history.getContHistTable().get(prevMove.move(), prevMove.piece(), move, piece, white);
+            if (entry != null && entry.currentMove != PlayedMove.NONE) {
+                final int prevMove = entry.currentMove;
+                contHistScore += history.getContHistTable().get(PlayedMove.move(prevMove), PlayedMove.piece(prevMove), move, piece, white);
             }
         }
         return contHistScore;
@@ -12,23 +12,38 @@ public class QuiescentMovePicker extends MovePicker {
 
     private MoveFilter filter;
 
+    public QuiescentMovePicker(EngineConfig config, MoveGenerator movegen, SearchStack ss, SearchHistory history) {
+        super(config, movegen, ss, history);
+    }
+
+    public QuiescentMovePicker(EngineConfig config, MoveGenerator movegen, SearchStack ss, SearchHistory history,
+                               MoveBuffers buffers) {
+        super(config, movegen, ss, history, buffers);
+    }
+
     public QuiescentMovePicker(
-            EngineConfig config, MoveGenerator movegen, SearchStack ss, SearchHistory history, Board board, int ply, Move ttMove, boolean inCheck) {
-        super(config, movegen, ss, history, board, ply, ttMove, inCheck);
-        this.stage = ttMove != null ? Stage.TT_MOVE : Stage.QSEARCH_GEN_NOISY;
+            EngineConfig config, MoveGenerator movegen, SearchStack ss, SearchHistory history, Board board, int ply, int ttMove, boolean inCheck) {
+        super(config, movegen, ss, history);
+        reset(board, ply, ttMove, inCheck);
+    }
+
+    @Override
+    public void reset(Board board, int ply, int ttMove, boolean inCheck) {
+        super.reset(board, ply, ttMove, inCheck);
+        this.stage = ttMove != Move.NONE ? Stage.TT_MOVE : Stage.QSEARCH_GEN_NOISY;
         this.skipQuiets = true;
     }
 
     @Override
-    public ScoredMove next() {
+    public long next() {
 
-        ScoredMove nextMove = null;
-        while (nextMove == null) {
+        long nextMove = ScoredMove.NONE;
+        while (nextMove == ScoredMove.NONE) {
             nextMove = switch (stage) {
                 case TT_MOVE -> pickTTMove(Stage.QSEARCH_GEN_NOISY);
                 case QSEARCH_GEN_NOISY -> generate(filter, Stage.QSEARCH_NOISY);
                 case QSEARCH_NOISY -> pickMove(Stage.END);
-                case GEN_NOISY, GOOD_NOISY, KILLER, GEN_QUIET, QUIET, BAD_NOISY, END -> null;
+                case GEN_NOISY, GOOD_NOISY, KILLER, GEN_QUIET, QUIET, BAD_NOISY, END -> ScoredMove.NONE;
             };
             if (stage == Stage.END) break;
         }
@@ -1,33 +1,93 @@
 package com.kelseyde.calvin.search.picker;
 
 import com.kelseyde.calvin.board.Move;
-import com.kelseyde.calvin.board.Piece;
 
-public record ScoredMove(Move move,
-                         Piece piece,
-                         Piece captured,
-                         int score,
-                         int historyScore,
-                         MoveType moveType) {
+/**
+ * A move plus the information used to order it, packed into a single long so that the move picker can score and sort
+ * moves without allocating. Reading from the least significant bit, the encoding is:
+ * <ul>
+ *     <li>bits 0-15: the move (see {@link Move} for the encoding)</li>
+ *     <li>bits 16-18: the index of the moving piece</li>
+ *     <li>bits 19-21: the index of the captured piece, plus one (zero meaning no capture)</li>
+ *     <li>bits 22-24: the {@link MoveType}</li>
+ *     <li>bits 25-40: the (signed) history score</li>
+ *     <li>bits 41-63: the (signed) ordering score</li>
+ * </ul>
+ * The score occupies the most significant bits, so that the score of an entry can be read with a single shift.
+ */
+public class ScoredMove {
 
-    public boolean isNoisy() {
-        return moveType == MoveType.GOOD_NOISY || moveType == MoveType.BAD_NOISY;
+    public static final long NONE = 0L;
+
+    private static final int PIECE_SHIFT = 16;
+    private static final int CAPTURED_SHIFT = 19;
+    private static final int TYPE_SHIFT = 22;
+    private static final int HISTORY_SHIFT = 25;
+    private static final int SCORE_SHIFT = 41;
+
+    private static final long MOVE_MASK = 0xFFFF;
+    private static final long PIECE_MASK = 0x7;
+    private static final long TYPE_MASK = 0x7;
+    private static final long HISTORY_MASK = 0xFFFF;
+
+    private static final MoveType[] MOVE_TYPES = MoveType.values();
+
+    public static long of(int move, int piece, int captured, int score, int historyScore, MoveType type) {
+        return ((long) score << SCORE_SHIFT)
+                | (((long) historyScore & HISTORY_MASK) << HISTORY_SHIFT)
+                | ((long) type.ordinal() << TYPE_SHIFT)
+                | ((long) (captured + 1) << CAPTURED_SHIFT)
+                | ((long) piece << PIECE_SHIFT)
+                | (move & MOVE_MASK);
+    }
+
+    public static long withType(long scoredMove, MoveType type) {
+        return (scoredMove & ~(TYPE_MASK << TYPE_SHIFT)) | ((long) type.ordinal() << TYPE_SHIFT);
+    }
+
+    public static int move(long scoredMove) {
+        return (int) (scoredMove & MOVE_MASK);
+    }
+
+    public static int piece(long scoredMove) {
+        return (int) ((scoredMove >>> PIECE_SHIFT) & PIECE_MASK);
+    }
+
+    public static int captured(long scoredMove) {
+        return (int) ((scoredMove >>> CAPTURED_SHIFT) & PIECE_MASK) - 1;
+    }
+
+    public static MoveType moveType(long scoredMove) {
+        return MOVE_TYPES[(int) ((scoredMove >>> TYPE_SHIFT) & TYPE_MASK)];
+    }
+
+    public static int historyScore(long scoredMove) {
+        return (short) (scoredMove >>> HISTORY_SHIFT);
+    }
+
+    public static int score(long scoredMove) {
+        return (int) (scoredMove >> SCORE_SHIFT);
+    }
+
+    public static boolean isNoisy(long scoredMove) {
+        final MoveType type = moveType(scoredMove);
+        return type == MoveType.GOOD_NOISY || type == MoveType.BAD_NOISY;
     }
 
-    public boolean isGoodNoisy() {
-        return moveType == MoveType.GOOD_NOISY;
+    public static boolean isGoodNoisy(long scoredMove) {
+        return moveType(scoredMove) == MoveType.GOOD_NOISY;
     }
 
-    public boolean isKiller() {
-        return moveType == MoveType.KILLER;
+    public static boolean isKiller(long scoredMove) {
+        return moveType(scoredMove) == MoveType.KILLER;
     }
 
-    public boolean isBadNoisy() {
-        return moveType == MoveType.BAD_NOISY;
+    public static boolean isBadNoisy(long scoredMove) {
+        return moveType(scoredMove) == MoveType.BAD_NOISY;
     }
 
-    public boolean isQuiet() {
-        return moveType == MoveType.QUIET;
+    public static boolean isQuiet(long scoredMove) {
+        return moveType(scoredMove) == MoveType.QUIET;
     }
 
 }
@@ -0,0 +1,196 @@
+package com.kelseyde.calvin.tables.bitbase;
+
+import com.kelseyde.calvin.board.Bits;
+import com.kelseyde.calvin.board.Bits.File;
+import com.kelseyde.calvin.board.Bits.Rank;
+import com.kelseyde.calvin.board.Bits.Square;
+import com.kelseyde.calvin.board.Board;
+import com.kelseyde.calvin.movegen.Attacks;
+
+/**
+ * A win/draw bitbase for king and pawn versus king, built by retrograde analysis when the class is first loaded. Every
+ * position is stored from the point of view of the side with the pawn (the 'strong' side), with the pawn mirrored onto
+ * files a-d, so that the whole table fits into a single bit per position (24kb in total).
+ * </p>
+ * Generation starts by classifying the positions whose result is immediately known (the pawn promotes safely, the weak
+ * king captures an undefended pawn, or the weak side is stalemated), and then repeatedly propagates results backwards:
+ * the strong side wins if any of its moves wins, and the weak side draws if any of its moves draws. Positions that are
+ * still unresolved once nothing changes are draws.
+ *
+ * @see <a href="https://www.chessprogramming.org/KPK">Chess Programming Wiki</a>
+ */
+public class KPKBitbase {
+
+    // 2 sides to move * 24 pawn squares * 64 strong king squares * 64 weak king squares
+    private static final int SIZE = 2 * 24 * 64 * 64;
+
+    // Intermediate results used during generation. These are bit flags, so that the results of several child positions
+    // can be combined with a bitwise or.
+    private static final byte INVALID = 0;
+    private static final byte UNKNOWN = 1;
+    private static final byte DRAW = 2;
+    private static final byte WIN = 4;
+
+    private static final long[] BITBASE = init();
+
+    /**
+     * @return true if the position is king and pawn versus king, and the bitbase says it is a draw.
+     */
+    public static boolean isDraw(Board board) {
+        if (board.getPawns() == 0 || Bits.count(board.getOccupied()) != 3) {
+            return false;
+        }
+        final boolean white = board.getPawns(true) != 0;
+        final int strongKing = Bits.next(board.getKing(white));
+        final int weakKing = Bits.next(board.getKing(!white));
+        final int pawn = Bits.next(board.getPawns());
+        return !probe(white, strongKing, weakKing, pawn, board.isWhite() == white);
+    }
+
+    /**
+     * @param white whether the strong side (the side with the pawn) is white
+     * @param strongToMove whether it is the strong side to move
+     * @return true if the strong side wins, false if the position is a draw.
+     */
+    public static boolean probe(boolean white, int strongKing, int weakKing, int pawn, boolean strongToMove) {
+        if (!white) {
+            strongKing = Square.flipRank(strongKing);
+            weakKing = Square.flipRank(weakKing);
+            pawn = Square.flipRank(pawn);
+        }
+        if (File.of(pawn) > 3) {
+            strongKing = Square.flipFile(strongKing);
+            weakKing = Square.flipFile(weakKing);
+            pawn = Square.flipFile(pawn);
+        }
+        final int index = index(strongToMove, strongKing, weakKing, pawn);
+        return (BITBASE[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static int index(boolean strongToMove, int strongKing, int weakKing, int pawn) {
+        return strongKing
+                | weakKing << 6
+                | (strongToMove ? 0 : 1) << 12
+                | File.of(pawn) << 13
+                | (6 - Rank.of(pawn)) << 15;
+    }
+
+    private static long[] init() {
+
+        final byte[] results = new byte[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            results[i] = classifyInitial(i);
+        }
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 0; i < SIZE; i++) {
+                if (results[i] == UNKNOWN) {
+                    final byte result = classify(results, i);
+                    if (result != UNKNOWN) {
+                        results[i] = result;
+                        changed = true;
+                    }
+                }
+            }
+        }
+
+        final long[] bitbase = new long[SIZE / 64];
+        for (int i = 0; i < SIZE; i++) {
+            if (results[i] == WIN) {
+                bitbase[i >>> 6] |= 1L << i;
+            }
+        }
+        return bitbase;
+
+    }
+
+    private static byte classifyInitial(int index) {
+
+        final int strongKing = index & 0x3F;
+        final int weakKing = (index >>> 6) & 0x3F;
+        final boolean strongToMove = ((index >>> 12) & 1) == 0;
+        final int pawn = pawnSquare(index);
+        final long pawnAttacks = Attacks.whitePawnAttacks(Bits.of(pawn));
+
+        // Kings adjacent or on the same square, a king on the pawn square, or the weak king in check with the strong
+        // side to move are all illegal positions.
+        if (distance(strongKing, weakKing) <= 1
+                || strongKing == pawn
+                || weakKing == pawn
+                || (strongToMove && Bits.contains(pawnAttacks, weakKing))) {
+            return INVALID;
+        }
+
+        if (strongToMove) {
+            // The pawn promotes, and the new queen can't be captured
+            final int promotion = pawn + 8;
+            if (Rank.of(pawn) == 6
+                    && strongKing != promotion
+                    && (distance(weakKing, promotion) > 1 || distance(strongKing, promotion) <= 1)) {
+                return WIN;
+            }
+        } else {
+            // The weak side is stalemated
+            final long weakMoves = Attacks.kingAttacks(weakKing) & ~(Attacks.kingAttacks(strongKing) | pawnAttacks);
+            if (weakMoves == 0) {
+                return DRAW;
+            }
+            // The weak king captures the pawn, which is not defended by the strong king
+            if (Bits.contains(weakMoves, pawn)) {
+                return DRAW;
+            }
+        }
+
+        return UNKNOWN;
+
+    }
+
+    private static byte classify(byte[] results, int index) {
+
+        final int strongKing = index & 0x3F;
+        final int weakKing = (index >>> 6) & 0x3F;
+        final boolean strongToMove = ((index >>> 12) & 1) == 0;
+        final int pawn = pawnSquare(index);
+
+        int result = INVALID;
+        if (strongToMove) {
+            long kingMoves = Attacks.kingAttacks(strongKing) & ~Attacks.kingAttacks(weakKing);
+            while (kingMoves != 0) {
+                result |= results[index(false, Bits.next(kingMoves), weakKing, pawn)];
+                kingMoves = Bits.pop(kingMoves);
+            }
+            // Promotions are already covered by the initial classification
+            final int push = pawn + 8;
+            if (Rank.of(pawn) < 6 && push != strongKing && push != weakKing) {
+                result |= results[index(false, strongKing, weakKing, push)];
+                final int doublePush = push + 8;
+                if (Rank.of(pawn) == 1 && doublePush != strongKing && doublePush != weakKing) {
+                    result |= results[index(false, strongKing, weakKing, doublePush)];
+                }
+            }
+            return (result & WIN) != 0 ? WIN : (result & UNKNOWN) != 0 ? UNKNOWN : DRAW;
+        } else {
+            final long pawnAttacks = Attacks.whitePawnAttacks(Bits.of(pawn));
+            long kingMoves = Attacks.kingAttacks(weakKing) & ~(Attacks.kingAttacks(strongKing) | pawnAttacks);
+            while (kingMoves != 0) {
+                result |= results[index(true, strongKing, Bits.next(kingMoves), pawn)];
+                kingMoves = Bits.pop(kingMoves);
+            }
+            return (result & DRAW) != 0 ? DRAW : (result & UNKNOWN) != 0 ? UNKNOWN : WIN;
+        }
+
+    }
+
+    private static int distance(int sq1, int sq2) {
+        return Math.max(Math.abs(File.of(sq1) - File.of(sq2)), Math.abs(Rank.of(sq1) - Rank.of(sq2)));
+    }
+
+    private static int pawnSquare(int index) {
+        final int file = (index >>> 13) & 0x3;
+        final int rank = 6 - (index >>> 15);
+        return Square.of(rank, file);
+    }
+
+}
@@ -2,6 +2,8 @@ package com.kelseyde.calvin.tables.correction;
 
 import com.kelseyde.calvin.board.Colour;
 
+import java.util.Arrays;
+
 /**
  * Correction history table indexed by hash key.
  */
@@ -35,7 +37,9 @@ public class HashCorrectionTable extends CorrectionHistoryTable {
 
     @Override
     public void clear() {
-        this.entries = new int[2][TABLE_SIZE];
+        for (int[] colour : entries) {
+            Arrays.fill(colour, 0);
+        }
     }
 
     private int hashIndex(long key) {
@@ -5,6 +5,8 @@ import com.kelseyde.calvin.board.Colour;
 import com.kelseyde.calvin.board.Move;
 import com.kelseyde.calvin.board.Piece;
 
+import java.util.Arrays;
+
 /**
  * Correction history table indexed by piece and destination square.
  */
@@ -16,30 +18,32 @@ public class PieceToCorrectionTable extends CorrectionHistoryTable {
         this.entries = new int[2][Piece.COUNT][Square.COUNT];
     }
 
-    public void update(Move prevMove, Piece prevPiece, boolean white, int staticEval, int score, int depth) {
+    public void update(int prevMove, int prevPiece, boolean white, int staticEval, int score, int depth) {
         int oldValue = get(white, prevMove, prevPiece);
         int correction = correction(oldValue, staticEval, score, depth);
         put(white, prevMove, prevPiece, correction);
 
     }
 
-    public int get(boolean white, Move prevMove, Piece prevPiece) {
+    public int get(boolean white, int prevMove, int prevPiece) {
         int colourIndex = Colour.index(white);
-        int pieceIndex = prevPiece.index();
-        int to = prevMove.to();
-        return entries[colourIndex][pieceIndex][to];
+        int to = Move.to(prevMove);
+        return entries[colourIndex][prevPiece][to];
     }
 
-    private void put(boolean white, Move prevMove, Piece prevPiece, int value) {
+    private void put(boolean white, int prevMove, int prevPiece, int value) {
         int colourIndex = Colour.index(white);
-        int pieceIndex = prevPiece.index();
-        int to = prevMove.to();
-        entries[colourIndex][pieceIndex][to] = value;
+        int to = Move.to(prevMove);
+        entries[colourIndex][prevPiece][to] = value;
     }
 
     @Override
     public void clear() {
-        this.entries = new int[2][Piece.COUNT][Square.COUNT];
+        for (int[][] colour : entries) {
+            for (int[] piece : colour) {
+                Arrays.fill(piece, 0);
+            }
+        }
     }
 
 }
@@ -5,6 +5,8 @@ import com.kelseyde.calvin.board.Colour;
 import com.kelseyde.calvin.board.Piece;
 import com.kelseyde.calvin.engine.EngineConfig;
 
+import java.util.Arrays;
+
 public class CaptureHistoryTable extends AbstractHistoryTable {
 
     int[][][][] table = new int[2][Piece.COUNT][Square.COUNT][Piece.COUNT];
@@ -17,25 +19,27 @@ public class CaptureHistoryTable extends AbstractHistoryTable {
                 config.captHistMaxScore.value);
     }
 
-    public void update(Piece piece, int to, Piece captured, int depth, boolean white, boolean good) {
+    public void update(int piece, int to, int captured, int depth, boolean white, boolean good) {
         int colourIndex = Colour.index(white);
-        int pieceIndex = piece.index();
-        int capturedIndex = captured.index();
-        int current = table[colourIndex][pieceIndex][to][capturedIndex];
+        int current = table[colourIndex][piece][to][captured];
         int bonus = good ? bonus(depth) : malus(depth);
         int update = gravity(current, bonus);
-        table[colourIndex][pieceIndex][to][capturedIndex] = update;
+        table[colourIndex][piece][to][captured] = update;
     }
 
-    public int get(Piece piece, int to, Piece captured, boolean white) {
+    public int get(int piece, int to, int captured, boolean white) {
         int colourIndex = Colour.index(white);
-        int pieceIndex = piece.index();
-        int capturedIndex = captured.index();
-        return table[colourIndex][pieceIndex][to][capturedIndex];
+        return table[colourIndex][piece][to][captured];
     }
 
     public void clear() {
-        table = new int[2][Piece.COUNT][Square.COUNT][Piece.COUNT];
+        for (int[][][] colour : table) {
+            for (int[][] piece : colour) {
+                for (int[] square : piece) {
+                    Arrays.fill(square, 0);
+                }
+            }
+        }
     }
 
 }
@@ -6,6 +6,8 @@ import com.kelseyde.calvin.board.Move;
 import com.kelseyde.calvin.board.Piece;
 import com.kelseyde.calvin.engine.EngineConfig;
 
+import java.util.Arrays;
+
 public class ContinuationHistoryTable extends AbstractHistoryTable {
 
     int[][][][][] table = new int[2][Piece.COUNT][Square.COUNT][Piece.COUNT][Square.COUNT];
@@ -18,31 +20,39 @@ public class ContinuationHistoryTable extends AbstractHistoryTable {
                 config.contHistMaxScore.value);
     }
 
-    public void update(Move prevMove, Piece prevPiece, Move currMove, Piece currPiece, int depth, boolean white, boolean good) {
+    public void update(int prevMove, int prevPiece, int currMove, int currPiece, int depth, boolean white, boolean good) {
         int current = get(prevMove, prevPiece, currMove, currPiece, white);
         int bonus = good ? bonus(depth) : malus(depth);
         int update = gravity(current, bonus);
         set(prevMove, prevPiece, currMove, currPiece, update, white);
     }
 
-    public int get(Move prevMove, Piece prevPiece, Move currMove, Piece currPiece, boolean white) {
-        if (prevMove == null || prevPiece == null || currMove == null || currPiece == null) {
+    public int get(int prevMove, int prevPiece, int currMove, int currPiece, boolean white) {
+        if (prevMove == Move.NONE || prevPiece == Piece.NONE || currMove == Move.NONE || currPiece == Piece.NONE) {
             return 0;
         }
         int colourIndex = Colour.index(white);
-        return table[colourIndex][prevPiece.index()][prevMove.to()][currPiece.index()][currMove.to()];
+        return table[colourIndex][prevPiece][Move.to(prevMove)][currPiece][Move.to(currMove)];
     }
 
-    public void set(Move prevMove, Piece prevPiece, Move currMove, Piece currPiece, int update, boolean white) {
-        if (prevMove == null || prevPiece == null || currMove == null || currPiece == null) {
+    public void set(int prevMove, int prevPiece, int currMove, int currPiece, int update, boolean white) {
+        if (prevMove == Move.NONE || prevPiece == Piece.NONE || currMove == Move.NONE || currPiece == Piece.NONE) {
             return;
         }
         int colourIndex = Colour.index(white);
-        table[colourIndex][prevPiece.index()][prevMove.to()][currPiece.index()][currMove.to()] = update;
+        table[colourIndex][prevPiece][Move.to(prevMove)][currPiece][Move.to(currMove)] = update;
     }
 
     public void clear() {
-        table = new int[2][Piece.COUNT][Square.COUNT][Piece.COUNT][Square.COUNT];
+        for (int[][][][] colour : table) {
+            for (int[][][] piece : colour) {
+                for (int[][] square : piece) {
+                    for (int[] prevPiece : square) {
+                        Arrays.fill(prevPiece, 0);
+                    }
+                }
+            }
+        }
     }
 
 }
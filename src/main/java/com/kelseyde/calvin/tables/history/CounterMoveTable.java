@@ -4,6 +4,8 @@ import com.kelseyde.calvin.board.Bits.Square;
 import com.kelseyde.calvin.board.Move;
 import com.kelseyde.calvin.board.Piece;
 
+import java.util.Arrays;
+
 /**
  * The {@link CounterMoveTable} is similar to the {@link KillerTable} in that is stores moves that caused a cut-off.
  * The difference is that, whereas the killer table indexes moves based on the ply at which they were played, the
@@ -16,28 +18,30 @@ import com.kelseyde.calvin.board.Piece;
  */
 public class CounterMoveTable {
 
-    private Move[][] table = new Move[Piece.COUNT * 2][Square.COUNT];
+    private int[][] table = new int[Piece.COUNT * 2][Square.COUNT];
     
-    public boolean isCounterMove(Piece prevPiece, Move prevMove, boolean white, Move move) {
-        if (prevPiece == null || prevMove == null) return false;
-        int pieceIndex = prevPiece.index() + (white ? 0 : Piece.COUNT);
-        Move counterMove = table[pieceIndex][prevMove.to()];
-        return counterMove != null && counterMove.equals(move);
+    public boolean isCounterMove(int prevPiece, int prevMove, boolean white, int move) {
+        if (prevPiece == Piece.NONE || prevMove == Move.NONE) return false;
+        int pieceIndex = prevPiece + (white ? 0 : Piece.COUNT);
+        int counterMove = table[pieceIndex][Move.to(prevMove)];
+        return counterMove != Move.NONE && counterMove == move;
     }
 
-    public void add(Piece prevPiece, Move prevMove, boolean white, Move move) {
-        if (prevPiece == null || prevMove == null) return;
-        int pieceIndex = prevPiece.index() + (white ? 0 : Piece.COUNT);
-        table[pieceIndex][prevMove.to()] = move;
+    public void add(int prevPiece, int prevMove, boolean white, int move) {
+        if (prevPiece == Piece.NONE || prevMove == Move.NONE) return;
+        int pieceIndex = prevPiece + (white ? 0 : Piece.COUNT);
+        table[pieceIndex][Move.to(prevMove)] = move;
     }
 
-    public Move get(Piece piece, int to, boolean white) {
-        int pieceIndex = piece.index() + (white ? 0 : Piece.COUNT);
+    public int get(int piece, int to, boolean white) {
+        int pieceIndex = piece + (white ? 0 : Piece.COUNT);
         return table[pieceIndex][to];
     }
 
     public void clear() {
-        table = new Move[Piece.COUNT * 2][Square.COUNT];
+        for (int[] piece : table) {
+            Arrays.fill(piece, Move.NONE);
+        }
     }
 
 }
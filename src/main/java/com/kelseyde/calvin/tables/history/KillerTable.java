@@ -3,18 +3,20 @@ package com.kelseyde.calvin.tables.history;
 import com.kelseyde.calvin.board.Move;
 import com.kelseyde.calvin.search.Search;
 
+import java.util.Arrays;
+
 public class KillerTable {
 
     public static final int KILLERS_PER_PLY = 2;
 
-    Move[][] table = new Move[Search.MAX_DEPTH][KILLERS_PER_PLY];
+    int[][] table = new int[Search.MAX_DEPTH][KILLERS_PER_PLY];
 
-    public void add(int ply, Move move) {
+    public void add(int ply, int move) {
         if (ply >= Search.MAX_DEPTH) return;
 
         // Check if the move already exists in the killer list
         for (int i = 0; i < KILLERS_PER_PLY; i++) {
-            if (move.equals(table[ply][i])) {
+            if (move == table[ply][i]) {
                 // If the move exists at index i, shift all moves before it back by one position
                 for (int j = i; j > 0; j--) {
                     table[ply][j] = table[ply][j - 1];
@@ -34,17 +36,19 @@ public class KillerTable {
         table[ply][0] = move;
     }
 
-    public Move[] getKillers(int ply) {
+    public int[] getKillers(int ply) {
         return table[ply];
     }
 
     public void clear(int ply) {
         if (ply >= Search.MAX_DEPTH) return;
-        table[ply] = new Move[KILLERS_PER_PLY];
+        Arrays.fill(table[ply], Move.NONE);
     }
 
     public void clear() {
-        table = new Move[Search.MAX_DEPTH][KILLERS_PER_PLY];
+        for (int[] killers : table) {
+            Arrays.fill(killers, Move.NONE);
+        }
     }
 
 }
@@ -6,6 +6,8 @@ import com.kelseyde.calvin.board.Move;
 import com.kelseyde.calvin.board.Piece;
 import com.kelseyde.calvin.engine.EngineConfig;
 
+import java.util.Arrays;
+
 public class QuietHistoryTable extends AbstractHistoryTable {
 
     int[][][] table = new int[2][Piece.COUNT][Square.COUNT];
@@ -18,21 +20,25 @@ public class QuietHistoryTable extends AbstractHistoryTable {
                 config.quietHistMaxScore.value);
     }
 
-    public void update(Move move, Piece piece, int depth, boolean white, boolean good) {
+    public void update(int move, int piece, int depth, boolean white, boolean good) {
         int colourIndex = Colour.index(white);
-        int current = table[colourIndex][piece.index()][move.to()];
+        int current = table[colourIndex][piece][Move.to(move)];
         int bonus = good ? bonus(depth) : malus(depth);
         int update = gravity(current, bonus);
-        table[colourIndex][piece.index()][move.to()] = update;
+        table[colourIndex][piece][Move.to(move)] = update;
     }
 
-    public int get(Move move, Piece piece, boolean white) {
+    public int get(int move, int piece, boolean white) {
         int colourIndex = Colour.index(white);
-        return table[colourIndex][piece.index()][move.to()];
+        return table[colourIndex][piece][Move.to(move)];
     }
 
     public void clear() {
-        table = new int[2][Piece.COUNT][Square.COUNT];
+        for (int[][] colour : table) {
+            for (int[] piece : colour) {
+                Arrays.fill(piece, 0);
+            }
+        }
     }
 
 }
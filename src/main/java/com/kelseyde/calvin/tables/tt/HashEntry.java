@@ -1,7 +1,5 @@
 package com.kelseyde.calvin.tables.tt;
 
-import com.kelseyde.calvin.board.Move;
-
 /**
  * Entry in the {@link TranspositionTable}.
  * </p>
@@ -10,10 +8,10 @@ import com.kelseyde.calvin.board.Move;
  * - Key: 0-31 (zobrist key), 32-47 (age), 48-63 (static eval)
  * - Value: 0-11 (depth), 12-15 (flag), 16-31 (move), 32-63 (score)
  */
-public record HashEntry(Move move, int score, int staticEval, int flag, int depth) {
+public record HashEntry(int move, int score, int staticEval, int flag, int depth) {
 
     public static HashEntry of(long key, long value) {
-        final Move move       = Value.getMove(value);
+        final int move        = Value.getMove(value);
         final int flag        = Value.getFlag(value);
         final int depth       = Value.getDepth(value);
         final int score       = Value.getScore(value);
@@ -64,9 +62,8 @@ public record HashEntry(Move move, int score, int staticEval, int flag, int dept
             return (value & ~SCORE_MASK) | (long) score << 32;
         }
 
-        public static Move getMove(long value) {
-            long move = (value & MOVE_MASK) >>> 16;
-            return move > 0 ? new Move((short) move) : null;
+        public static int getMove(long value) {
+            return (int) ((value & MOVE_MASK) >>> 16);
         }
 
         public static int getFlag(long value) {
@@ -77,9 +74,8 @@ public record HashEntry(Move move, int score, int staticEval, int flag, int dept
             return (int) (value & DEPTH_MASK);
         }
 
-        public static long of(int score, Move move, int flag, int depth) {
-            long moveValue = move != null ? move.value() : 0;
-            return (long) score << 32 | moveValue << 16 | (long) flag << 12 | depth;
+        public static long of(int score, int move, int flag, int depth) {
+            return (long) score << 32 | (long) move << 16 | (long) flag << 12 | depth;
         }
 
     }
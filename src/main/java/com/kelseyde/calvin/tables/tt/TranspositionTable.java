@@ -3,6 +3,7 @@ package com.kelseyde.calvin.tables.tt;
 import com.kelseyde.calvin.board.Move;
 import com.kelseyde.calvin.search.Score;
 
+import java.util.Arrays;
 import java.util.stream.IntStream;
 
 /**
@@ -14,19 +15,22 @@ import java.util.stream.IntStream;
  * encounters the same positions again and again (via 'transposition'). A transposition table, therefore, greatly reduces
  * the size of the search tree, since subsequent arrivals at the position can re-use the results of previous searches.
  * </p>
+ * The table is shared by all search threads without locking. Each key is stored XOR-ed with a hash of its value, which
+ * folds every bit of the value into the 32 bits of the key that are compared on a probe. An entry torn by a concurrent
+ * write (the key of one entry paired with the value of another) therefore fails verification, and is treated as a miss.
+ * </p>
  * @see <a href="https://www.chessprogramming.org/Transposition_Table">Chess Programming Wiki</a>
  */
 public class TranspositionTable {
 
     private static final int BUCKET_SIZE = 4;
     private static final int ENTRY_SIZE_BYTES = 16;
+    private static final long VERIFICATION_MULTIPLIER = 0x9E3779B97F4A7C15L;
 
     private long[] keys;
     private long[] values;
     private int size;
     private int age;
-    private int tries;
-    private int hits;
 
     /**
      * Constructs a transposition table of the given size in megabytes.
@@ -35,24 +39,35 @@ public class TranspositionTable {
         this.size = (tableSizeMb * 1024 * 1024) / ENTRY_SIZE_BYTES;
         this.keys = new long[size];
         this.values = new long[size];
-        this.tries = 0;
-        this.hits = 0;
         this.age = 0;
     }
 
     /**
      * Retrieves an entry from the transposition table using the given zobrist key.
+     * </p>
+     * The table is shared by all search threads without locking, so a probe must avoid writing to memory where it can,
+     * since every write invalidates the cache line for the other threads. Each slot is read exactly once, and the key is
+     * only trusted if it still matches once the hash of the value is XOR-ed back out of it.
      */
     public HashEntry get(long key, int ply) {
         int index = index(key);
-        tries++;
         for (int i = 0; i < BUCKET_SIZE; i++) {
-            long storedKey = keys[index + i];
-            if (storedKey != 0 && HashEntry.Key.getZobristPart(storedKey) == HashEntry.Key.getZobristPart(key)) {
-                hits++;
-                storedKey = HashEntry.Key.setAge(storedKey, age);
-                keys[index + i] = storedKey;
-                long storedValue = values[index + i];
+            final long rawKey = keys[index + i];
+            if (rawKey == 0) {
+                continue;
+            }
+            long storedValue = values[index + i];
+            long storedKey = rawKey ^ verification(storedValue);
+            if (HashEntry.Key.getZobristPart(storedKey) == HashEntry.Key.getZobristPart(key)) {
+                if (HashEntry.Key.getAge(storedKey) != age) {
+                    storedKey = HashEntry.Key.setAge(storedKey, age);
+                    // Only refresh the age if the slot still holds the value that was read. Another thread can still
+                    // store in between this check and the write, in which case the new entry fails verification and
+                    // is lost; this is rare, and costs no more than a replaced entry would.
+                    if (values[index + i] == storedValue) {
+                        keys[index + i] = storedKey ^ verification(storedValue);
+                    }
+                }
                 int score = HashEntry.Value.getScore(storedValue);
                 if (Score.isMateScore(score)) {
                     score = retrieveMateScore(score, ply);
@@ -77,7 +92,7 @@ public class TranspositionTable {
      * <li>The entry with the lowest depth.</li>
      * </ol>
      */
-    public void put(long key, int flag, int depth, int ply, Move move, int staticEval, int score) {
+    public void put(long key, int flag, int depth, int ply, int move, int staticEval, int score) {
 
         // Get the start index of the 4-item bucket.
         final int startIndex = index(key);
@@ -91,10 +106,10 @@ public class TranspositionTable {
 
         // Iterate over the four items in the bucket
         for (int i = startIndex; i < startIndex + 4; i++) {
-            long storedKey = keys[i];
+            final long rawKey = keys[i];
 
             // First, always prefer an empty slot if it is available.
-            if (storedKey == 0) {
+            if (rawKey == 0) {
                 replacedIndex = i;
                 break;
             }
@@ -105,7 +120,8 @@ public class TranspositionTable {
                 break;
             }
 
-            long storedValue = values[i];
+            final long storedValue = values[i];
+            final long storedKey = rawKey ^ verification(storedValue);
 
             int storedFlag = HashEntry.Value.getFlag(storedValue);
             if (storedFlag == HashFlag.NONE) {
@@ -113,14 +129,14 @@ public class TranspositionTable {
                 break;
             }
 
-            int storedDepth = HashEntry.Value.getDepth(values[i]);
+            int storedDepth = HashEntry.Value.getDepth(storedValue);
             // Then, if the stored entry matches the zobrist key and the depth is >= the stored depth, replace it.
             // If the depth is < the store depth, don't replace it and exit (although this should never happen).
             if (HashEntry.Key.getZobristPart(storedKey) == HashEntry.Key.getZobristPart(key)) {
                 if (depth >= storedDepth - 4) {
                     // If the stored entry has a recorded best move but the new entry does not, use the stored one.
-                    Move storedMove = HashEntry.Value.getMove(storedValue);
-                    if (move == null && storedMove != null) {
+                    int storedMove = HashEntry.Value.getMove(storedValue);
+                    if (move == Move.NONE && storedMove != Move.NONE) {
                         move = storedMove;
                     }
                     replacedIndex = i;
@@ -146,8 +162,9 @@ public class TranspositionTable {
 
         // Store the new entry in the table at the chosen index.
         if (replacedIndex != -1) {
-            keys[replacedIndex] = HashEntry.Key.of(key, staticEval, age);
-            values[replacedIndex] = HashEntry.Value.of(score, move, flag, depth);
+            final long value = HashEntry.Value.of(score, move, flag, depth);
+            values[replacedIndex] = value;
+            keys[replacedIndex] = HashEntry.Key.of(key, staticEval, age) ^ verification(value);
         }
     }
 
@@ -169,23 +186,33 @@ public class TranspositionTable {
     }
 
     public void resize(int tableSizeMb) {
-        this.size = (tableSizeMb * 1024 * 1024) / ENTRY_SIZE_BYTES;
+        final int size = (tableSizeMb * 1024 * 1024) / ENTRY_SIZE_BYTES;
+        if (size == this.size) {
+            clear();
+            return;
+        }
+        this.size = size;
         this.keys = new long[size];
         this.values = new long[size];
-        this.tries = 0;
-        this.hits = 0;
         this.age = 0;
     }
 
     /**
-     * Clears the transposition table, resetting all entries and statistics.
+     * Clears the transposition table, resetting all entries.
      */
     public void clear() {
-        this.tries = 0;
-        this.hits = 0;
         this.age = 0;
-        this.keys = new long[size];
-        this.values = new long[size];
+        Arrays.fill(keys, 0L);
+        Arrays.fill(values, 0L);
+    }
+
+    /**
+     * Hashes the value so that every one of its bits affects the low 32 bits of the result, which are the bits of the
+     * key that are compared on a probe.
+     */
+    private static long verification(long value) {
+        final long hash = value * VERIFICATION_MULTIPLIER;
+        return hash ^ (hash >>> 32);
     }
 
     /**
@@ -3,7 +3,7 @@ package com.kelseyde.calvin.uci;
 import com.kelseyde.calvin.board.Move;
 import com.kelseyde.calvin.search.Score;
 
-import java.util.List;
+import java.util.Arrays;
 import java.util.Locale;
 import java.util.stream.Collectors;
 
@@ -46,7 +46,7 @@ public class Pretty {
         UCI.write("");
     }
 
-    public static void writeSearchInfo(int depth, int seldepth, int score, long time, int nodes, long nps, float hashfull, List<Move> pv) {
+    public static void writeSearchInfo(int depth, int seldepth, int score, long time, long nodes, long nps, float hashfull, int[] pv) {
 
         String formattedDepth = formatDepth(depth);
         String formattedSeldepth = formatSeldepth(seldepth);
@@ -108,9 +108,9 @@ public class Pretty {
         return GRAY + " ".repeat(buffer) + formatted + RESET;
     }
 
-    private static String formatNodes(int nodes) {
+    private static String formatNodes(long nodes) {
         final int nodesLength = 12;
-        int knodes = nodes / 1000;
+        long knodes = nodes / 1000;
         String formatted = String.format(Locale.ROOT, "%dkn", knodes);
         int buffer = Math.max(0, nodesLength - formatted.length());
         return GRAY + " ".repeat(buffer) + formatted + RESET;
@@ -130,8 +130,8 @@ public class Pretty {
         return GRAY + " ".repeat(buffer) + formatted + "%" + RESET;
     }
 
-    private static String formatPv(List<Move> pv) {
-        return ITALIC_ON + pv.stream().map(Move::toUCI).collect(Collectors.joining("  ")) + ITALIC_OFF;
+    private static String formatPv(int[] pv) {
+        return ITALIC_ON + Arrays.stream(pv).mapToObj(Move::toUCI).collect(Collectors.joining("  ")) + ITALIC_OFF;
     }
 
 }
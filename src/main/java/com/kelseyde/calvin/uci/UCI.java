@@ -12,12 +12,14 @@ import com.kelseyde.calvin.uci.UCICommand.GoCommand;
 import com.kelseyde.calvin.uci.UCICommand.PositionCommand;
 import com.kelseyde.calvin.uci.UCICommand.ScoreDataCommand;
 import com.kelseyde.calvin.utils.Bench;
+import com.kelseyde.calvin.utils.PerftSuite;
 import com.kelseyde.calvin.utils.notation.FEN;
 import com.kelseyde.calvin.utils.train.TrainingDataScorer;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Locale;
 import java.util.Scanner;
 import java.util.stream.Collectors;
@@ -76,7 +78,12 @@ public class UCI {
                 config.defaultHashSizeMb, config.minHashSizeMb, config.maxHashSizeMb));
         write(String.format("option name Threads type spin default %s min %s max %s",
                 config.defaultThreads, config.minThreads, config.maxThreads));
+        write(String.format("option name MultiPV type spin default %s min %s max %s",
+                config.defaultMultiPv, config.minMultiPv, config.maxMultiPv));
         write(String.format("option name Ponder type check default %s", config.ponderEnabled));
+        write(String.format("option name PonderCandidates type spin default %s min %s max %s",
+                config.defaultPonderCandidates, config.minPonderCandidates, config.maxPonderCandidates));
+        write(String.format("option name SharedHistory type check default %s", config.sharedHistory));
         write("option name UCI_Chess960 type check default false");
         write("option name Pretty type check default false");
         ENGINE.getConfig().getTunables().forEach(t -> write(t.toUCI()));
@@ -91,6 +98,32 @@ public class UCI {
         Bench.run(ENGINE, false);
     }
 
+    public static void handleBenchSmp(UCICommand command) {
+        int defaultThreads = Math.min(Runtime.getRuntime().availableProcessors(), ENGINE.getConfig().maxThreads);
+        int maxThreads = command.getInt("threads", defaultThreads, false);
+        int depth = command.getInt("depth", Bench.BENCH_DEPTH, false);
+        if (maxThreads < ENGINE.getConfig().minThreads || maxThreads > ENGINE.getConfig().maxThreads) {
+            write(String.format("thread count %s not in valid range %s - %s",
+                    maxThreads, ENGINE.getConfig().minThreads, ENGINE.getConfig().maxThreads));
+            return;
+        }
+        Bench.runSmp(ENGINE, maxThreads, depth);
+    }
+
+    public static void handlePerftSuite(UCICommand command) {
+        if (command.args().length < 2) {
+            write("info error missing perft suite file, usage: perftsuite <epd> [depth <max depth>]");
+            return;
+        }
+        Path path = Path.of(command.args()[1]);
+        int maxDepth = command.getInt("depth", Integer.MAX_VALUE, false);
+        try {
+            PerftSuite.run(path, maxDepth);
+        } catch (IOException e) {
+            writeError("error reading perft suite " + path, e);
+        }
+    }
+
     public static void handleNewGame(UCICommand command) {
         ENGINE.gameOver();
         System.gc();
@@ -113,18 +146,21 @@ public class UCI {
     }
 
     public static void handlePonderHit(UCICommand command) {
-        ENGINE.setPondering(false);
+        ENGINE.ponderHit();
     }
 
     public static void handleSetOption(UCICommand command) {
         String name = command.getString("name", "", true);
         switch (name) {
-            case "Hash":          setHashSize(command); break;
-            case "Threads":       setThreads(command); break;
-            case "Ponder":        setPonder(command); break;
-            case "Pretty":        setPretty(command); break;
-            case "UCI_Chess960":  handleChess960(command); break;
-            default:              ENGINE.getConfig().setTunable(command); break;
+            case "Hash":              setHashSize(command); break;
+            case "Threads":           setThreads(command); break;
+            case "MultiPV":           setMultiPv(command); break;
+            case "Ponder":            setPonder(command); break;
+            case "PonderCandidates":  setPonderCandidates(command); break;
+            case "SharedHistory":     setSharedHistory(command); break;
+            case "Pretty":            setPretty(command); break;
+            case "UCI_Chess960":      handleChess960(command); break;
+            default:                  ENGINE.getConfig().setTunable(command); break;
         }
     }
 
@@ -167,6 +203,14 @@ public class UCI {
         write("fen            -- print the FEN string for the current position");
         write("eval           -- evaluate the current position");
         write("pretty         -- toggle pretty console output");
+        write("benchsmp       -- run the bench positions with 1, 2, 4 ... threads and report how the search scales");
+        write("                   args:");
+        write("                       -- threads: the maximum number of threads (default the number of cores)");
+        write("                       -- depth: the depth to search each position to (default 15)");
+        write("perftsuite     -- run a suite of perft tests from an epd file in parallel");
+        write("                   args:");
+        write("                       -- <epd>: the epd file to run, e.g. src/test/resources/perft_suite.epd");
+        write("                       -- depth: the maximum depth to test (default all)");
         write("scoredata      -- score a data file with the engine, to train a neural network");
         write("                   args:");
         write("                       -- input: the input file to score");
@@ -242,12 +286,42 @@ public class UCI {
         }
     }
 
+    private static void setMultiPv(UCICommand command) {
+        int multiPv = command.getInt("value", -1, true);
+        int minMultiPv = ENGINE.getConfig().minMultiPv;
+        int maxMultiPv = ENGINE.getConfig().maxMultiPv;
+        if (multiPv >= minMultiPv && multiPv <= maxMultiPv) {
+            ENGINE.setMultiPv(multiPv);
+            write("info string MultiPV " + multiPv);
+        } else {
+            write(String.format("multipv %s not in valid range %s - %s", multiPv, minMultiPv, maxMultiPv));
+        }
+    }
+
     private static void setPonder(UCICommand command) {
         boolean ponderEnabled = command.getBool("value", false, true);
         ENGINE.setPonderEnabled(ponderEnabled);
         write("info string Ponder " + ponderEnabled);
     }
 
+    private static void setPonderCandidates(UCICommand command) {
+        int candidates = command.getInt("value", -1, true);
+        int minCandidates = ENGINE.getConfig().minPonderCandidates;
+        int maxCandidates = ENGINE.getConfig().maxPonderCandidates;
+        if (candidates >= minCandidates && candidates <= maxCandidates) {
+            ENGINE.setPonderCandidates(candidates);
+            write("info string PonderCandidates " + candidates);
+        } else {
+            write(String.format("ponder candidates %s not in valid range %s - %s", candidates, minCandidates, maxCandidates));
+        }
+    }
+
+    private static void setSharedHistory(UCICommand command) {
+        boolean sharedHistory = command.getBool("value", false, true);
+        ENGINE.setSharedHistory(sharedHistory);
+        write("info string SharedHistory " + sharedHistory);
+    }
+
     private static void setPretty(UCICommand command) {
         boolean prettyEnabled = command.getBool("value", false, true);
         Options.pretty = prettyEnabled;
@@ -280,20 +354,28 @@ public class UCI {
     }
 
     public static void writeSearchInfo(SearchResult searchResult) {
+        writeSearchInfo(searchResult, 1);
+    }
+
+    /**
+     * @param line the rank of the line being reported, starting from 1, which is only written in MultiPV mode.
+     */
+    public static void writeSearchInfo(SearchResult searchResult, int line) {
         int depth = searchResult.depth();
         int seldepth = searchResult.seldepth();
         int score = searchResult.eval();
         long time = searchResult.time();
-        int nodes = searchResult.nodes();
+        long nodes = searchResult.nodes();
         long nps = searchResult.nps();
         int hashfull = ENGINE.hashfull();
-        List<Move> pv = ENGINE.extractPrincipalVariation();
+        int[] pv = searchResult.pv();
         if (Options.pretty) {
             Pretty.writeSearchInfo(depth, seldepth, score, time, nodes, nps, hashfull, pv);
         } else {
-            String pvString = pv.stream().map(Move::toUCI).collect(Collectors.joining(" "));
-            write(String.format("info depth %s seldepth %s score %s nodes %s time %s nps %s hashfull %s pv %s",
-                    depth, seldepth, formatScore(score), nodes, time, nps, hashfull, pvString));
+            String pvString = Arrays.stream(pv).mapToObj(Move::toUCI).collect(Collectors.joining(" "));
+            String multiPv = ENGINE.getConfig().multiPv > 1 ? " multipv " + line : "";
+            write(String.format("info depth %s seldepth %s%s score %s nodes %s time %s nps %s hashfull %s pv %s",
+                    depth, seldepth, multiPv, formatScore(score), nodes, time, nps, hashfull, pvString));
         }
     }
 
@@ -311,7 +393,9 @@ public class UCI {
         Move move = searchResult.move();
         boolean ponderEnabled = ENGINE.getConfig().ponderEnabled;
         if (ponderEnabled && move != null) {
-            Move ponderMove = ENGINE.extractPonderMove(move);
+            // Prefer the reply from the principal variation, falling back to the hash table if the line is too short
+            int[] pv = searchResult.pv();
+            Move ponderMove = pv != null && pv.length > 1 ? Move.of(pv[1]) : ENGINE.extractPonderMove(move);
             write(String.format("bestmove %s ponder %s", Move.toUCI(move), Move.toUCI(ponderMove)));
         } else {
             write(String.format("bestmove %s", Move.toUCI(move)));
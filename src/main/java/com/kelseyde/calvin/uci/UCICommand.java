@@ -56,6 +56,16 @@ public record UCICommand(UCICommandType type, String[] args) {
         }
     }
 
+    public long getLong(String label, long defaultValue, boolean panic) {
+        String valueString = getString(label, String.valueOf(defaultValue), panic);
+        try {
+            return Long.parseLong(valueString);
+        } catch (NumberFormatException e) {
+            if (panic) throw new IllegalArgumentException("invalid value for label " + label + ": " + valueString);
+            return defaultValue;
+        }
+    }
+
     public boolean getBool(String label, boolean defaultValue, boolean panic) {
         String valueString = getString(label, String.valueOf(defaultValue), panic);
         return Boolean.parseBoolean(valueString);
@@ -69,7 +79,7 @@ public record UCICommand(UCICommandType type, String[] args) {
         return Arrays.asList(args).contains(label);
     }
 
-    public record GoCommand(int movetime, int wtime, int btime, int winc, int binc, int nodes, int depth, int perft, boolean ponder) {
+    public record GoCommand(int movetime, int wtime, int btime, int winc, int binc, long nodes, int depth, int perft, boolean ponder) {
 
         public static GoCommand parse(UCICommand command) {
             int movetime =      command.getInt("movetime", Integer.MIN_VALUE, false);
@@ -77,7 +87,7 @@ public record UCICommand(UCICommandType type, String[] args) {
             int btime =         command.getInt("btime", Integer.MIN_VALUE, false);
             int winc =          command.getInt("winc", Integer.MIN_VALUE, false);
             int binc =          command.getInt("binc", Integer.MIN_VALUE, false);
-            int nodes =         command.getInt("nodes", Integer.MIN_VALUE, false);
+            long nodes =        command.getLong("nodes", Integer.MIN_VALUE, false);
             int depth =         command.getInt("depth", Integer.MIN_VALUE, false);
             int perft =         command.getInt("perft", Integer.MIN_VALUE, false);
             boolean ponder =    command.contains("ponder");
@@ -21,6 +21,8 @@ enum UCICommandType {
     HASHFULL     ("hashfull",    UCI::handleHashfull),
     THREATS      ("threats",     UCI::handleThreats),
     BENCH        ("bench",       UCI::handleBench),
+    BENCH_SMP    ("benchsmp",    UCI::handleBenchSmp),
+    PERFT_SUITE  ("perftsuite",  UCI::handlePerftSuite),
     SCORE_DATA   ("scoredata",   UCI::handleScoreData),
     STOP         ("stop",        UCI::handleStop),
     QUIT         ("quit",        UCI::handleQuit),
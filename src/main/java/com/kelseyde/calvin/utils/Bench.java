@@ -68,16 +68,61 @@ public class Bench {
             "2r2b2/5p2/5k2/p1r1pP2/P2pB3/1P3P2/K1P3R1/7R w - - 23 93"
     );
 
-    private static final int BENCH_DEPTH = 15;
+    public static final int BENCH_DEPTH = 15;
 
     public static void run(Engine engine, boolean exit) {
 
         UCI.setOutputEnabled(false);
-        GoCommand command = new GoCommand(Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE,
-                Integer.MIN_VALUE, Integer.MIN_VALUE, BENCH_DEPTH, Integer.MIN_VALUE, false);
-        TimeControl tc = TimeControl.init(engine.getConfig(), Board.from(FEN.STARTPOS), Instant.now(), command);
         Search search = engine.getSearcher();
         search.setThreadCount(1);
+        BenchResult result = bench(engine, search, BENCH_DEPTH);
+
+        long nps = (result.nodes() / result.time()) * 1000;
+        UCI.setOutputEnabled(true);
+        UCI.write(String.format("%s nodes %s nps", result.nodes(), nps));
+        if (exit) {
+            UCI.handleQuit(null);
+        }
+
+    }
+
+    /**
+     * Runs the bench positions to a fixed depth with 1, 2, 4 ... up to the given number of threads, to measure how well
+     * Lazy SMP scales. For each thread count, reports the NPS relative to a single thread, the time-to-depth speedup
+     * relative to a single thread, and the ratio of nodes searched relative to a single thread, which shows how much of
+     * the extra work is duplicated between threads rather than spent finding the result sooner.
+     */
+    public static void runSmp(Engine engine, int maxThreads, int depth) {
+
+        Search search = engine.getSearcher();
+        BenchResult base = null;
+
+        int threads = 1;
+        while (threads <= maxThreads) {
+            UCI.setOutputEnabled(false);
+            search.setThreadCount(threads);
+            BenchResult result = bench(engine, search, depth);
+            if (base == null) {
+                base = result;
+            }
+            UCI.setOutputEnabled(true);
+            UCI.write(String.format("threads %s nodes %s time %s nps %s nps-scaling %.2f ttd-speedup %.2f node-ratio %.2f",
+                    threads, result.nodes(), result.time(), result.nps(),
+                    (double) result.nps() / Math.max(base.nps(), 1),
+                    (double) base.time() / Math.max(result.time(), 1),
+                    (double) result.nodes() / Math.max(base.nodes(), 1)));
+            threads = threads == maxThreads ? maxThreads + 1 : Math.min(threads * 2, maxThreads);
+        }
+
+        search.setThreadCount(1);
+
+    }
+
+    private static BenchResult bench(Engine engine, Search search, int depth) {
+
+        GoCommand command = new GoCommand(Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE,
+                Integer.MIN_VALUE, Integer.MIN_VALUE, depth, Integer.MIN_VALUE, false);
+        TimeControl tc = TimeControl.init(engine.getConfig(), Board.from(FEN.STARTPOS), Instant.now(), command);
         long nodes = 0;
         long time = 0;
 
@@ -90,11 +135,14 @@ public class Bench {
             time += Duration.between(now, Instant.now()).toMillis();
         }
 
-        long nps = (nodes / time) * 1000;
-        UCI.setOutputEnabled(true);
-        UCI.write(String.format("%s nodes %s nps", nodes, nps));
-        if (exit) {
-            UCI.handleQuit(null);
+        return new BenchResult(nodes, time);
+
+    }
+
+    private record BenchResult(long nodes, long time) {
+
+        long nps() {
+            return SearchResult.nps(nodes, time);
         }
 
     }
@@ -3,55 +3,219 @@ package com.kelseyde.calvin.utils;
 import com.kelseyde.calvin.board.Board;
 import com.kelseyde.calvin.board.Move;
 import com.kelseyde.calvin.movegen.MoveGenerator;
+import com.kelseyde.calvin.movegen.MoveGenerator.MoveFilter;
 import com.kelseyde.calvin.uci.UCI;
 
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
 
 /**
  * Perft, ('Performance Test') is a debugging function to walk the move generation tree of strictly legal moves to count
  * all the leaf nodes of a certain depth, which is compared to predetermined values and used to isolate bugs.
+ * <p>
+ * The moves at the last ply are bulk-counted rather than played, subtree counts are cached in a hash table keyed by
+ * the Zobrist key and depth, and the root moves are split across a fork-join pool, each searching its own copy of the
+ * board. The hash table is shared between the tasks, and is lockless: each entry stores its key XOR-ed with its count,
+ * so that an entry torn by a concurrent write fails verification and is simply treated as a miss.
+ * <p>
+ * In pseudo-legal mode the tree is walked using pseudo-legal generation plus a legality check per move, which is the
+ * mode used by the search, so that both generation modes can be verified and benchmarked against each other.
  */
 public class Perft {
 
+    private static final int DEFAULT_HASH_SIZE = 1 << 20;
+    private static final long DEPTH_SALT = 0x9E3779B97F4A7C15L;
+
     private final MoveGenerator movegen = new MoveGenerator();
+    private final boolean pseudoLegal;
+
+    private final int hashSize;
+    private final long[] hashKeys;
+    private final long[] hashCounts;
 
     public long nodesSearched = 0;
-    private Map<Move, Long> nodesPerMove;
 
-    public long perft(Board board, int depth) {
-        nodesSearched = 0;
-        nodesPerMove = new HashMap<>();
+    public Perft() {
+        this(false);
+    }
+
+    public Perft(boolean pseudoLegal) {
+        this(pseudoLegal, DEFAULT_HASH_SIZE);
+    }
 
-        long totalNodes = perft(board, depth, depth);
+    /**
+     * @param hashSize the number of entries in the perft hash table, which must be a power of two, or 0 to disable it.
+     */
+    public Perft(boolean pseudoLegal, int hashSize) {
+        if (Integer.bitCount(hashSize) > 1) {
+            throw new IllegalArgumentException("Perft hash size must be a power of two: " + hashSize);
+        }
+        this.pseudoLegal = pseudoLegal;
+        this.hashSize = hashSize;
+        // Both arrays are final and allocated up front, so that every task sees the same, fully allocated pair.
+        this.hashKeys = new long[hashSize];
+        this.hashCounts = new long[hashSize];
+    }
 
-        nodesPerMove.entrySet().stream()
-                .sorted(Comparator.comparing(entry -> Move.toUCI(entry.getKey())))
-                .forEach(entry -> UCI.write(String.format("%s: %s", Move.toUCI(entry.getKey()), entry.getValue())));
+    public long perft(Board board, int depth) {
+        // Start from an empty table, since the cached counts depend on the Chess960 setting.
+        clear();
+        final long totalNodes = count(board, depth, true);
         UCI.write(String.format("Nodes searched: %s", totalNodes));
+        return totalNodes;
+    }
+
+    /**
+     * Counts the leaf nodes at the given depth without printing anything, splitting the root moves across the common
+     * fork-join pool. Safe to call concurrently, since the hash table is lockless.
+     */
+    public long count(Board board, int depth) {
+        return count(board, depth, false);
+    }
+
+    public void clear() {
+        Arrays.fill(hashKeys, 0L);
+        Arrays.fill(hashCounts, 0L);
+    }
+
+    private long count(Board board, int depth, boolean printMoves) {
+        final int[] rootMoves = new int[MoveGenerator.MAX_MOVES];
+        final int moveCount = movegen.generateMoves(board, MoveFilter.ALL, rootMoves);
+        if (depth <= 1) {
+            nodesSearched = 1;
+            return depth == 1 ? moveCount : 1;
+        }
+
+        final List<PerftTask> tasks = new ArrayList<>(moveCount);
+        for (int i = 0; i < moveCount; i++) {
+            final Board child = board.copy();
+            child.makeMove(rootMoves[i]);
+            tasks.add(new PerftTask(child, depth - 1));
+        }
+        // Submitted through the pool rather than forked directly, since the caller may not be a fork-join worker.
+        ForkJoinPool.commonPool().invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+
+        long totalNodes = 0;
+        long totalInteriorNodes = 1;
+        for (PerftTask task : tasks) {
+            totalNodes += task.join();
+            totalInteriorNodes += task.interiorNodes;
+        }
+        nodesSearched = totalInteriorNodes;
+
+        if (printMoves) {
+            IntStream.range(0, moveCount)
+                    .boxed()
+                    .sorted(Comparator.comparing(i -> Move.toUCI(rootMoves[i])))
+                    .forEach(i -> UCI.write(String.format("%s: %s", Move.toUCI(rootMoves[i]), tasks.get(i).join())));
+        }
 
         return totalNodes;
     }
 
-    public long perft(Board board, int depth, int originalDepth) {
-        nodesSearched++;
-        List<Move> moves = movegen.generateMoves(board);
-        if (depth == 1) {
-            return moves.size();
+    private long probe(long key, int depth) {
+        if (hashSize == 0) return -1;
+        final long hash = key ^ (depth * DEPTH_SALT);
+        final int index = (int) hash & (hashSize - 1);
+        final long count = hashCounts[index];
+        return (hashKeys[index] ^ count) == hash ? count : -1;
+    }
+
+    private void store(long key, int depth, long count) {
+        if (hashSize == 0) return;
+        final long hash = key ^ (depth * DEPTH_SALT);
+        final int index = (int) hash & (hashSize - 1);
+        hashCounts[index] = count;
+        hashKeys[index] = hash ^ count;
+    }
+
+    /**
+     * Counts the leaf nodes below a single root move, using its own copy of the board and its own move buffers.
+     */
+    private class PerftTask extends RecursiveTask<Long> {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final Board board;
+        private final int depth;
+        private final int[][] moves;
+        private long interiorNodes;
+
+        private PerftTask(Board board, int depth) {
+            this.board = board;
+            this.depth = depth;
+            this.moves = new int[Math.max(depth, 1)][MoveGenerator.MAX_MOVES];
+        }
+
+        @Override
+        protected Long compute() {
+            return perft(depth, 0);
         }
-        long totalMoveCount = 0;
-        for (Move move : moves) {
-            board.makeMove(move);
-            long moveCount = perft(board, depth - 1, originalDepth);
-            if (depth == originalDepth) {
-                nodesPerMove.put(move, moveCount);
+
+        private long perft(int depth, int ply) {
+            interiorNodes++;
+            if (depth == 0) {
+                return 1;
+            }
+
+            final long key = board.key();
+            if (depth > 1) {
+                final long cached = probe(key, depth);
+                if (cached >= 0) {
+                    return cached;
+                }
             }
-            totalMoveCount += moveCount;
-            board.unmakeMove();
+
+            final int[] buffer = moves[ply];
+            final long totalMoveCount = pseudoLegal ? pseudoLegalPerft(depth, ply, buffer) : legalPerft(depth, ply, buffer);
+
+            if (depth > 1) {
+                store(key, depth, totalMoveCount);
+            }
+            return totalMoveCount;
         }
-        return totalMoveCount;
+
+        private long legalPerft(int depth, int ply, int[] buffer) {
+            final int count = movegen.generateMoves(board, MoveFilter.ALL, buffer);
+            if (depth == 1) {
+                return count;
+            }
+            long totalMoveCount = 0;
+            for (int i = 0; i < count; i++) {
+                board.makeMove(buffer[i]);
+                totalMoveCount += perft(depth - 1, ply + 1);
+                board.unmakeMove();
+            }
+            return totalMoveCount;
+        }
+
+        private long pseudoLegalPerft(int depth, int ply, int[] buffer) {
+            final int count = movegen.generatePseudoLegalMoves(board, MoveFilter.ALL, buffer);
+            long totalMoveCount = 0;
+            for (int i = 0; i < count; i++) {
+                final int move = buffer[i];
+                if (movegen.leavesKingInCheck(board, move)) {
+                    continue;
+                }
+                if (depth == 1) {
+                    totalMoveCount++;
+                    continue;
+                }
+                board.makeMove(move);
+                totalMoveCount += perft(depth - 1, ply + 1);
+                board.unmakeMove();
+            }
+            return totalMoveCount;
+        }
+
     }
 
 }
@@ -0,0 +1,66 @@
+package com.kelseyde.calvin.utils;
+
+import com.kelseyde.calvin.uci.UCI;
+import com.kelseyde.calvin.utils.notation.FEN;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a suite of perft tests from an EPD file, where each line holds a FEN followed by the expected leaf counts, in
+ * the form 'fen ;D1 20 ;D2 400 ...'. Every (position, depth) pair is run in parallel on the common fork-join pool,
+ * sharing a single perft hash table, and the failures and overall throughput are printed at the end.
+ */
+public class PerftSuite {
+
+    private record PerftCase(String fen, int depth, long expected) {}
+
+    public static void run(Path path, int maxDepth) throws IOException {
+
+        final List<PerftCase> cases = parse(Files.readAllLines(path), maxDepth);
+        final Perft perft = new Perft();
+        final AtomicInteger failures = new AtomicInteger();
+
+        final Instant start = Instant.now();
+        final long nodes = cases.parallelStream()
+                .mapToLong(perftCase -> {
+                    final long actual = perft.count(FEN.toBoard(perftCase.fen()), perftCase.depth());
+                    if (actual != perftCase.expected()) {
+                        failures.incrementAndGet();
+                        UCI.write(String.format("info string perft failed: %s depth %s expected %s actual %s",
+                                perftCase.fen(), perftCase.depth(), perftCase.expected(), actual));
+                    }
+                    return actual;
+                })
+                .sum();
+        final long millis = Math.max(Duration.between(start, Instant.now()).toMillis(), 1);
+
+        UCI.write(String.format("info string perft suite: %s tests, %s failed, %s nodes %s ms %s nps",
+                cases.size(), failures.get(), nodes, millis, nodes * 1000 / millis));
+
+    }
+
+    private static List<PerftCase> parse(List<String> lines, int maxDepth) {
+        final List<PerftCase> cases = new ArrayList<>();
+        for (String line : lines) {
+            if (line.isBlank()) continue;
+            final String[] parts = line.split(";");
+            final String fen = parts[0].trim();
+            for (int i = 1; i < parts.length; i++) {
+                final String[] entry = parts[i].trim().split(" ");
+                final int depth = Integer.parseInt(entry[0].substring(1));
+                if (depth <= maxDepth) {
+                    cases.add(new PerftCase(fen, depth, Long.parseLong(entry[1].trim())));
+                }
+            }
+        }
+        return cases;
+    }
+
+}
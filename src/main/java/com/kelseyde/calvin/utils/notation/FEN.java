@@ -98,6 +98,7 @@ public class FEN {
             board.getState().setKey(Key.generateKey(board));
             board.getState().setPawnKey(Key.generatePawnKey(board));
             board.getState().setNonPawnKeys(Key.generateNonPawnKeys(board));
+            board.getState().setMaterialKey(Key.generateMaterialKey(board));
 
             return board;
 
@@ -269,17 +270,18 @@ public class FEN {
         return isLetter ? Stream.of(square) : IntStream.range(0, Integer.parseInt(square)).mapToObj(i -> "x");
     }
 
-    public static Piece[] calculatePieceList(Board board) {
+    public static byte[] calculatePieceList(Board board) {
 
-        Piece[] pieceList = new Piece[Square.COUNT];
+        byte[] pieceList = new byte[Square.COUNT];
         for (int square = 0; square < Square.COUNT; square++) {
             long squareMask = Bits.of(square);
-            if ((squareMask & board.getPawns()) != 0)           pieceList[square] = Piece.PAWN;
-            else if ((squareMask & board.getKnights()) != 0)    pieceList[square] = Piece.KNIGHT;
-            else if ((squareMask & board.getBishops()) != 0)    pieceList[square] = Piece.BISHOP;
-            else if ((squareMask & board.getRooks()) != 0)      pieceList[square] = Piece.ROOK;
-            else if ((squareMask & board.getQueens()) != 0)     pieceList[square] = Piece.QUEEN;
-            else if ((squareMask & board.getKings()) != 0)      pieceList[square] = Piece.KING;
+            if ((squareMask & board.getPawns()) != 0)           pieceList[square] = Piece.PAWN_INDEX;
+            else if ((squareMask & board.getKnights()) != 0)    pieceList[square] = Piece.KNIGHT_INDEX;
+            else if ((squareMask & board.getBishops()) != 0)    pieceList[square] = Piece.BISHOP_INDEX;
+            else if ((squareMask & board.getRooks()) != 0)      pieceList[square] = Piece.ROOK_INDEX;
+            else if ((squareMask & board.getQueens()) != 0)     pieceList[square] = Piece.QUEEN_INDEX;
+            else if ((squareMask & board.getKings()) != 0)      pieceList[square] = Piece.KING_INDEX;
+            else                                                pieceList[square] = Piece.NONE;
         }
         return pieceList;
 
@@ -4,15 +4,15 @@ import com.kelseyde.calvin.board.Board;
 import com.kelseyde.calvin.board.Move;
 
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 
 public class PGN {
 
     public static String toPGN(Board board) {
 
-        List<Move> moves = Arrays.asList(board.getMoves());
-        Collections.reverse(moves);
+        List<Move> moves = Arrays.stream(board.getMoves(), 0, board.getPly())
+                .mapToObj(Move::of)
+                .toList();
         Board boardCopy = new Board();
 
         StringBuilder pgn = new StringBuilder();
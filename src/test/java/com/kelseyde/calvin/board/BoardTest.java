@@ -35,7 +35,7 @@ public class BoardTest {
 
         int moves = 0;
         for (int i = 0; i < board.getPly(); i++) {
-            if (board.getMoves()[i] != null) {
+            if (board.getMoves()[i] != Move.NONE) {
                 moves++;
             }
         }
@@ -1,5 +1,6 @@
 package com.kelseyde.calvin.board;
 
+import com.kelseyde.calvin.board.Bits.Square;
 import com.kelseyde.calvin.utils.IllegalMoveException;
 import com.kelseyde.calvin.utils.TestUtils;
 import com.kelseyde.calvin.utils.notation.FEN;
@@ -330,4 +331,43 @@ public class CheckTest {
 
     }
 
+    @Test
+    public void checkersAndPinsAreRestoredOnUnmake() {
+
+        Board board = Board.from(FEN.STARTPOS);
+        board.makeMove(TestUtils.getLegalMove(board, "e2", "e4"));
+        board.makeMove(TestUtils.getLegalMove(board, "f7", "f6"));
+        board.makeMove(TestUtils.getLegalMove(board, "d1", "h5"));
+
+        // the queen gives check along the diagonal, and the g-pawn cannot block without being pinned
+        Assertions.assertTrue(board.inCheck());
+        Assertions.assertEquals(Bits.of(Square.fromNotation("h5")), board.checkers());
+        Assertions.assertEquals(0L, board.pinned());
+
+        board.makeMove(TestUtils.getLegalMove(board, "g7", "g6"));
+        Assertions.assertFalse(board.inCheck());
+        board.makeMove(TestUtils.getLegalMove(board, "a2", "a3"));
+        Assertions.assertEquals(Bits.of(Square.fromNotation("g6")), board.pinned());
+        Assertions.assertEquals(Bits.of(Square.fromNotation("h5")), board.pinners());
+
+        board.unmakeMove();
+        board.unmakeMove();
+        Assertions.assertTrue(board.inCheck());
+        Assertions.assertEquals(Bits.of(Square.fromNotation("h5")), board.checkers());
+
+    }
+
+    @Test
+    public void threatsSeeThroughTheKing() {
+
+        Board board = FEN.toBoard("R3k3/8/8/8/8/8/8/4K3 b - - 0 1");
+
+        // the king cannot step back along the rank it is checked on
+        Assertions.assertTrue(board.inCheck());
+        Assertions.assertTrue(Bits.contains(board.threats(), Square.fromNotation("d8")));
+        Assertions.assertTrue(Bits.contains(board.threats(), Square.fromNotation("f8")));
+        Assertions.assertFalse(Bits.contains(board.threats(), Square.fromNotation("f7")));
+
+    }
+
 }
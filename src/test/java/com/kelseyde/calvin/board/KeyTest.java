@@ -1,10 +1,14 @@
 package com.kelseyde.calvin.board;
 
+import com.kelseyde.calvin.movegen.MoveGenerator;
+import com.kelseyde.calvin.utils.Bench;
 import com.kelseyde.calvin.utils.notation.FEN;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 import java.util.stream.Stream;
 
 public class KeyTest {
@@ -324,4 +328,62 @@ public class KeyTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testMaterialKey() {
+
+        Board board = Board.from("r2qkbnr/pP1npppp/8/5b2/8/8/PPPP1PPP/RNBQKBNR w KQkq - 1 5");
+        long key = board.materialKey();
+
+        // Quiet moves don't change the material key
+        board.makeMove(Move.fromUCI("g1f3"));
+        Assertions.assertEquals(key, board.materialKey());
+        board.unmakeMove();
+
+        // Capture promotions do
+        board.makeMove(Move.fromUCI("b7a8q", Move.PROMOTE_TO_QUEEN_FLAG));
+        Assertions.assertNotEquals(key, board.materialKey());
+        Assertions.assertEquals(Key.generateMaterialKey(board), board.materialKey());
+        board.unmakeMove();
+        Assertions.assertEquals(key, board.materialKey());
+
+        // The material key is independent of piece placement
+        Assertions.assertEquals(
+                Board.from("4k3/8/8/8/8/8/3PP3/2N1K3 w - - 0 1").materialKey(),
+                Board.from("4k3/8/8/3N4/8/8/5PP1/4K3 b - - 0 1").materialKey());
+
+    }
+
+    @Test
+    public void testIncrementalKeysMatchRecomputedKeys() {
+
+        MoveGenerator movegen = new MoveGenerator();
+        Random random = new Random(18061995);
+
+        for (String fen : Bench.FENS) {
+            Board board = Board.from(fen);
+            int played = 0;
+            for (int i = 0; i < 100; i++) {
+                List<Move> moves = movegen.generateMoves(board);
+                if (moves.isEmpty()) break;
+                board.makeMove(moves.get(random.nextInt(moves.size())));
+                played++;
+                assertKeys(board);
+            }
+            while (played-- > 0) {
+                board.unmakeMove();
+                assertKeys(board);
+            }
+            Assertions.assertEquals(Board.from(fen).key(), board.key());
+        }
+
+    }
+
+    private void assertKeys(Board board) {
+        String fen = FEN.toFEN(board);
+        Assertions.assertEquals(Key.generateKey(board), board.key(), fen);
+        Assertions.assertEquals(Key.generatePawnKey(board), board.pawnKey(), fen);
+        Assertions.assertArrayEquals(Key.generateNonPawnKeys(board), board.nonPawnKeys(), fen);
+        Assertions.assertEquals(Key.generateMaterialKey(board), board.materialKey(), fen);
+    }
+
+}
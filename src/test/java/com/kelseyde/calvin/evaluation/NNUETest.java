@@ -41,7 +41,7 @@ public class NNUETest {
         NNUE nnue = new NNUE(board);
         Assertions.assertEquals(nnue.evaluate(), new NNUE(board).evaluate());
         Move move = Move.fromUCI("e1g1", Move.CASTLE_FLAG);
-        nnue.makeMove(board, move);
+        nnue.makeMove(board, move.value());
         board.makeMove(move);
         Assertions.assertEquals(nnue.evaluate(), new NNUE(board).evaluate());
         board.unmakeMove();
@@ -58,7 +58,7 @@ public class NNUETest {
         NNUE nnue = new NNUE(board);
         Assertions.assertEquals(nnue.evaluate(), new NNUE(board).evaluate());
         Move move = Move.fromUCI("e1c1", Move.CASTLE_FLAG);
-        nnue.makeMove(board, move);
+        nnue.makeMove(board, move.value());
         board.makeMove(move);
         Assertions.assertEquals(nnue.evaluate(), new NNUE(board).evaluate());
         board.unmakeMove();
@@ -76,7 +76,7 @@ public class NNUETest {
         NNUE nnue = new NNUE(board);
         Assertions.assertEquals(nnue.evaluate(), new NNUE(board).evaluate());
         Move move = Move.fromUCI("e1a1", Move.CASTLE_FLAG);
-        nnue.makeMove(board, move);
+        nnue.makeMove(board, move.value());
         board.makeMove(move);
         Assertions.assertEquals(nnue.evaluate(), new NNUE(board).evaluate());
         board.unmakeMove();
@@ -94,7 +94,7 @@ public class NNUETest {
         NNUE nnue = new NNUE(board);
         Assertions.assertEquals(nnue.evaluate(), new NNUE(board).evaluate());
         Move move = Move.fromUCI("e8g8", Move.CASTLE_FLAG);
-        nnue.makeMove(board, move);
+        nnue.makeMove(board, move.value());
         board.makeMove(move);
         Assertions.assertEquals(nnue.evaluate(), new NNUE(board).evaluate());
         board.unmakeMove();
@@ -111,7 +111,7 @@ public class NNUETest {
         NNUE nnue = new NNUE(board);
         Assertions.assertEquals(nnue.evaluate(), new NNUE(board).evaluate());
         Move move = Move.fromUCI("e8c8", Move.CASTLE_FLAG);
-        nnue.makeMove(board, move);
+        nnue.makeMove(board, move.value());
         board.makeMove(move);
         Assertions.assertEquals(nnue.evaluate(), new NNUE(board).evaluate());
         board.unmakeMove();
@@ -126,7 +126,7 @@ public class NNUETest {
         Board board = Board.from("rnbqkbnr/ppp1pppp/8/3p4/3P4/8/PPP1PPPP/RNBQKBNR w KQkq - 0 2");
         NNUE nnue = new NNUE(board);
         Move move = Move.fromUCI("e1d2");
-        nnue.makeMove(board, move);
+        nnue.makeMove(board, move.value());
         board.makeMove(move);
         Assertions.assertEquals(nnue.evaluate(), new NNUE(board).evaluate());
 
@@ -138,7 +138,7 @@ public class NNUETest {
         Board board = Board.from("rnbq1bnr/ppppkppp/8/4p3/4P3/8/PPPPKPPP/RNBQ1BNR w - - 2 3");
         NNUE nnue = new NNUE(board);
         Move move = Move.fromUCI("e2e3");
-        nnue.makeMove(board, move);
+        nnue.makeMove(board, move.value());
         board.makeMove(move);
         Assertions.assertEquals(nnue.evaluate(), new NNUE(board).evaluate());
 
@@ -150,7 +150,7 @@ public class NNUETest {
         Board board = Board.from("rnbq1bnr/ppppkppp/8/4p3/4P3/8/PPPPKPPP/RNBQ1BNR w - - 2 3");
         NNUE nnue = new NNUE(board);
         Move move = Move.fromUCI("e2d3");
-        nnue.makeMove(board, move);
+        nnue.makeMove(board, move.value());
         board.makeMove(move);
         Assertions.assertEquals(nnue.evaluate(), new NNUE(board).evaluate());
 
@@ -162,7 +162,7 @@ public class NNUETest {
         Board board = Board.from("rn1q1bnr/ppp2ppp/8/3p4/4P3/PNK2kpb/1PPP3P/RNB4R b - - 0 12");
         NNUE nnue = new NNUE(board);
         Move move = Move.fromUCI("f3e2");
-        nnue.makeMove(board, move);
+        nnue.makeMove(board, move.value());
         board.makeMove(move);
         Assertions.assertEquals(nnue.evaluate(), new NNUE(board).evaluate());
 
@@ -176,7 +176,7 @@ public class NNUETest {
         NNUE nnue = new NNUE(board);
         Assertions.assertEquals(nnue.evaluate(), new NNUE(board).evaluate());
         Move move = Move.fromUCI("e4d5");
-        nnue.makeMove(board, move);
+        nnue.makeMove(board, move.value());
         board.makeMove(move);
         Assertions.assertEquals(nnue.evaluate(), new NNUE(board).evaluate());
         board.unmakeMove();
@@ -193,7 +193,7 @@ public class NNUETest {
         NNUE nnue = new NNUE(board);
         Assertions.assertEquals(nnue.evaluate(), new NNUE(board).evaluate());
         Move move = Move.fromUCI("e5d6", Move.EN_PASSANT_FLAG);
-        nnue.makeMove(board, move);
+        nnue.makeMove(board, move.value());
         board.makeMove(move);
         Assertions.assertEquals(nnue.evaluate(), new NNUE(board).evaluate());
         board.unmakeMove();
@@ -210,7 +210,7 @@ public class NNUETest {
         NNUE nnue = new NNUE(board);
         Assertions.assertEquals(nnue.evaluate(), new NNUE(board).evaluate());
         Move move = Move.fromUCI("b7a8", Move.PROMOTE_TO_QUEEN_FLAG);
-        nnue.makeMove(board, move);
+        nnue.makeMove(board, move.value());
         board.makeMove(move);
         Assertions.assertEquals(nnue.evaluate(), new NNUE(board).evaluate());
         board.unmakeMove();
@@ -266,7 +266,7 @@ public class NNUETest {
 
         for (int i = 0; i < 10; i++) {
             Move move = new MoveGenerator().generateMoves(board).get(0);
-            nnue.makeMove(board, move);
+            nnue.makeMove(board, move.value());
             board.makeMove(move);
             Assertions.assertEquals(nnue.evaluate(), new NNUE(board).evaluate());
             board.unmakeMove();
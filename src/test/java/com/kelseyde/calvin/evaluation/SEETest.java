@@ -59,8 +59,8 @@ public class SEETest {
         Board board = Board.from(fen);
         Move move = legalMove(board, Move.fromUCI(parts[1].trim()));
         int threshold = Integer.parseInt(parts[2].trim());
-        if (SEE.see(board, move, threshold)
-                && !SEE.see(board, move, threshold + 1)) {
+        if (SEE.see(board, move.value(), threshold)
+                && !SEE.see(board, move.value(), threshold + 1)) {
             passed++;
         } else {
             int actualThreshold = findThreshold(board, move);
@@ -77,7 +77,7 @@ public class SEETest {
 
     private int findThreshold(Board board, Move move) {
         for (int i = 5000; i > -5000; i-= 10) {
-            if (SEE.see(board, move, i)) {
+            if (SEE.see(board, move.value(), i)) {
                 return i;
             }
         }
@@ -180,7 +180,7 @@ public class Chess960Test {
     private void assertMove(Board board, Move move, boolean exists) {
         List<Move> moves = MOVEGEN.generateMoves(board);
         Assertions.assertEquals(exists, moves.stream().anyMatch(m -> m.equals(move)));
-		Assertions.assertEquals(exists, MOVEGEN.isLegal(board, move));
+		Assertions.assertEquals(exists, MOVEGEN.isLegal(board, move.value()));
     }
 
     private void assertKingAndRook(Board board, String kingFrom, String kingTo, String rookFrom, String rookTo) {
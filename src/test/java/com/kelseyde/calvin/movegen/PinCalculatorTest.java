@@ -15,11 +15,9 @@ public class PinCalculatorTest {
         String fen = "4nk2/5p2/8/8/8/2PP4/2K1N3/8 w - - 0 1";
         Board board = FEN.toBoard(fen);
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(0L, movegen.getPinMask());
+        Assertions.assertEquals(0L, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(0L, movegen.getPinMask());
+        Assertions.assertEquals(0L, movegen.calculatePins(board, false));
 
     }
 
@@ -29,11 +27,9 @@ public class PinCalculatorTest {
         String fen = "4qkb1/5pb1/8/8/8/2PP4/2KBB3/2Q5 w - - 0 1";
         Board board = FEN.toBoard(fen);
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(0L, movegen.getPinMask());
+        Assertions.assertEquals(0L, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(0L, movegen.getPinMask());
+        Assertions.assertEquals(0L, movegen.calculatePins(board, false));
 
     }
 
@@ -43,11 +39,9 @@ public class PinCalculatorTest {
         String fen = "4qkr1/5pr1/3r4/8/8/2PP2R1/2KRR3/2Q5 w - - 0 1";
         Board board = FEN.toBoard(fen);
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(0L, movegen.getPinMask());
+        Assertions.assertEquals(0L, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(0L, movegen.getPinMask());
+        Assertions.assertEquals(0L, movegen.calculatePins(board, false));
 
     }
 
@@ -57,11 +51,9 @@ public class PinCalculatorTest {
         String fen = "8/8/3rk3/8/8/3K4/8/8 w - - 0 1";
         Board board = FEN.toBoard(fen);
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(0L, movegen.getPinMask());
+        Assertions.assertEquals(0L, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(0L, movegen.getPinMask());
+        Assertions.assertEquals(0L, movegen.calculatePins(board, false));
 
     }
 
@@ -71,11 +63,9 @@ public class PinCalculatorTest {
         String fen = "8/8/4k3/5b2/8/3K4/8/8 w - - 0 1";
         Board board = FEN.toBoard(fen);
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(0L, movegen.getPinMask());
+        Assertions.assertEquals(0L, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(0L, movegen.getPinMask());
+        Assertions.assertEquals(0L, movegen.calculatePins(board, false));
 
     }
 
@@ -85,11 +75,9 @@ public class PinCalculatorTest {
         String fen = "5k2/4q3/4p3/8/8/8/8/4K3 w - - 0 1";
         Board board = FEN.toBoard(fen);
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(0L, movegen.getPinMask());
+        Assertions.assertEquals(0L, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(0L, movegen.getPinMask());
+        Assertions.assertEquals(0L, movegen.calculatePins(board, false));
     }
 
     @Test
@@ -98,11 +86,9 @@ public class PinCalculatorTest {
         String fen = "4k3/4r3/8/8/8/8/4P3/4K3 w - - 0 1";
         Board board = FEN.toBoard(fen);
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(1L << 12, movegen.getPinMask());
+        Assertions.assertEquals(1L << 12, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(0L, movegen.getPinMask());
+        Assertions.assertEquals(0L, movegen.calculatePins(board, false));
 
     }
 
@@ -112,11 +98,9 @@ public class PinCalculatorTest {
         String fen = "4k3/4b3/8/8/8/8/4R3/4K3 w - - 0 1";
         Board board = FEN.toBoard(fen);
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(0L, movegen.getPinMask());
+        Assertions.assertEquals(0L, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(1L << 52, movegen.getPinMask());
+        Assertions.assertEquals(1L << 52, movegen.calculatePins(board, false));
 
     }
 
@@ -126,11 +110,9 @@ public class PinCalculatorTest {
         String fen = "8/3k4/3q4/8/8/3R4/3K4/8 w - - 0 1";
         Board board = FEN.toBoard(fen);
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(1L << 19, movegen.getPinMask());
+        Assertions.assertEquals(1L << 19, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(1L << 43, movegen.getPinMask());
+        Assertions.assertEquals(1L << 43, movegen.calculatePins(board, false));
 
     }
 
@@ -140,11 +122,9 @@ public class PinCalculatorTest {
         String fen = "8/3k4/3q4/3q4/3R4/3R4/3K4/8 w - - 0 1";
         Board board = FEN.toBoard(fen);
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(0, movegen.getPinMask());
+        Assertions.assertEquals(0, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(0, movegen.getPinMask());
+        Assertions.assertEquals(0, movegen.calculatePins(board, false));
 
     }
 
@@ -154,11 +134,9 @@ public class PinCalculatorTest {
         String fen = "4k3/4q3/4r3/8/4N3/4K3/8/8 w - - 0 1";
         Board board = FEN.toBoard(fen);
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(1L << 28, movegen.getPinMask());
+        Assertions.assertEquals(1L << 28, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(0, movegen.getPinMask());
+        Assertions.assertEquals(0, movegen.calculatePins(board, false));
 
     }
 
@@ -168,11 +146,9 @@ public class PinCalculatorTest {
         String fen = "KR4nk/8/8/8/8/8/8/8 w - - 0 1";
         Board board = FEN.toBoard(fen);
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(0, movegen.getPinMask());
+        Assertions.assertEquals(0, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(1L << 62, movegen.getPinMask());
+        Assertions.assertEquals(1L << 62, movegen.calculatePins(board, false));
 
     }
 
@@ -182,11 +158,9 @@ public class PinCalculatorTest {
         String fen = "KN4qk/8/8/8/8/8/8/8 w - - 0 1";
         Board board = FEN.toBoard(fen);
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(1L << 57, movegen.getPinMask());
+        Assertions.assertEquals(1L << 57, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(0, movegen.getPinMask());
+        Assertions.assertEquals(0, movegen.calculatePins(board, false));
 
     }
 
@@ -196,11 +170,9 @@ public class PinCalculatorTest {
         String fen = "K1n5/2q5/nqr1B3/5r2/6k1/8/8/8 w - - 0 1";
         Board board = FEN.toBoard(fen);
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(0, movegen.getPinMask());
+        Assertions.assertEquals(0, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(1L << 37, movegen.getPinMask());
+        Assertions.assertEquals(1L << 37, movegen.calculatePins(board, false));
 
     }
 
@@ -210,11 +182,9 @@ public class PinCalculatorTest {
         String fen = "8/8/8/8/1k6/2q5/3QK3/8 w - - 0 1";
         Board board = FEN.toBoard(fen);
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(0, movegen.getPinMask());
+        Assertions.assertEquals(0, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(1L << 18, movegen.getPinMask());
+        Assertions.assertEquals(1L << 18, movegen.calculatePins(board, false));
 
     }
 
@@ -224,11 +194,9 @@ public class PinCalculatorTest {
         String fen = "7k/8/8/1b6/2N5/3R4/3QK3/8 w - - 0 1";
         Board board = FEN.toBoard(fen);
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(0, movegen.getPinMask());
+        Assertions.assertEquals(0, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(0, movegen.getPinMask());
+        Assertions.assertEquals(0, movegen.calculatePins(board, false));
 
     }
 
@@ -238,11 +206,9 @@ public class PinCalculatorTest {
         String fen = "7k/6b1/8/8/8/8/1B6/1KRRRRR1 w - - 0 1";
         Board board = FEN.toBoard(fen);
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(0, movegen.getPinMask());
+        Assertions.assertEquals(0, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(1L << 54, movegen.getPinMask());
+        Assertions.assertEquals(1L << 54, movegen.calculatePins(board, false));
 
     }
 
@@ -252,11 +218,9 @@ public class PinCalculatorTest {
         String fen = "5q2/4Q3/3K4/7r/7r/7r/7r/7k w - - 0 1";
         Board board = FEN.toBoard(fen);
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(1L << 52, movegen.getPinMask());
+        Assertions.assertEquals(1L << 52, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(0, movegen.getPinMask());
+        Assertions.assertEquals(0, movegen.calculatePins(board, false));
 
     }
 
@@ -266,11 +230,9 @@ public class PinCalculatorTest {
         String fen = "7K/8/8/4B3/3b4/8/8/k7 w - - 0 1";
         Board board = FEN.toBoard(fen);
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(1L << 36, movegen.getPinMask());
+        Assertions.assertEquals(1L << 36, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(1L << 27, movegen.getPinMask());
+        Assertions.assertEquals(1L << 27, movegen.calculatePins(board, false));
 
     }
 
@@ -280,11 +242,9 @@ public class PinCalculatorTest {
         String fen = "7K/8/8/4B3/3b4/2b5/8/k7 w - - 0 1";
         Board board = FEN.toBoard(fen);
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(1L << 36, movegen.getPinMask());
+        Assertions.assertEquals(1L << 36, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(0, movegen.getPinMask());
+        Assertions.assertEquals(0, movegen.calculatePins(board, false));
 
     }
 
@@ -298,11 +258,9 @@ public class PinCalculatorTest {
         expectedPinMask |= 1L << 2;
         expectedPinMask |= 1L << 4;
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(expectedPinMask, movegen.getPinMask());
+        Assertions.assertEquals(expectedPinMask, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(0, movegen.getPinMask());
+        Assertions.assertEquals(0, movegen.calculatePins(board, false));
 
     }
 
@@ -316,11 +274,9 @@ public class PinCalculatorTest {
         expectedPinMask |= 1L << 20;
         expectedPinMask |= 1L << 36;
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(0, movegen.getPinMask());
+        Assertions.assertEquals(0, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(expectedPinMask, movegen.getPinMask());
+        Assertions.assertEquals(expectedPinMask, movegen.calculatePins(board, false));
 
     }
 
@@ -334,11 +290,9 @@ public class PinCalculatorTest {
         expectedPinMask |= 1L << 19;
         expectedPinMask |= 1L << 37;
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(0, movegen.getPinMask());
+        Assertions.assertEquals(0, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(expectedPinMask, movegen.getPinMask());
+        Assertions.assertEquals(expectedPinMask, movegen.calculatePins(board, false));
 
     }
 
@@ -352,11 +306,9 @@ public class PinCalculatorTest {
         expectedPinMask |= 1L << 35;
         expectedPinMask |= 1L << 21;
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(1L << 42, movegen.getPinMask());
+        Assertions.assertEquals(1L << 42, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(expectedPinMask, movegen.getPinMask());
+        Assertions.assertEquals(expectedPinMask, movegen.calculatePins(board, false));
     }
 
     @Test
@@ -375,11 +327,9 @@ public class PinCalculatorTest {
         expectedBlackPinMask |= 1L << 12;
         expectedBlackPinMask |= 1L << 13;
 
-        movegen.calculatePins(board, true);
-        Assertions.assertEquals(expectedWhitePinMask, movegen.getPinMask());
+        Assertions.assertEquals(expectedWhitePinMask, movegen.calculatePins(board, true));
 
-        movegen.calculatePins(board, false);
-        Assertions.assertEquals(expectedBlackPinMask, movegen.getPinMask());
+        Assertions.assertEquals(expectedBlackPinMask, movegen.calculatePins(board, false));
 
     }
 
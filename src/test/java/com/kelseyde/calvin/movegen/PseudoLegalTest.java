@@ -8,7 +8,9 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class PseudoLegalTest {
 
@@ -20,12 +22,49 @@ public class PseudoLegalTest {
 		// Test king side castling
         Board board = Board.from("r3k2r/p1p1qpb1/bn1ppnpB/3PN3/1p2P3/1PN2Q1p/P1P1BPPP/R3K2R b KQkq - 0 2");
         Move move = Move.fromUCI("e8g8", Move.CASTLE_FLAG);
-        Assertions.assertTrue(movegen.isPseudoLegal(board, move));
+        Assertions.assertTrue(movegen.isPseudoLegal(board, move.value()));
 
 		// Test queen side castling
         board = Board.from("r3k2r/2pb1ppp/2pp1q2/1Q6/pnP1B3/1P2P3/P2N1PPP/R3K2R b KQkq - 1 2");
 		move = Move.fromUCI("e8c8", Move.CASTLE_FLAG);
-		Assertions.assertTrue(movegen.isPseudoLegal(board, move));
+		Assertions.assertTrue(movegen.isPseudoLegal(board, move.value()));
+    }
+
+    @Test
+    public void testPseudoLegalMovesFilteredByLegalityMatchLegalMoves() {
+
+        int[] legal = new int[MoveGenerator.MAX_MOVES];
+        int[] pseudoLegal = new int[MoveGenerator.MAX_MOVES];
+        for (String fen : Bench.FENS) {
+            Board board = Board.from(fen);
+            int legalCount = movegen.generateMoves(board, MoveGenerator.MoveFilter.ALL, legal);
+            int pseudoLegalCount = movegen.generatePseudoLegalMoves(board, MoveGenerator.MoveFilter.ALL, pseudoLegal);
+
+            Set<Integer> expected = new HashSet<>();
+            for (int i = 0; i < legalCount; i++) {
+                expected.add(legal[i]);
+            }
+            Set<Integer> actual = new HashSet<>();
+            for (int i = 0; i < pseudoLegalCount; i++) {
+                if (!movegen.leavesKingInCheck(board, pseudoLegal[i])) {
+                    actual.add(pseudoLegal[i]);
+                }
+            }
+            Assertions.assertEquals(expected, actual, fen);
+        }
+
+    }
+
+    @Test
+    public void testPinnedPieceLeavesKingInCheck() {
+
+        // The knight on d2 is pinned by the bishop on a5, and the rook on e2 by the rook on e8
+        Board board = Board.from("4r1k1/8/8/b7/8/8/3NR3/4K3 w - - 0 1");
+        Assertions.assertTrue(movegen.leavesKingInCheck(board, Move.fromUCI("d2f3").value()));
+        Assertions.assertTrue(movegen.leavesKingInCheck(board, Move.fromUCI("e2a2").value()));
+        Assertions.assertFalse(movegen.leavesKingInCheck(board, Move.fromUCI("e2e8").value()));
+        Assertions.assertFalse(movegen.leavesKingInCheck(board, Move.fromUCI("e2e5").value()));
+
     }
 
     // Disabled as it takes a long time - used for debugging
@@ -45,7 +84,7 @@ public class PseudoLegalTest {
         }
         long totalMoveCount = 0;
         for (Move move : moves) {
-            if (!movegen.isPseudoLegal(board, move)) {
+            if (!movegen.isPseudoLegal(board, move.value())) {
                 Assertions.fail(FEN.toFEN(board) + " " + Move.toUCI(move));
             }
             board.makeMove(move);
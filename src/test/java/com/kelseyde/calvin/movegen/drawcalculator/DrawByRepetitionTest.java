@@ -183,4 +183,42 @@ public class DrawByRepetitionTest {
 
     }
 
+    @Test
+    public void testUpcomingRepetition() {
+
+        Board board = Board.from(FEN.STARTPOS);
+        board.makeMove(TestUtils.getLegalMove(board, "g1", "f3"));
+        board.makeMove(TestUtils.getLegalMove(board, "g8", "f6"));
+        Assertions.assertFalse(Score.hasUpcomingRepetition(board));
+
+        board.makeMove(TestUtils.getLegalMove(board, "f3", "g1"));
+        // black can play Ng8 to return to the starting position
+        Assertions.assertFalse(Score.isEffectiveDraw(board));
+        Assertions.assertTrue(Score.hasUpcomingRepetition(board));
+
+    }
+
+    @Test
+    public void testUpcomingRepetitionAfterIrreversibleMove() {
+
+        Board board = Board.from(FEN.STARTPOS);
+        board.makeMove(TestUtils.getLegalMove(board, "g1", "f3"));
+        board.makeMove(TestUtils.getLegalMove(board, "g8", "f6"));
+        board.makeMove(TestUtils.getLegalMove(board, "f3", "g1"));
+        Assertions.assertTrue(Score.hasUpcomingRepetition(board));
+
+        // the pawn move resets the reversible window
+        board.makeMove(TestUtils.getLegalMove(board, "e7", "e6"));
+        Assertions.assertFalse(Score.hasUpcomingRepetition(board));
+
+        board.makeMove(TestUtils.getLegalMove(board, "g1", "f3"));
+        board.makeMove(TestUtils.getLegalMove(board, "f6", "g8"));
+        Assertions.assertFalse(Score.hasUpcomingRepetition(board));
+
+        // black can play Nf6 to return to the position after e6
+        board.makeMove(TestUtils.getLegalMove(board, "f3", "g1"));
+        Assertions.assertTrue(Score.hasUpcomingRepetition(board));
+
+    }
+
 }
@@ -2,6 +2,7 @@ package com.kelseyde.calvin.search.picker;
 
 import com.kelseyde.calvin.board.Board;
 import com.kelseyde.calvin.board.Move;
+import com.kelseyde.calvin.board.Piece;
 import com.kelseyde.calvin.engine.EngineConfig;
 import com.kelseyde.calvin.movegen.MoveGenerator;
 import com.kelseyde.calvin.search.SearchHistory;
@@ -38,19 +39,19 @@ public class MovePickerTest {
             Move ttMove = legalMoves.get(new Random().nextInt(legalMoves.size()));
             Move killer1 = randomQuiet(board, legalMoves);
             Move killer2 = randomQuiet(board, legalMoves);
-            history.getKillerTable().add(0, killer1);
-            history.getKillerTable().add(0, killer2);
+            history.getKillerTable().add(0, Move.value(killer1));
+            history.getKillerTable().add(0, Move.value(killer2));
 
-            MovePicker picker = new MovePicker(TestUtils.CONFIG, moveGenerator, ss, history, board, 0, ttMove, false);
+            MovePicker picker = new MovePicker(TestUtils.CONFIG, moveGenerator, ss, history, board, 0, ttMove.value(), false);
 
             int maxIndex = -1;
-            List<Move> tried = new ArrayList<>();
+            List<Integer> tried = new ArrayList<>();
             while (true) {
-                ScoredMove move = picker.next();
-                if (move == null) break;  // No more moves to pick
+                long move = picker.next();
+                if (move == ScoredMove.NONE) break;  // No more moves to pick
 
                 // Get the move type from the current move
-                MoveType currentMoveType = move.moveType();
+                MoveType currentMoveType = ScoredMove.moveType(move);
 
                 // Ensure the move type is in the expected order
                 int currentIndex = expectedOrder.indexOf(currentMoveType);
@@ -59,7 +60,7 @@ public class MovePickerTest {
 
                 // Update the highest index seen
                 maxIndex = currentIndex;
-                tried.add(move.move());
+                tried.add(ScoredMove.move(move));
             }
             if (tried.size() != legalMoves.size()) {
                 Assertions.fail("Tried moves do not match legal moves.");
@@ -82,21 +83,21 @@ public class MovePickerTest {
         Move killer1 = Move.fromUCI("f4f5");
         Move killer2 = Move.fromUCI("f3e2");
 
-        history.getKillerTable().add(0, killer1);
-        history.getKillerTable().add(0, killer2);
+        history.getKillerTable().add(0, Move.value(killer1));
+        history.getKillerTable().add(0, Move.value(killer2));
 
         SearchStack ss = new SearchStack();
-        MovePicker picker = new MovePicker(TestUtils.CONFIG, moveGenerator, ss, history, board, 0, ttMove, false);
+        MovePicker picker = new MovePicker(TestUtils.CONFIG, moveGenerator, ss, history, board, 0, ttMove.value(), false);
         List<Move> legalMoves = moveGenerator.generateMoves(board);
 
         int maxIndex = -1;
-        List<Move> tried = new ArrayList<>();
+        List<Integer> tried = new ArrayList<>();
         while (true) {
-            ScoredMove move = picker.next();
-            if (move == null) break;  // No more moves to pick
+            long move = picker.next();
+            if (move == ScoredMove.NONE) break;  // No more moves to pick
 
             // Get the move type from the current move
-            MoveType currentMoveType = move.moveType();
+            MoveType currentMoveType = ScoredMove.moveType(move);
 
             // Ensure the move type is in the expected order
             int currentIndex = expectedOrder.indexOf(currentMoveType);
@@ -105,7 +106,7 @@ public class MovePickerTest {
 
             // Update the highest index seen
             maxIndex = currentIndex;
-            tried.add(move.move());
+            tried.add(ScoredMove.move(move));
         }
         if (tried.size() != legalMoves.size()) {
             Assertions.fail("Tried moves do not match legal moves.");
@@ -132,24 +133,46 @@ public class MovePickerTest {
         String fen = "rnbqkbnr/1p2pppp/p2p4/1Bp5/4P3/5N2/PPPP1PPP/RNBQK2R b KQkq - 0 1";
         Board board = FEN.toBoard(fen);
 
-        MovePicker picker = new MovePicker(TestUtils.CONFIG, moveGenerator, new SearchStack(), new SearchHistory(new EngineConfig()), board, 0, null, true);
+        MovePicker picker = new MovePicker(TestUtils.CONFIG, moveGenerator, new SearchStack(), new SearchHistory(new EngineConfig()), board, 0, Move.NONE, true);
 
-        List<ScoredMove> moves = new ArrayList<>();
+        List<Long> moves = new ArrayList<>();
         while (true) {
-            ScoredMove move = picker.next();
-            if (move == null) break;
+            long move = picker.next();
+            if (move == ScoredMove.NONE) break;
             moves.add(move);
         }
 
         Assertions.assertEquals(5, moves.size());
     }
 
+    @Test
+    public void testScoredMoveEncoding() {
+
+        int move = Move.fromUCI("e7e8q").value();
+        long scoredMove = ScoredMove.of(move, Piece.PAWN_INDEX, Piece.NONE, -1234567, -8192, MoveType.BAD_NOISY);
+
+        Assertions.assertEquals(move, ScoredMove.move(scoredMove));
+        Assertions.assertEquals(Piece.PAWN_INDEX, ScoredMove.piece(scoredMove));
+        Assertions.assertEquals(Piece.NONE, ScoredMove.captured(scoredMove));
+        Assertions.assertEquals(-1234567, ScoredMove.score(scoredMove));
+        Assertions.assertEquals(-8192, ScoredMove.historyScore(scoredMove));
+        Assertions.assertTrue(ScoredMove.isBadNoisy(scoredMove));
+
+        long capture = ScoredMove.of(move, Piece.KING_INDEX, Piece.QUEEN_INDEX, 9000, 8192, MoveType.GOOD_NOISY);
+        Assertions.assertEquals(Piece.KING_INDEX, ScoredMove.piece(capture));
+        Assertions.assertEquals(Piece.QUEEN_INDEX, ScoredMove.captured(capture));
+        Assertions.assertEquals(9000, ScoredMove.score(capture));
+        Assertions.assertEquals(8192, ScoredMove.historyScore(capture));
+        Assertions.assertTrue(ScoredMove.isGoodNoisy(capture));
+
+    }
+
     private Move randomQuiet(Board board, List<Move> legalMoves) {
 
         int tried = 0;
         while (tried < legalMoves.size()) {
             Move move = legalMoves.get(new Random().nextInt(legalMoves.size()));
-            if (board.isQuiet(move)) {
+            if (board.isQuiet(move.value())) {
                 return move;
             }
             tried++;
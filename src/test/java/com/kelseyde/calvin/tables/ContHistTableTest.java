@@ -17,21 +17,21 @@ public class ContHistTableTest {
     @Test
     public void testNoMatch() {
         ContinuationHistoryTable contHistTable = new ContinuationHistoryTable(TestUtils.CONFIG);
-        Move prevMove = Move.fromUCI("e2e4");
-        Piece prevPiece = Piece.PAWN;
-        Move currMove = Move.fromUCI("d5e4");
-        Piece currPiece = Piece.PAWN;
+        int prevMove = Move.fromUCI("e2e4").value();
+        int prevPiece = Piece.PAWN_INDEX;
+        int currMove = Move.fromUCI("d5e4").value();
+        int currPiece = Piece.PAWN_INDEX;
         assertEquals(0, contHistTable.get(prevMove, prevPiece, currMove, currPiece, true));
     }
 
     @Test
     public void testAdd() {
         ContinuationHistoryTable contHistTable = new ContinuationHistoryTable(TestUtils.CONFIG);
-        Move prevMove = Move.fromUCI("e2e4");
-        Piece prevPiece = Piece.PAWN;
+        int prevMove = Move.fromUCI("e2e4").value();
+        int prevPiece = Piece.PAWN_INDEX;
         int depth = 8;
-        Move currMove = Move.fromUCI("d5e4");
-        Piece currPiece = Piece.PAWN;
+        int currMove = Move.fromUCI("d5e4").value();
+        int currPiece = Piece.PAWN_INDEX;
         contHistTable.update(prevMove, prevPiece, currMove, currPiece, depth, true, true);
         assertEquals(1200, contHistTable.get(prevMove, prevPiece, currMove, currPiece, true));
     }
@@ -39,11 +39,11 @@ public class ContHistTableTest {
     @Test
     public void testSub() {
         ContinuationHistoryTable contHistTable = new ContinuationHistoryTable(TestUtils.CONFIG);
-        Move prevMove = Move.fromUCI("e2e4");
-        Piece prevPiece = Piece.PAWN;
+        int prevMove = Move.fromUCI("e2e4").value();
+        int prevPiece = Piece.PAWN_INDEX;
         int depth = 8;
-        Move currMove = Move.fromUCI("d5e4");
-        Piece currPiece = Piece.PAWN;
+        int currMove = Move.fromUCI("d5e4").value();
+        int currPiece = Piece.PAWN_INDEX;
         contHistTable.update(prevMove, prevPiece, currMove, currPiece, depth, true, false);
         assertEquals(-1200, contHistTable.get(prevMove, prevPiece, currMove, currPiece, true));
     }
@@ -52,24 +52,24 @@ public class ContHistTableTest {
     public void testAddWithSearchStack() {
         ContinuationHistoryTable contHistTable = new ContinuationHistoryTable(TestUtils.CONFIG);
         SearchStack ss = new SearchStack();
-        Move prevMove = Move.fromUCI("e2e4");
-        Piece prevPiece = Piece.PAWN;
-        ss.get(0).currentMove = new SearchHistory.PlayedMove(prevMove, prevPiece, null);
+        int prevMove = Move.fromUCI("e2e4").value();
+        int prevPiece = Piece.PAWN_INDEX;
+        ss.get(0).currentMove = SearchHistory.PlayedMove.of(prevMove, prevPiece, Piece.NONE);
         int depth = 8;
-        Move currMove = Move.fromUCI("d5e4");
-        Piece currPiece = Piece.PAWN;
-        contHistTable.update(ss.get(0).currentMove.move(), ss.get(0).currentMove.piece(), currMove, currPiece, depth, true, true);
-        assertEquals(1200, contHistTable.get(ss.get(0).currentMove.move(), ss.get(0).currentMove.piece(), currMove, currPiece, true));
+        int currMove = Move.fromUCI("d5e4").value();
+        int currPiece = Piece.PAWN_INDEX;
+        contHistTable.update(SearchHistory.PlayedMove.move(ss.get(0).currentMove), SearchHistory.PlayedMove.piece(ss.get(0).currentMove), currMove, currPiece, depth, true, true);
+        assertEquals(1200, contHistTable.get(SearchHistory.PlayedMove.move(ss.get(0).currentMove), SearchHistory.PlayedMove.piece(ss.get(0).currentMove), currMove, currPiece, true));
     }
 
     @Test
     public void testAddTwice() {
         ContinuationHistoryTable contHistTable = new ContinuationHistoryTable(TestUtils.CONFIG);
-        Move prevMove = Move.fromUCI("e2e4");
-        Piece prevPiece = Piece.PAWN;
+        int prevMove = Move.fromUCI("e2e4").value();
+        int prevPiece = Piece.PAWN_INDEX;
         int depth = 8;
-        Move currMove = Move.fromUCI("d5e4");
-        Piece currPiece = Piece.PAWN;
+        int currMove = Move.fromUCI("d5e4").value();
+        int currPiece = Piece.PAWN_INDEX;
         contHistTable.update(prevMove, prevPiece, currMove, currPiece, depth, true, true);
         contHistTable.update(prevMove, prevPiece, currMove, currPiece, depth, true, true);
         assertEquals(2225, contHistTable.get(prevMove, prevPiece, currMove, currPiece, true));
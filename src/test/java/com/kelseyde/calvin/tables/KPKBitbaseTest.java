@@ -0,0 +1,45 @@
+package com.kelseyde.calvin.tables;
+
+import com.kelseyde.calvin.tables.bitbase.KPKBitbase;
+import com.kelseyde.calvin.utils.notation.FEN;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class KPKBitbaseTest {
+
+    @Test
+    public void testKingInFrontOfPawnOnSixthRankWins() {
+        Assertions.assertFalse(KPKBitbase.isDraw(FEN.toBoard("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1")));
+        Assertions.assertFalse(KPKBitbase.isDraw(FEN.toBoard("4k3/8/4K3/4P3/8/8/8/8 b - - 0 1")));
+    }
+
+    @Test
+    public void testBlackPawnWins() {
+        Assertions.assertFalse(KPKBitbase.isDraw(FEN.toBoard("8/8/8/8/4p3/4k3/8/4K3 b - - 0 1")));
+        Assertions.assertFalse(KPKBitbase.isDraw(FEN.toBoard("8/8/8/8/4p3/4k3/8/4K3 w - - 0 1")));
+    }
+
+    @Test
+    public void testStalemateIsDraw() {
+        Assertions.assertTrue(KPKBitbase.isDraw(FEN.toBoard("4k3/4P3/4K3/8/8/8/8/8 b - - 0 1")));
+    }
+
+    @Test
+    public void testRookPawnWithDefenderInCornerIsDraw() {
+        Assertions.assertTrue(KPKBitbase.isDraw(FEN.toBoard("k7/8/8/8/8/8/P7/K7 w - - 0 1")));
+        Assertions.assertTrue(KPKBitbase.isDraw(FEN.toBoard("7k/8/8/8/8/8/7P/7K b - - 0 1")));
+    }
+
+    @Test
+    public void testUndefendedPawnIsCaptured() {
+        Assertions.assertTrue(KPKBitbase.isDraw(FEN.toBoard("8/8/8/8/8/8/3kP3/7K b - - 0 1")));
+        Assertions.assertFalse(KPKBitbase.isDraw(FEN.toBoard("8/8/8/8/8/8/3kP3/7K w - - 0 1")));
+    }
+
+    @Test
+    public void testOtherMaterialIsNotProbed() {
+        Assertions.assertFalse(KPKBitbase.isDraw(FEN.toBoard(FEN.STARTPOS)));
+        Assertions.assertFalse(KPKBitbase.isDraw(FEN.toBoard("4k3/8/8/8/8/8/8/4K2R w - - 0 1")));
+    }
+
+}
@@ -12,6 +12,8 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.lang.reflect.Field;
+
 public class TranspositionTableTest {
 
     private TranspositionTable table;
@@ -32,7 +34,7 @@ public class TranspositionTableTest {
         int depth = 17;
         int score = 548;
         int flag = HashFlag.EXACT;
-        Move move = Move.fromUCI("e2e4");
+        int move = Move.fromUCI("e2e4").value();
         assertEntry(zobristKey, score, move, flag, depth);
 
     }
@@ -44,7 +46,7 @@ public class TranspositionTableTest {
         int depth = 1;
         int score = 1;
         int flag = HashFlag.UPPER;
-        assertEntry(zobristKey, score, null, flag, depth);
+        assertEntry(zobristKey, score, Move.NONE, flag, depth);
     }
 
     @Test
@@ -54,7 +56,7 @@ public class TranspositionTableTest {
         int depth = 1;
         int score = 1000000;
         int flag = HashFlag.UPPER;
-        Move move = Move.fromUCI("e2e4");
+        int move = Move.fromUCI("e2e4").value();
         assertEntry(zobristKey, score, move, flag, depth);
     }
 
@@ -65,7 +67,7 @@ public class TranspositionTableTest {
         int depth = 1;
         int score = -1000000;
         int flag = HashFlag.UPPER;
-        Move move = Move.fromUCI("e2e4");
+        int move = Move.fromUCI("e2e4").value();
         assertEntry(zobristKey, score, move, flag, depth);
     }
 
@@ -76,7 +78,7 @@ public class TranspositionTableTest {
         int depth = 256;
         int score = -789;
         int flag = HashFlag.UPPER;
-        assertEntry(zobristKey, score, null, flag, depth);
+        assertEntry(zobristKey, score, Move.NONE, flag, depth);
     }
 
     @Test
@@ -87,7 +89,7 @@ public class TranspositionTableTest {
         int score = -789;
         int flag = HashFlag.LOWER;
         Move move = Move.fromUCI("e7e8q");
-        assertEntry(zobristKey, score, move, flag, depth);
+        assertEntry(zobristKey, score, move.value(), flag, depth);
     }
 
     @Test
@@ -98,7 +100,7 @@ public class TranspositionTableTest {
 
         // Do some evaluation on the node at this position.
         int flag = HashFlag.EXACT;
-        Move bestMove = Move.fromUCI("e2e4");
+        int bestMove = Move.fromUCI("e2e4").value();
         int eval = 60;
         int depth = 3;
         int ply = 2;
@@ -117,7 +119,7 @@ public class TranspositionTableTest {
 
         board.makeMove(TestUtils.getLegalMove(board, "d2", "d4"));
         flag = HashFlag.UPPER;
-        bestMove = Move.fromUCI("e2e4");
+        bestMove = Move.fromUCI("e2e4").value();
         eval = 28666;
         depth = 256;
         table.put(board.getState().getKey(), flag, depth, ply + 1, bestMove, 0,  eval);
@@ -133,12 +135,12 @@ public class TranspositionTableTest {
         flag = HashFlag.LOWER;
         eval = 1000000;
         depth = 10;
-        table.put(board.getState().getKey(), flag, depth, ply + 2, null, 0,  eval);
+        table.put(board.getState().getKey(), flag, depth, ply + 2, Move.NONE, 0,  eval);
 
         entry = table.get(board.getState().getKey(), ply);
         Assertions.assertNotNull(entry);
         Assertions.assertEquals(flag, entry.flag());
-        Assertions.assertEquals(null, entry.move());
+        Assertions.assertEquals(Move.NONE, entry.move());
         Assertions.assertEquals(eval - 2, entry.score());
         Assertions.assertEquals(depth, entry.depth());
     }
@@ -151,7 +153,7 @@ public class TranspositionTableTest {
 
         // Do some evaluation on the node at this position.
         int flag = HashFlag.EXACT;
-        Move bestMove = Move.fromUCI("e2e4");
+        int bestMove = Move.fromUCI("e2e4").value();
         int eval = 60;
         int depth = 3;
         int ply = 25;
@@ -180,7 +182,7 @@ public class TranspositionTableTest {
     public void testCanStorePromotionFlag() {
 
         int flag = HashFlag.EXACT;
-        Move bestMove = Move.fromUCI("e7e8b");
+        int bestMove = Move.fromUCI("e7e8b").value();
         int eval = 60;
         int depth = 3;
         int ply = 255;
@@ -194,8 +196,8 @@ public class TranspositionTableTest {
         Assertions.assertNotNull(entry);
         Assertions.assertEquals(flag, entry.flag());
         Assertions.assertEquals(bestMove, entry.move());
-        Assertions.assertTrue(entry.move() != null && entry.move().isPromotion());
-        Assertions.assertEquals(Piece.BISHOP, entry.move().promoPiece());
+        Assertions.assertTrue(Move.isPromotion(entry.move()));
+        Assertions.assertEquals(Piece.BISHOP, Move.promoPiece(entry.move()));
         Assertions.assertEquals(eval, entry.score());
         Assertions.assertEquals(depth, entry.depth());
 
@@ -205,7 +207,7 @@ public class TranspositionTableTest {
     public void testStoreCheckmateAtRoot() {
 
         int flag = HashFlag.EXACT;
-        Move bestMove = Move.fromUCI("e7e8b");
+        int bestMove = Move.fromUCI("e7e8b").value();
         int plyRemaining = 10;
         int plyFromRoot = 0;
 
@@ -223,7 +225,7 @@ public class TranspositionTableTest {
     public void testStoreCheckmateAtRootPlusOne() {
 
         int flag = HashFlag.EXACT;
-        Move bestMove = Move.fromUCI("e7e8b");
+        int bestMove = Move.fromUCI("e7e8b").value();
         int plyRemaining = 10;
         int plyFromRoot = 1;
 
@@ -242,7 +244,7 @@ public class TranspositionTableTest {
 
         long zobrist = board.getState().getKey();
         int flag = HashFlag.EXACT;
-        Move bestMove = Move.fromUCI("e7e8b");
+        int bestMove = Move.fromUCI("e7e8b").value();
         int eval = 1000000;
         int plyRemaining = 10;
         int plyFromRoot = 5;
@@ -262,7 +264,7 @@ public class TranspositionTableTest {
 
         long zobrist = board.getState().getKey();
         int flag = HashFlag.EXACT;
-        Move bestMove = Move.fromUCI("e2e4");
+        int bestMove = Move.fromUCI("e2e4").value();
         int eval = 60;
         int plyFromRoot = 0;
         int plyRemaining = 12;
@@ -272,10 +274,10 @@ public class TranspositionTableTest {
         flag = HashFlag.UPPER;
         eval = 70;
         plyRemaining = 11;
-        bestMove = Move.fromUCI("e2e4");
+        bestMove = Move.fromUCI("e2e4").value();
         table.put(board.getState().getKey(), flag, plyRemaining, plyFromRoot, bestMove, 0,  eval);
 
-        assertEntry(zobrist, 60, Move.fromUCI("e2e4"), HashFlag.EXACT, 12);
+        assertEntry(zobrist, 60, Move.fromUCI("e2e4").value(), HashFlag.EXACT, 12);
 
     }
 
@@ -284,7 +286,7 @@ public class TranspositionTableTest {
 
         long zobrist = board.getState().getKey();
         int flag = HashFlag.EXACT;
-        Move bestMove = Move.fromUCI("e2e4");
+        int bestMove = Move.fromUCI("e2e4").value();
         int eval = 60;
         int plyFromRoot = 0;
         int plyRemaining = 12;
@@ -294,7 +296,7 @@ public class TranspositionTableTest {
         flag = HashFlag.UPPER;
         eval = 70;
         plyRemaining = 13;
-        bestMove = Move.fromUCI("e2e4");
+        bestMove = Move.fromUCI("e2e4").value();
         table.put(board.getState().getKey(), flag, plyRemaining, plyFromRoot, bestMove, 0,  eval);
 
         assertEntry(zobrist, 60, bestMove, flag, 13);
@@ -311,20 +313,59 @@ public class TranspositionTableTest {
         int eval = 126;
         int score = 0;
 
-        table.put(key, flag, depth, ply, null, eval, score);
+        table.put(key, flag, depth, ply, Move.NONE, eval, score);
 
         HashEntry ttEntry = table.get(key, ply);
 
         Assertions.assertNotNull(ttEntry);
         Assertions.assertEquals(HashFlag.NONE, ttEntry.flag());
-        Assertions.assertNull(ttEntry.move());
+        Assertions.assertEquals(Move.NONE, ttEntry.move());
         Assertions.assertEquals(126, ttEntry.staticEval());
         Assertions.assertEquals(0, ttEntry.score());
         Assertions.assertEquals(0, ttEntry.depth());
 
     }
 
-    private void assertEntry(long zobrist, int score, Move move, int flag, int depth) {
+    @Test
+    public void testTornEntryIsTreatedAsMiss() throws ReflectiveOperationException {
+
+        // Two shallow quiescence stores with no best move differ only in their score.
+        assertTornEntryIsMiss(HashEntry.Value.of(-50, Move.NONE, HashFlag.UPPER, 0),
+                HashEntry.Value.of(-49, Move.NONE, HashFlag.UPPER, 0));
+
+        // Values whose differences cancel out when the two halves are simply XOR-ed together.
+        assertTornEntryIsMiss(HashEntry.Value.of(5, Move.NONE, HashFlag.LOWER, 4),
+                HashEntry.Value.of(4, Move.NONE, HashFlag.LOWER, 5));
+
+    }
+
+    /**
+     * Stores an entry, then replaces its value with the value of another position, as if another thread had written its
+     * value but not yet its key, and checks that the entry no longer verifies.
+     */
+    private void assertTornEntryIsMiss(long value, long otherValue) throws ReflectiveOperationException {
+        table.clear();
+        long key = board.key();
+        table.put(key, HashEntry.Value.getFlag(value), HashEntry.Value.getDepth(value), 0,
+                HashEntry.Value.getMove(value), 0, HashEntry.Value.getScore(value));
+        Assertions.assertNotNull(table.get(key, 0));
+
+        long[] keys = tableArray("keys");
+        long[] values = tableArray("values");
+        int slot = 0;
+        while (keys[slot] == 0) slot++;
+        values[slot] = otherValue;
+
+        Assertions.assertNull(table.get(key, 0));
+    }
+
+    private long[] tableArray(String name) throws ReflectiveOperationException {
+        Field field = TranspositionTable.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return (long[]) field.get(table);
+    }
+
+    private void assertEntry(long zobrist, int score, int move, int flag, int depth) {
         long key = HashEntry.Key.of(zobrist, 0, 0);
         long value = HashEntry.Value.of(score, move, flag, depth);
         HashEntry entry = HashEntry.of(key, value);
@@ -41,7 +41,7 @@ public class FENTest {
         Assertions.assertEquals(newBoard.isWhite(), fenBoard.isWhite());
         Assertions.assertEquals(newBoard.getState(), fenBoard.getState());
         Assertions.assertEquals(Arrays.asList(newBoard.getStates()), Arrays.asList(fenBoard.getStates()));
-        Assertions.assertEquals(Arrays.asList(newBoard.getMoves()), Arrays.asList(fenBoard.getMoves()));
+        Assertions.assertArrayEquals(newBoard.getMoves(), fenBoard.getMoves());
 
     }
 